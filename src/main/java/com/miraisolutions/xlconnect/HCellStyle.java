@@ -27,6 +27,9 @@ import org.apache.poi.ss.usermodel.BorderStyle;
 import org.apache.poi.ss.usermodel.DataFormat;
 import org.apache.poi.ss.usermodel.FillPatternType;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public final class HCellStyle implements CellStyle {
 
     private final HSSFWorkbook workbook;
@@ -107,6 +110,22 @@ public final class HCellStyle implements CellStyle {
         return null;
     }
 
+    public static Map<String, HCellStyle> getAll(HSSFWorkbook workbook) {
+        Map<String, HCellStyle> styles = new HashMap<>();
+        for (short i = 0; i < workbook.getNumCellStyles(); i++) {
+            HSSFCellStyle cs = workbook.getCellStyleAt(i);
+            String userStyleName = cs.getUserStyleName();
+            if (userStyleName != null && !styles.containsKey(userStyleName))
+                styles.put(userStyleName, new HCellStyle(workbook, cs));
+        }
+
+        return styles;
+    }
+
+    HSSFCellStyle toCellStyle() {
+        return cellStyle;
+    }
+
     public static void set(HSSFCell c, HCellStyle cs) {
         c.setCellStyle(cs.cellStyle);
     }
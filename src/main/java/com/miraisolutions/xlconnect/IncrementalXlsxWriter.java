@@ -0,0 +1,220 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.poi.Version;
+import org.apache.poi.ooxml.POIXMLDocumentPart;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.ContentTypes;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackagePartName;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipCollection;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.openxml4j.opc.PackagingURIHelper;
+import org.apache.poi.openxml4j.opc.TargetMode;
+import org.apache.poi.openxml4j.opc.internal.ContentTypeManager;
+import org.apache.poi.openxml4j.opc.internal.PackagePropertiesPart;
+import org.apache.poi.openxml4j.opc.internal.PartMarshaller;
+import org.apache.poi.openxml4j.opc.internal.ZipContentTypeManager;
+import org.apache.poi.openxml4j.opc.internal.marshallers.ZipPackagePropertiesMarshaller;
+import org.apache.poi.openxml4j.opc.internal.marshallers.ZipPartMarshaller;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Writes an XLSX workbook that has been loaded from a file, re-serializing only the parts which may have changed.
+ * Unchanged parts (see write) are copied from the source file as they are, i.e. without being decompressed,
+ * parsed or compressed again.
+ */
+final class IncrementalXlsxWriter {
+
+    // POI only commits document parts as part of writing the whole package; the non-public methods and
+    // internal classes used for this are only relied upon for the POI versions this has been tested with
+    private static final Set<String> SUPPORTED_POI_VERSIONS = Collections.singleton("5.5.1");
+    private static final Method PREPARE_FOR_COMMIT = getPartMethod("prepareForCommit");
+    private static final Method COMMIT = getPartMethod("commit");
+
+    // Can be cleared such that workbooks are always written as a whole, as with unsupported POI versions
+    static boolean enabled = SUPPORTED_POI_VERSIONS.contains(Version.getVersion());
+
+    private IncrementalXlsxWriter() {
+    }
+
+    /**
+     * @return Whether the workbook's package can be written incrementally
+     */
+    static boolean isSupported(XSSFWorkbook workbook) {
+        if (!enabled || PREPARE_FOR_COMMIT == null || COMMIT == null)
+            return false;
+        OPCPackage pkg = workbook.getPackage();
+        return pkg != null && (!pkg.getPartsByRelationshipType(PackageRelationshipTypes.CORE_PROPERTIES).isEmpty() ||
+                !pkg.getPartsByRelationshipType(PackageRelationshipTypes.CORE_PROPERTIES_ECMA376).isEmpty());
+    }
+
+    /**
+     * Writes the workbook to the specified output stream.
+     *
+     * @param workbook  Workbook loaded from source
+     * @param source    XLSX file from which the workbook has been loaded (or to which it has last been written)
+     * @param unchanged Document parts (such as worksheets) which have not changed compared to source; these
+     *                  and the parts only related from these are copied from source
+     * @param os        Output stream
+     */
+    static void write(XSSFWorkbook workbook, File source, Set<? extends POIXMLDocumentPart> unchanged,
+                      OutputStream os) throws IOException {
+        Set<PackagePartName> committed = new HashSet<>();
+        commit(workbook, unchanged, committed);
+        workbook.getProperties().commit();
+
+        OPCPackage pkg = workbook.getPackage();
+        try (ZipFile zip = ZipFile.builder().setFile(source).get()) {
+            // Parts related from the package (properties, thumbnail) are always written
+            for (PackageRelationship rel : pkg.getRelationships()) {
+                if (rel.getTargetMode() == TargetMode.INTERNAL)
+                    committed.add(PackagingURIHelper.createPartName(rel.getTargetURI()));
+            }
+
+            ZipArchiveOutputStream zos = new ZipArchiveOutputStream(os);
+            writeContentTypes(pkg, zip, zos);
+            writeRelationships(pkg.getRelationships(), PackagingURIHelper.PACKAGE_RELATIONSHIPS_ROOT_PART_NAME, zos);
+            ZipPartMarshaller marshaller = new ZipPartMarshaller();
+            for (PackagePart part : pkg.getParts()) {
+                if (part.isRelationshipPart()) continue;
+                PackagePartName name = part.getPartName();
+                ZipArchiveEntry entry = committed.contains(name) ? null : zip.getEntry(getEntryName(name));
+                if (part instanceof PackagePropertiesPart) {
+                    marshall(new ZipPackagePropertiesMarshaller(), part, zos);
+                } else if (entry == null) {
+                    marshall(marshaller, part, zos);
+                } else {
+                    try (InputStream raw = zip.getRawInputStream(entry)) {
+                        zos.addRawArchiveEntry(entry, raw);
+                    }
+                    if (part.hasRelationships())
+                        writeRelationships(part.getRelationships(),
+                                PackagingURIHelper.getRelationshipPartName(name), zos);
+                }
+            }
+            zos.finish();
+        } catch (OpenXML4JException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Commits a document part and (recursively) its related parts, as done by POI when writing a document,
+     * except for the unchanged parts
+     */
+    private static void commit(POIXMLDocumentPart part, Set<? extends POIXMLDocumentPart> unchanged,
+                               Set<PackagePartName> committed) throws IOException {
+        if (unchanged.contains(part) || !committed.add(part.getPackagePart().getPartName())) return;
+        invoke(PREPARE_FOR_COMMIT, part);
+        invoke(COMMIT, part);
+        for (POIXMLDocumentPart.RelationPart rel : part.getRelationParts()) {
+            commit(rel.getDocumentPart(), unchanged, committed);
+        }
+    }
+
+    /**
+     * Writes the content types of all parts, keeping the default content types of the source file
+     */
+    private static void writeContentTypes(OPCPackage pkg, ZipFile source, ZipArchiveOutputStream zos)
+            throws IOException, InvalidFormatException {
+        ZipArchiveEntry entry = source.getEntry(ContentTypeManager.CONTENT_TYPES_PART_NAME);
+        ContentTypeManager contentTypes;
+        if (entry == null) {
+            contentTypes = new ZipContentTypeManager(null, pkg);
+        } else {
+            try (InputStream is = source.getInputStream(entry)) {
+                contentTypes = new ZipContentTypeManager(is, pkg);
+            }
+        }
+        contentTypes.clearOverrideContentTypes();
+        for (PackagePart part : pkg.getParts()) {
+            if (part.isRelationshipPart()) continue;
+            PackagePartName name = part.getPartName();
+            if (!part.getContentType().equals(contentTypes.getContentType(name)))
+                contentTypes.addContentType(name, part.getContentType());
+        }
+        contentTypes.addContentType(PackagingURIHelper.PACKAGE_RELATIONSHIPS_ROOT_PART_NAME,
+                ContentTypes.RELATIONSHIPS_PART);
+        if (!contentTypes.save(zos))
+            throw new IOException("Failed to save content types part");
+    }
+
+    private static void writeRelationships(PackageRelationshipCollection rels, PackagePartName name,
+                                           ZipArchiveOutputStream zos) throws IOException {
+        if (!ZipPartMarshaller.marshallRelationshipPart(rels, name, zos))
+            throw new IOException("Failed to save relationships part " + name.getName());
+    }
+
+    private static void marshall(PartMarshaller marshaller, PackagePart part,
+                                 ZipArchiveOutputStream zos) throws IOException, OpenXML4JException {
+        if (!marshaller.marshall(part, zos))
+            throw new IOException("Failed to save part " + part.getPartName().getName());
+    }
+
+    private static String getEntryName(PackagePartName name) {
+        return name.getName().substring(1);
+    }
+
+    /**
+     * @return The non-public document part method or null if it is not available; in this case,
+     * workbooks are not written incrementally (see isSupported)
+     */
+    private static Method getPartMethod(String name) {
+        try {
+            Method method = POIXMLDocumentPart.class.getDeclaredMethod(name);
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void invoke(Method method, POIXMLDocumentPart part) throws IOException {
+        try {
+            method.invoke(part);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+}
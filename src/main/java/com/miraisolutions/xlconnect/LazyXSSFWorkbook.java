@@ -0,0 +1,162 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import org.apache.poi.ooxml.POIXMLDocumentPart;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTSheet;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+
+/**
+ * XLSX workbook which parses the XML of its worksheets only when they are first accessed. Worksheet names,
+ * defined names, styles and shared strings are available right away; worksheets that are only streamed
+ * (see getSheetAt(int, boolean)) are never parsed. If the POI internals needed for this are not accessible,
+ * worksheets are parsed while loading the workbook, as with any XSSFWorkbook.
+ */
+final class LazyXSSFWorkbook extends XSSFWorkbook {
+
+    // POI parses all worksheets while loading the workbook and offers no way to defer this;
+    // null if not accessible (in which case worksheets are parsed right away)
+    private static final Field SHEETS = getField(XSSFWorkbook.class, "sheets", List.class);
+    private static final Field CT_SHEET = getField(XSSFSheet.class, "sheet", CTSheet.class);
+    private static final Method ON_DOCUMENT_READ = getOnDocumentRead();
+    private static final boolean LAZY = SHEETS != null && CT_SHEET != null && ON_DOCUMENT_READ != null;
+
+    // Worksheets not parsed yet; NOTE: assigned while the super constructor loads the workbook
+    private Set<XSSFSheet> unparsed;
+
+    LazyXSSFWorkbook(OPCPackage pkg) throws IOException {
+        super(pkg);
+    }
+
+    @Override
+    public void parseSheet(Map<String, XSSFSheet> shIdMap, CTSheet ctSheet) {
+        XSSFSheet sheet = shIdMap.get(ctSheet.getId());
+        if (sheet == null || !LAZY) {
+            // Let POI deal with worksheets missing in the package
+            super.parseSheet(shIdMap, ctSheet);
+            return;
+        }
+        if (unparsed == null) unparsed = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            @SuppressWarnings("unchecked")
+            List<XSSFSheet> sheets = (List<XSSFSheet>) SHEETS.get(this);
+            CT_SHEET.set(sheet, ctSheet);
+            sheets.add(sheet);
+        } catch (IllegalAccessException | RuntimeException e) {
+            super.parseSheet(shIdMap, ctSheet);
+            return;
+        }
+        unparsed.add(sheet);
+    }
+
+    /**
+     * @param parse Should the worksheet be parsed if it has not been yet? Unparsed worksheets only support
+     *              accessing their name, workbook and package part.
+     */
+    XSSFSheet getSheetAt(int index, boolean parse) {
+        XSSFSheet sheet = super.getSheetAt(index);
+        return parse ? parsed(sheet) : sheet;
+    }
+
+    @Override
+    public XSSFSheet getSheetAt(int index) {
+        return getSheetAt(index, true);
+    }
+
+    @Override
+    public XSSFSheet getSheet(String name) {
+        return parsed(super.getSheet(name));
+    }
+
+    @Override
+    public Iterator<Sheet> sheetIterator() {
+        parseAll();
+        return super.sheetIterator();
+    }
+
+    @Override
+    public Iterator<Sheet> iterator() {
+        parseAll();
+        return super.iterator();
+    }
+
+    @Override
+    public Spliterator<Sheet> spliterator() {
+        parseAll();
+        return super.spliterator();
+    }
+
+    private synchronized XSSFSheet parsed(XSSFSheet sheet) {
+        if (sheet != null && unparsed != null && unparsed.remove(sheet)) {
+            try {
+                ON_DOCUMENT_READ.invoke(sheet);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                throw new IllegalStateException("Could not read worksheet '" + sheet.getSheetName() + "'", cause);
+            }
+        }
+        return sheet;
+    }
+
+    private void parseAll() {
+        for (int i = 0; i < getNumberOfSheets(); i++) {
+            parsed(super.getSheetAt(i));
+        }
+    }
+
+    private static Field getField(Class<?> clazz, String name, Class<?> type) {
+        try {
+            Field field = clazz.getDeclaredField(name);
+            field.setAccessible(true);
+            return type.isAssignableFrom(field.getType()) ? field : null;
+        } catch (NoSuchFieldException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Method getOnDocumentRead() {
+        try {
+            Method method = POIXMLDocumentPart.class.getDeclaredMethod("onDocumentRead");
+            method.setAccessible(true);
+            return method;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return null;
+        }
+    }
+}
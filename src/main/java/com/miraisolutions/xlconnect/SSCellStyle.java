@@ -88,6 +88,10 @@ public final class SSCellStyle implements CellStyle {
         cellStyle.setWrapText(wrap);
     }
 
+    org.apache.poi.ss.usermodel.CellStyle toCellStyle() {
+        return cellStyle;
+    }
+
     public static void set(Cell c, SSCellStyle cs) {
         c.setCellStyle(cs.cellStyle);
     }
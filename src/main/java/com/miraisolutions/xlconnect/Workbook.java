@@ -21,22 +21,41 @@
 package com.miraisolutions.xlconnect;
 
 import com.miraisolutions.xlconnect.data.*;
+import com.miraisolutions.xlconnect.utils.CellUtils;
 import com.miraisolutions.xlconnect.utils.DateTimeFormatter;
+import com.miraisolutions.xlconnect.utils.DateUtils;
 import com.miraisolutions.xlconnect.utils.RPOSIXDateTimeFormatter;
 import org.apache.poi.common.usermodel.HyperlinkType;
+import org.apache.poi.ooxml.POIXMLDocumentPart;
 import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
 import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.AreaReference;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.CellUtil;
 import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.*;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
@@ -48,7 +67,7 @@ import static com.miraisolutions.xlconnect.Attribute.WORKSHEET_SCOPE;
 /**
  * Class representing a Microsoft Excel Workbook for XLConnect
  */
-public final class Workbook {
+public final class Workbook implements AutoCloseable {
 
     // Prefix
     private final static String HEADER = "Header";
@@ -65,10 +84,29 @@ public final class Workbook {
     // NOTE: currently fixed to a RPOSIXDateTimeFormatter
     public final static DateTimeFormatter dateTimeFormatter = new RPOSIXDateTimeFormatter();
 
-    // Apache POI workbook instance
-    private final org.apache.poi.ss.usermodel.Workbook workbook;
+    // Apache POI workbook instance; null once the workbook has been closed
+    private org.apache.poi.ss.usermodel.Workbook workbook;
+    // Has the workbook been closed (see close)? Public methods check this first (see checkOpen)
+    private boolean closed = false;
+    // Streaming (SXSSF) view on the workbook; only created when writing worksheets in streaming mode
+    private SXSSFWorkbook streamingWorkbook = null;
+    // Worksheets written in streaming mode; their rows are flushed to temporary files and can no longer be modified
+    private final Set<Sheet> streamedSheets = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Worksheets modified through this API since the workbook has been loaded or last been saved to a file
+    private final Set<Sheet> modifiedSheets = Collections.newSetFromMap(new IdentityHashMap<>());
+    // Should XLSX files be saved incrementally (see setIncrementalSave)?
+    private boolean incrementalSave = false;
+    /* XLSX file containing the workbook as of the last load or save, together with its size and modification
+       time; null if there is no such file */
+    private File sourceFile = null;
+    private long sourceLength;
+    private long sourceLastModified;
+    // Have string cell values been written (and thus possibly added to the shared strings table) since then?
+    private boolean sharedStringsModified = false;
     // Underlying file instance
     private File excelFile;
+    // Has the workbook been opened read-only (see getWorkbook)?
+    private boolean readOnly = false;
     // Style action
     private StyleAction styleAction = StyleAction.XLCONNECT;
     // Style name prefix
@@ -78,6 +116,8 @@ public final class Workbook {
        (null means blank/empty cell)
      */
     private Object[] missingValue = new Object[]{null};
+    // Missing values as used for reading data; compiled from missingValue
+    private MissingValues missingValues = new MissingValues(missingValue);
     // Default cell styles
     private final Map<String, CellStyle> defaultStyles =
             new HashMap<>(5);
@@ -92,6 +132,34 @@ public final class Workbook {
     // WARN means returning a missing value and registering a warning
     private ErrorBehavior onErrorCell = ErrorBehavior.WARN;
 
+    // Formula evaluator shared by all reads which do not take cached values; created on demand and kept
+    // up to date by notifying it about changed cells
+    private FormulaEvaluator evaluator = null;
+    // Number of cell change notifications sent to the current formula evaluator
+    private int evaluatorNotifications = 0;
+    // POI registers every notification in an internal map of the evaluator, so beyond this number of changed
+    // cells the evaluator is discarded instead (which is also cheaper for bulk writes)
+    private final static int MAX_EVALUATOR_NOTIFICATIONS = 10000;
+
+    // Sheet extent indexes; built on demand and kept up to date by the methods changing rows and cells
+    private final Map<Sheet, SheetExtentIndex> extents = new IdentityHashMap<>();
+
+    // Named cell styles by name; built on first lookup and updated by createCellStyle
+    private Map<String, CellStyle> namedCellStyles = null;
+
+    // Number of rows from which column types are determined when reading data (0 = all rows)
+    private int typeInferenceRows = 0;
+
+    // Decimal separator used when converting strings to numbers while reading data
+    private char decimalSeparator = '.';
+
+    // Number of threads used to build data frame columns when reading data (1 = sequential)
+    private int parallelism = 1;
+    // Pool used for building columns in parallel; created on demand
+    private ForkJoinPool pool = null;
+    // Chunk readers which have not been closed yet
+    private final Set<ChunkReader> openReaders = Collections.newSetFromMap(new IdentityHashMap<>());
+
     // This is used to support the warnings mechanism on the R side
     private ArrayList<String> warnings = new ArrayList<>();
 
@@ -101,7 +169,9 @@ public final class Workbook {
          * a JVM crash as described here: https://bz.apache.org/bugzilla/show_bug.cgi?id=53515
          * TODO once we no longer support java 8, try again to switch to Files.newInputStream(excelFile.toPath()) 
          */
-        this.workbook = WorkbookFactory.create(new FileInputStream(excelFile), password);
+        try (InputStream is = new FileInputStream(excelFile)) {
+            this.workbook = WorkbookFactory.create(is, password);
+        }
         this.excelFile = excelFile;
         init();
     }
@@ -112,11 +182,43 @@ public final class Workbook {
          * a JVM crash as described here: https://bz.apache.org/bugzilla/show_bug.cgi?id=53515
          * TODO once we no longer support java 8, try again to switch to Files.newInputStream(excelFile.toPath()) 
          */
-        this.workbook = WorkbookFactory.create(new FileInputStream(excelFile));
+        try (InputStream is = new FileInputStream(excelFile)) {
+            this.workbook = WorkbookFactory.create(is);
+        }
         this.excelFile = excelFile;
+        setSource(excelFile);
         init();
     }
 
+    private Workbook(org.apache.poi.ss.usermodel.Workbook workbook, File excelFile, boolean readOnly) {
+        this.workbook = workbook;
+        this.excelFile = excelFile;
+        this.readOnly = readOnly;
+        init();
+    }
+
+    /**
+     * Opens a workbook read-only. The file is accessed in place rather than being buffered in memory and
+     * the worksheets of XLSX files are only parsed when they are first accessed.
+     */
+    private static Workbook openReadOnly(File excelFile, String password) throws IOException {
+        if (password == null && FileMagic.valueOf(excelFile) == FileMagic.OOXML) {
+            OPCPackage pkg;
+            try {
+                pkg = OPCPackage.open(excelFile, PackageAccess.READ);
+            } catch (InvalidFormatException e) {
+                throw new IOException(e);
+            }
+            try {
+                return new Workbook(new LazyXSSFWorkbook(pkg), excelFile, true);
+            } catch (IOException | RuntimeException e) {
+                pkg.revert();
+                throw e;
+            }
+        }
+        return new Workbook(WorkbookFactory.create(excelFile, password, true), excelFile, true);
+    }
+
     private Workbook(File excelFile, SpreadsheetVersion version) {
         switch (version) {
             case EXCEL97:
@@ -189,40 +291,51 @@ public final class Workbook {
     }
 
     public void setCellStyleForDataType(DataType type, CellStyle cs) {
+        checkOpen();
         dataTypeStyles.put(type, cs);
     }
 
     public CellStyle getCellStyleForDataType(DataType type) {
+        checkOpen();
         return dataTypeStyles.get(type);
     }
 
     public void setDataFormat(DataType type, String format) {
+        checkOpen();
         dataFormatMap.put(type, format);
     }
 
     public void setStyleAction(StyleAction styleAction) {
+        checkOpen();
         this.styleAction = styleAction;
     }
 
     public void setStyleNamePrefix(String styleNamePrefix) {
+        checkOpen();
         this.styleNamePrefix = styleNamePrefix;
     }
 
     public String[] getSheets() {
+        checkOpen();
         return IntStream.range(0, workbook.getNumberOfSheets())
                 .mapToObj(workbook::getSheetName)
                 .toArray(String[]::new);
     }
 
     public int getSheetPos(String sheetName) {
+        checkOpen();
         return workbook.getSheetIndex(sheetName);
     }
 
     public void setSheetPos(String sheetName, int pos) {
+        checkOpen();
         workbook.setSheetOrder(sheetName, pos);
+        markAllModified();
+        resetEvaluator();
     }
 
     public ResultWithAttributes<String[]> getDefinedNames(boolean validOnly, String worksheetScope) {
+        checkOpen();
         Supplier<Stream<? extends Name>> definedNamesSup = () -> workbook.getAllNames().stream()
                 .filter(
                     n -> (!validOnly || isValidNamedRegion(n)) && 
@@ -262,10 +375,12 @@ public final class Workbook {
     }
 
     public boolean existsSheet(String name) {
+        checkOpen();
         return workbook.getSheet(name) != null;
     }
 
     public ResultWithAttributes<Boolean> existsName(String name, String worksheetScope) {
+        checkOpen();
         try {
             Name found = getName(name, worksheetScope);
             String foundInScope = effectiveScope(worksheetScope, found);
@@ -282,42 +397,60 @@ public final class Workbook {
 
 
     public void createSheet(String name) {
+        checkOpen();
         if (name.length() > 31)
             throw new IllegalArgumentException("Sheet names are not allowed to contain more than 31 characters!");
 
-        if (workbook.getSheetIndex(name) < 0)
-            workbook.createSheet(name);
+        if (workbook.getSheetIndex(name) < 0) {
+            markModified(workbook.createSheet(name));
+            resetEvaluator();
+        }
     }
 
     public void removeSheet(int sheetIndex) {
+        checkOpen();
         if (sheetIndex > -1 && sheetIndex < workbook.getNumberOfSheets()) {
             setAlternativeActiveSheet(sheetIndex);
+            extents.remove(workbook.getSheetAt(sheetIndex));
             workbook.removeSheetAt(sheetIndex);
+            markAllModified();
+            resetEvaluator();
         }
     }
 
     public void removeSheet(String name) {
+        checkOpen();
         removeSheet(workbook.getSheetIndex(name));
     }
 
     public void renameSheet(int sheetIndex, String newName) {
+        checkOpen();
         renameSheet(workbook.getSheetName(sheetIndex), newName);
     }
 
     public void renameSheet(String name, String newName) {
+        checkOpen();
         workbook.setSheetName(workbook.getSheetIndex(name), newName);
+        // Formulas referring to the sheet are updated
+        markAllModified();
+        resetEvaluator();
     }
 
     public void cloneSheet(int index, String newName) {
+        checkOpen();
         cloneSheet(workbook.getSheetName(index), newName);
     }
 
     public void cloneSheet(String name, String newName) {
+        checkOpen();
         Sheet sheet = workbook.cloneSheet(workbook.getSheetIndex(name));
         workbook.setSheetName(workbook.getSheetIndex(sheet), newName);
+        markAllModified();
+        resetEvaluator();
     }
 
     public void createName(String name,  String formula, boolean overwrite, String worksheetScope) {
+        checkOpen();
         if (existsName(name, worksheetScope).getValue()) {
             if (overwrite) {
                 // Name already exists but we overwrite --> remove
@@ -328,6 +461,7 @@ public final class Workbook {
             }
         }
 
+        resetEvaluator();
         Name cname = workbook.createName();
         if(worksheetScope != null) {
             int sheetIndex = getSheetIndexForScope(worksheetScope);
@@ -345,13 +479,16 @@ public final class Workbook {
     }
 
     public void removeName(String name, String worksheetScope) {
+        checkOpen();
         if (existsName(name, worksheetScope).getValue()) {
             Name cname = getName(name, worksheetScope);
             workbook.removeName(cname);
+            resetEvaluator();
         }
     }
 
     public ResultWithAttributes<String> getReferenceFormula(String name, String worksheetScope) {
+        checkOpen();
         Name found = getName(name, worksheetScope);
         return new ResultWithAttributes<>(
                 found.getRefersToFormula(), WORKSHEET_SCOPE, effectiveScope(worksheetScope, found));
@@ -359,10 +496,12 @@ public final class Workbook {
 
     // Keep for backwards compatibility
     public ResultWithAttributes<int[]> getReferenceCoordinates(String name) {
+        checkOpen();
         return getReferenceCoordinatesForName(name, null);
     }
 
     public ResultWithAttributes<int[]> getReferenceCoordinatesForName(String name, String worksheetScope) {
+        checkOpen();
         Name cname = getName(name, worksheetScope);
         AreaReference aref = new AreaReference(cname.getRefersToFormula(), workbook.getSpreadsheetVersion());
         // Get upper left corner
@@ -379,6 +518,7 @@ public final class Workbook {
     }
 
     public String[] getTables(int sheetIndex) {
+        checkOpen();
         if (isXSSF()) {
             XSSFSheet s = (XSSFSheet) getSheet(sheetIndex);
             return s.getTables().stream()
@@ -390,10 +530,12 @@ public final class Workbook {
     }
 
     public String[] getTables(String sheetName) {
+        checkOpen();
         return getTables(workbook.getSheetIndex(sheetName));
     }
 
     public int[] getReferenceCoordinatesForTable(int sheetIndex, String tableName) {
+        checkOpen();
         if (!isXSSF()) {
             throw new IllegalArgumentException("Tables are not supported with this file format");
         }
@@ -413,12 +555,24 @@ public final class Workbook {
     }
 
     public int[] getReferenceCoordinatesForTable(String sheetName, String tableName) {
+        checkOpen();
         return getReferenceCoordinatesForTable(workbook.getSheetIndex(sheetName), tableName);
     }
 
     private void writeData(DataFrame data, Sheet sheet, int startRow, int startCol, boolean header, boolean overwriteFormulaCells) {
+        if (streamedSheets.contains(sheet)) {
+            throw new IllegalArgumentException("Worksheet '" + sheet.getSheetName() + "' has been written in " +
+                    "streaming mode and cannot be modified anymore!");
+        }
+        markModified(sheet);
+
         // Get styles
         Map<String, CellStyle> styles = getStyles(data, sheet, startRow, startCol);
+        StyleCache styleCache = new StyleCache();
+
+        // Bulk writes invalidate the formula evaluator as a whole
+        long ncells = (long) data.columns() * (data.rows() + (header ? 1 : 0));
+        if (evaluatorNotifications + ncells > MAX_EVALUATOR_NOTIFICATIONS) resetEvaluator();
 
         Consumer<Cell> maybeClearFormula = overwriteFormulaCells ? (cell ->
         {
@@ -437,8 +591,9 @@ public final class Workbook {
             // For each column write corresponding column name
             for (int i = 0; i < data.columns(); i++) {
                 Cell cell = getCell(sheet, rowIndex, colIndex + i);
-                cell.setCellValue(data.getColumnName(i));
-                setCellStyle(cell, styles.get(HEADER + i));
+                setStringValue(cell, data.getColumnName(i));
+                notifyUpdateCell(cell);
+                styleCache.getStyler(styles.get(HEADER + i)).accept(cell);
             }
 
             ++rowIndex;
@@ -447,122 +602,129 @@ public final class Workbook {
         // For each column of data
         for (int i = 0; i < data.columns(); i++) {
             // Get column style
-            CellStyle cs = styles.get(COLUMN + i);
+            Consumer<Cell> styler = styleCache.getStyler(styles.get(COLUMN + i));
             Column col = data.getColumn(i);
-            // Depending on column type ...
-            switch (data.getColumnType(i)) {
-                case Numeric:
-                    double[] doubleValues = col.getNumericData();
-                    for (int j = 0; j < data.rows(); j++) {
-                        Cell cell = getCell(sheet, rowIndex + j, colIndex);
-                        maybeClearFormula.accept(cell);
-                        if (col.isMissing(j))
-                            setMissing(cell);
-                        else {
-                            if (Double.isInfinite(doubleValues[j])) {
-                                cell.setCellErrorValue(FormulaError.NA.getCode());
-                            } else {
-                                cell.setCellValue(doubleValues[j]);
-                            }
-                            setCellStyle(cell, cs);
-                        }
-                    }
-                    break;
-                case String:
-                    String[] stringValues = col.getStringData();
-                    for (int j = 0; j < data.rows(); j++) {
-                        Cell cell = getCell(sheet, rowIndex + j, colIndex);
-                        maybeClearFormula.accept(cell);
-                        if (col.isMissing(j))
-                            setMissing(cell);
-                        else {
-                            cell.setCellValue(stringValues[j]);
-                            setCellStyle(cell, cs);
-                        }
-                    }
-                    break;
-                case Boolean:
-                    boolean[] booleanValues = col.getBooleanData();
-                    for (int j = 0; j < data.rows(); j++) {
-                        Cell cell = getCell(sheet, rowIndex + j, colIndex);
-                        maybeClearFormula.accept(cell);
-                        if (col.isMissing(j))
-                            setMissing(cell);
-                        else {
-                            cell.setCellValue(booleanValues[j]);
-                            setCellStyle(cell, cs);
-                        }
-                    }
-                    break;
-                case DateTime:
-                    Date[] dateValues = col.getDateTimeData();
-                    for (int j = 0; j < data.rows(); j++) {
-                        Cell cell = getCell(sheet, rowIndex + j, colIndex);
-                        maybeClearFormula.accept(cell);
-                        if (col.isMissing(j))
-                            setMissing(cell);
-                        else {
-                            cell.setCellValue(dateValues[j]);
-                            setCellStyle(cell, cs);
-                        }
-                    }
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unknown column type detected!");
+            double[] excelDates = getExcelDates(col);
+            for (int j = 0; j < data.rows(); j++) {
+                Cell cell = getCell(sheet, rowIndex + j, colIndex);
+                maybeClearFormula.accept(cell);
+                setCellValue(cell, col, j, excelDates, styler, styleCache);
+                notifyUpdateCell(cell);
             }
 
             ++colIndex;
         }
-    }
 
+        refreshExtent(sheet, startRow, rowIndex + data.rows() - 1);
+    }
 
-    private DataFrame readData(Sheet sheet, int startRow, int startCol, int nrows, int ncols, boolean header,
-                               ReadStrategy readStrategy, DataType[] colTypes, boolean forceConversion, String dateTimeFormat,
-                               boolean takeCached, int[] subset) {
+    /**
+     * Writes a data frame row by row as required for streaming (SXSSF) worksheets,
+     * where rows can only be written in ascending order. Streamed sheets are not tracked by a
+     * sheet extent index (see getExtent).
+     */
+    private void writeDataByRow(DataFrame data, Sheet sheet, int startRow, int startCol, boolean header) {
+        // Get styles
+        Map<String, CellStyle> styles = getStyles(data, sheet, startRow, startCol);
+        StyleCache styleCache = new StyleCache();
 
-        DataFrame data = new DataFrame();
-        int[] colset;
+        int rowIndex = startRow;
+        if (header && data.hasColumnHeader()) {
+            for (int i = 0; i < data.columns(); i++) {
+                Cell cell = getCell(sheet, rowIndex, startCol + i);
+                setStringValue(cell, data.getColumnName(i));
+                styleCache.getStyler(styles.get(HEADER + i)).accept(cell);
+            }
 
-        // Formula evaluator - only if we don't want to take cached values
-        FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
-        if (!takeCached) evaluator.clearAllCachedResultValues();
+            ++rowIndex;
+        }
 
-        if (subset == null) {
-            colset = IntStream.range(0, ncols).toArray();
-        } else {
-            colset = subset;
+        List<Consumer<Cell>> stylers = new ArrayList<>(data.columns());
+        List<double[]> excelDates = new ArrayList<>(data.columns());
+        for (int i = 0; i < data.columns(); i++) {
+            stylers.add(styleCache.getStyler(styles.get(COLUMN + i)));
+            excelDates.add(getExcelDates(data.getColumn(i)));
         }
+        for (int j = 0; j < data.rows(); j++) {
+            for (int i = 0; i < data.columns(); i++) {
+                Cell cell = getCell(sheet, rowIndex + j, startCol + i);
+                setCellValue(cell, data.getColumn(i), j, excelDates.get(i), stylers.get(i), styleCache);
+            }
+        }
+    }
 
-        ColumnBuilder cb;
-        switch (readStrategy) {
-            case DEFAULT:
-                cb = new DefaultColumnBuilder(nrows, forceConversion, takeCached, evaluator, onErrorCell,
-                        missingValue, dateTimeFormat);
+    /**
+     * Sets the value of a cell to the j-th element of a column and applies the specified column styler,
+     * or sets the cell to missing if the element is missing. For DateTime columns, the values are taken
+     * from the column's Excel dates (see getExcelDates).
+     */
+    private void setCellValue(Cell cell, Column col, int j, double[] excelDates, Consumer<Cell> styler,
+                              StyleCache styleCache) {
+        if (col.isMissing(j)) {
+            setMissing(cell, styleCache);
+            return;
+        }
+        // Depending on column type ...
+        switch (col.getDataType()) {
+            case Numeric:
+                double value = col.getNumericData()[j];
+                if (Double.isInfinite(value)) {
+                    cell.setCellErrorValue(FormulaError.NA.getCode());
+                } else {
+                    cell.setCellValue(value);
+                }
                 break;
-            case FAST:
-                cb = new FastColumnBuilder(nrows, forceConversion, takeCached, evaluator, onErrorCell,
-                        dateTimeFormat);
+            case String:
+                setStringValue(cell, col.getStringData()[j]);
+                break;
+            case Boolean:
+                cell.setCellValue(col.getBooleanData()[j]);
+                break;
+            case DateTime:
+                cell.setCellValue(excelDates[j]);
                 break;
             default:
-                throw new IllegalArgumentException("Unknown read strategy!");
+                throw new IllegalArgumentException("Unknown column type detected!");
         }
+        styler.accept(cell);
+    }
 
-        // Determine header column
-        String[] columnHeaders = new String[colset.length];
-        if (header) {
-            ColumnBuilder cbHeader = new DefaultColumnBuilder(1, true, takeCached, evaluator, onErrorCell, missingValue, dateTimeFormat);
-            for (int col : colset) {
-                cbHeader.addCell(getCell(sheet, startRow, startCol + col, false));
-            }
-            columnHeaders = cbHeader.buildStringColumn().getStringData();
-        }
-        // Replace missing column headers
-        for (int i = 0; i < columnHeaders.length; i++) {
-            if (columnHeaders[i] == null) {
-                columnHeaders[i] = "Col" + (colset[i] + 1);
-            }
+
+    /**
+     * @return The Excel dates corresponding to a DateTime column's values; null for other columns
+     */
+    private double[] getExcelDates(Column col) {
+        if (col.getDataType() != DataType.DateTime) return null;
+        return DateUtils.toExcelDates(col.getDateTimeData(), CellUtils.isDate1904(workbook));
+    }
+
+    private DataFrame readData(Sheet sheet, int startRow, int startCol, int nrows, int ncols, boolean header,
+                               ReadStrategy readStrategy, DataType[] colTypes, boolean forceConversion, String dateTimeFormat,
+                               boolean takeCached, int[] subset) {
+        return readData(sheet, startRow, startCol, nrows, ncols, header, readStrategy, colTypes, forceConversion,
+                dateTimeFormat, takeCached, subset, createEvaluator(takeCached));
+    }
+
+    private DataFrame readData(Sheet sheet, int startRow, int startCol, int nrows, int ncols, boolean header,
+                               ReadStrategy readStrategy, DataType[] colTypes, boolean forceConversion, String dateTimeFormat,
+                               boolean takeCached, int[] subset, FormulaEvaluator evaluator) {
+
+        int[] colset = getColumnSet(subset, ncols);
+        boolean streaming = isStreaming(readStrategy, sheet);
+        if (streaming || parallelism > 1) {
+            CollectedData collected = collectData(sheet, startRow, startCol, nrows, header, readStrategy, colTypes,
+                    forceConversion, dateTimeFormat, takeCached, colset, streaming, evaluator);
+            return buildDataFrames(Collections.singletonList(collected))[0];
         }
 
+        DataFrame data = new DataFrame();
+
+        // Determine header column
+        String[] columnHeaders = readColumnHeaders(sheet, startRow, startCol, header, dateTimeFormat, takeCached,
+                colset, evaluator);
+
+        ColumnBuilder cb = newColumnBuilder(readStrategy, nrows, forceConversion, takeCached, evaluator, dateTimeFormat);
+
         // Loop over columns
         for (int i = 0; i < colset.length; i++) {
             int col = colset[i];
@@ -571,6 +733,7 @@ public final class Workbook {
 
             // Prepare column builder for new set of rows
             cb.clear();
+            cb.setColumnType(getColumnType(colTypes, col));
 
             // Loop over rows
             Row r;
@@ -582,25 +745,7 @@ public final class Workbook {
                 cb.addCell(cell);
             }
 
-            DataType columnType = ((colTypes != null) && (colTypes.length > 0)) ? colTypes[col % colTypes.length] :
-                    cb.determineColumnType();
-            switch (columnType) {
-                case Boolean:
-                    data.addColumn(columnHeader, cb.buildBooleanColumn());
-                    break;
-                case DateTime:
-                    data.addColumn(columnHeader, cb.buildDateTimeColumn());
-                    break;
-                case Numeric:
-                    data.addColumn(columnHeader, cb.buildNumericColumn());
-                    break;
-                case String:
-                    data.addColumn(columnHeader, cb.buildStringColumn());
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unknown data type detected!");
-
-            }
+            data.addColumn(columnHeader, buildColumn(cb, colTypes, col));
             // Collect column builder warnings
             this.warnings.addAll(cb.getWarnings());
         }
@@ -608,12 +753,319 @@ public final class Workbook {
         return data;
     }
 
+    // Formula evaluator - only used if we don't want to take cached values
+    private FormulaEvaluator createEvaluator(boolean takeCached) {
+        if (takeCached) return null;
+        if (evaluator == null) {
+            evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            evaluatorNotifications = 0;
+        }
+        return evaluator;
+    }
+
+    /**
+     * Discards the formula evaluator (and thereby all cached evaluation results). This is required
+     * after structural changes such as adding, removing or renaming sheets and names.
+     */
+    private void resetEvaluator() {
+        evaluator = null;
+    }
+
+    private boolean notifyEvaluator() {
+        if (evaluator == null) return false;
+        if (++evaluatorNotifications > MAX_EVALUATOR_NOTIFICATIONS) {
+            resetEvaluator();
+            return false;
+        }
+        return true;
+    }
+
+    // Invalidates cached evaluation results depending on a cell whose value has changed
+    private void notifyUpdateCell(Cell c) {
+        if (notifyEvaluator()) evaluator.notifyUpdateCell(c);
+    }
+
+    // Invalidates cached evaluation results depending on a cell whose formula has changed
+    private void notifySetFormula(Cell c) {
+        if (notifyEvaluator()) evaluator.notifySetFormula(c);
+    }
+
+    // Invalidates cached evaluation results depending on a cell which is about to be removed
+    private void notifyDeleteCell(Cell c) {
+        // XSSF evaluation sheets cache their cells, so removing cells requires discarding the evaluator
+        if (c instanceof XSSFCell) resetEvaluator();
+        else if (notifyEvaluator()) evaluator.notifyDeleteCell(c);
+    }
+
+    private static int[] getColumnSet(int[] subset, int ncols) {
+        return subset == null ? IntStream.range(0, ncols).toArray() : subset;
+    }
+
+    private String[] readColumnHeaders(Sheet sheet, int startRow, int startCol, boolean header, String dateTimeFormat,
+                                       boolean takeCached, int[] colset, FormulaEvaluator evaluator) {
+        String[] columnHeaders = new String[colset.length];
+        if (header) {
+            ColumnBuilder cbHeader = new DefaultColumnBuilder(1, true, takeCached, evaluator, onErrorCell, missingValues, dateTimeFormat);
+            for (int col : colset) {
+                cbHeader.addCell(getCell(sheet, startRow, startCol + col, false));
+            }
+            columnHeaders = cbHeader.buildStringColumn().getStringData();
+        }
+        replaceMissingColumnHeaders(columnHeaders, colset);
+        return columnHeaders;
+    }
+
+    private ColumnBuilder newColumnBuilder(ReadStrategy readStrategy, int nrows, boolean forceConversion,
+                                           boolean takeCached, FormulaEvaluator evaluator, String dateTimeFormat) {
+        ColumnBuilder cb;
+        switch (readStrategy) {
+            case DEFAULT:
+            case STREAMING:
+                cb = new DefaultColumnBuilder(nrows, forceConversion, takeCached, evaluator, onErrorCell,
+                        missingValues, dateTimeFormat);
+                break;
+            case FAST:
+                cb = new FastColumnBuilder(nrows, forceConversion, takeCached, evaluator, onErrorCell,
+                        dateTimeFormat);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown read strategy!");
+        }
+        cb.setSampleSize(typeInferenceRows);
+        cb.setDecimalSeparator(decimalSeparator);
+        return cb;
+    }
+
+    /**
+     * Cell values collected from a data region, ready to be built into a data frame
+     */
+    private static final class CollectedData {
+        private final String[] columnHeaders;
+        private final ColumnBuilder[] builders;
+        private final DataType[] colTypes;
+        private final int[] colset;
+
+        private CollectedData(String[] columnHeaders, ColumnBuilder[] builders, DataType[] colTypes, int[] colset) {
+            this.columnHeaders = columnHeaders;
+            this.builders = builders;
+            this.colTypes = colTypes;
+            this.colset = colset;
+        }
+    }
+
+    /**
+     * Collects the cell values of all columns of a data region in a single pass over its rows. When streaming,
+     * the worksheet XML is read instead of its DOM and formula cells always provide their cached values.
+     */
+    private CollectedData collectData(Sheet sheet, int startRow, int startCol, int nrows, boolean header,
+                                      ReadStrategy readStrategy, DataType[] colTypes, boolean forceConversion,
+                                      String dateTimeFormat, boolean takeCached, int[] colset, boolean streaming,
+                                      FormulaEvaluator evaluator) {
+        ColumnBuilder[] builders = new ColumnBuilder[colset.length];
+        String[] columnHeaders;
+        if (streaming) {
+            int[] columns = Arrays.stream(colset).map(col -> startCol + col).toArray();
+            ColumnBuilder cbHeader = header ?
+                    new DefaultColumnBuilder(1, true, true, null, onErrorCell, missingValues, dateTimeFormat) : null;
+            for (int i = 0; i < builders.length; i++) {
+                builders[i] = newColumnBuilder(ReadStrategy.STREAMING, nrows, forceConversion, true, null,
+                        dateTimeFormat);
+                builders[i].setColumnType(getColumnType(colTypes, colset[i]));
+            }
+
+            new StreamingSheetReader((XSSFSheet) sheet).read(startRow, nrows, columns, cbHeader, builders);
+
+            columnHeaders = header ? cbHeader.buildStringColumn().getStringData() : new String[colset.length];
+            replaceMissingColumnHeaders(columnHeaders, colset);
+        } else {
+            columnHeaders = readColumnHeaders(sheet, startRow, startCol, header, dateTimeFormat, takeCached, colset,
+                    evaluator);
+            for (int i = 0; i < builders.length; i++) {
+                builders[i] = newColumnBuilder(readStrategy, nrows, forceConversion, takeCached, evaluator, dateTimeFormat);
+                builders[i].setColumnType(getColumnType(colTypes, colset[i]));
+            }
+            Row r;
+            for (int row = header ? 1 : 0; row < nrows; row++) {
+                r = sheet.getRow(startRow + row);
+                for (int i = 0; i < colset.length; i++) {
+                    builders[i].addCell(r == null ? null : r.getCell(startCol + colset[i]));
+                }
+            }
+        }
+        return new CollectedData(columnHeaders, builders, colTypes, colset);
+    }
+
+    /**
+     * Builds data frames from collected cell values. The columns of all data regions are built
+     * in parallel if so configured. Column builder warnings are collected in region and column order.
+     */
+    private DataFrame[] buildDataFrames(List<CollectedData> collected) {
+        List<Callable<Column>> tasks = new ArrayList<>();
+        for (CollectedData cd : collected) {
+            for (int i = 0; i < cd.builders.length; i++) {
+                ColumnBuilder cb = cd.builders[i];
+                int col = cd.colset[i];
+                tasks.add(() -> buildColumn(cb, cd.colTypes, col));
+            }
+        }
+
+        Column[] columns = new Column[tasks.size()];
+        if (parallelism > 1 && tasks.size() > 1) {
+            List<Future<Column>> futures = getPool().invokeAll(tasks);
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = getResult(futures.get(i));
+            }
+        } else {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = getResult(tasks.get(i));
+            }
+        }
+
+        DataFrame[] frames = new DataFrame[collected.size()];
+        int k = 0;
+        for (int j = 0; j < frames.length; j++) {
+            CollectedData cd = collected.get(j);
+            frames[j] = new DataFrame();
+            for (int i = 0; i < cd.builders.length; i++) {
+                frames[j].addColumn(cd.columnHeaders[i], columns[k++]);
+                // Collect column builder warnings
+                this.warnings.addAll(cd.builders[i].getWarnings());
+            }
+        }
+        return frames;
+    }
+
+    private ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    private static <T> T getResult(Callable<T> task) {
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading data", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static void replaceMissingColumnHeaders(String[] columnHeaders, int[] colset) {
+        for (int i = 0; i < columnHeaders.length; i++) {
+            if (columnHeaders[i] == null) {
+                columnHeaders[i] = "Col" + (colset[i] + 1);
+            }
+        }
+    }
+
+    /**
+     * @return The specified type of the column with the specified index; null if column types are not specified
+     */
+    private static DataType getColumnType(DataType[] colTypes, int col) {
+        return ((colTypes != null) && (colTypes.length > 0)) ? colTypes[col % colTypes.length] : null;
+    }
+
+    private static Column buildColumn(ColumnBuilder cb, DataType[] colTypes, int col) {
+        DataType columnType = getColumnType(colTypes, col);
+        if (columnType == null) columnType = cb.determineColumnType();
+        switch (columnType) {
+            case Boolean:
+                return cb.buildBooleanColumn();
+            case DateTime:
+                return cb.buildDateTimeColumn();
+            case Numeric:
+                return cb.buildNumericColumn();
+            case String:
+                return cb.buildStringColumn();
+            default:
+                throw new IllegalArgumentException("Unknown data type detected!");
+        }
+    }
+
+    /**
+     * Checks whether data is to be read by streaming the worksheet XML. Streaming is only supported
+     * for XLSX files; for other formats a warning is registered and the default read strategy is used.
+     * Worksheets modified since the workbook has been loaded or saved are read from the DOM, as their
+     * XML is out of date. NOTE: streaming only reduces memory usage for workbooks opened read-only; other
+     * workbooks are loaded completely when opened.
+     */
+    private boolean isStreaming(ReadStrategy readStrategy, Sheet sheet) {
+        if (readStrategy != ReadStrategy.STREAMING) return false;
+        if (sheet instanceof XSSFSheet) return !modifiedSheets.contains(sheet);
+        this.warnings.add("Streaming read strategy is only supported for *.xlsx files - using default read strategy.");
+        return false;
+    }
+
 
     public void onErrorCell(ErrorBehavior eb) {
+        checkOpen();
         this.onErrorCell = eb;
     }
 
+    /**
+     * Sets the number of threads used to build data frame columns when reading data.
+     * Cell values are always collected sequentially; only type detection, conversion
+     * and formatting of the columns is done in parallel.
+     *
+     * @param parallelism Number of threads (1 = sequential)
+     */
+    public void setParallelism(int parallelism) {
+        checkOpen();
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be at least 1!");
+        if (parallelism != this.parallelism && pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the number of rows from which column types are determined when reading data without specified
+     * column types. The remaining cells of a column are converted to the column type right away (as cells of
+     * other types are converted otherwise), such that they do not need to be buffered. Columns whose sampled
+     * cells are all missing are sampled until a non-missing cell is found.
+     *
+     * @param rows Number of rows (0 = all rows)
+     */
+    public void setTypeInferenceRows(int rows) {
+        checkOpen();
+        if (rows < 0)
+            throw new IllegalArgumentException("Number of type inference rows must not be negative!");
+        this.typeInferenceRows = rows;
+    }
+
+    /**
+     * Sets the decimal separator used when strings are converted to numeric values while reading data
+     * (with forceConversion), e.g. "," for text exported with a comma decimal locale.
+     *
+     * @param separator "." (default) or ","
+     */
+    public void setDecimalSeparator(String separator) {
+        checkOpen();
+        if (!".".equals(separator) && !",".equals(separator))
+            throw new IllegalArgumentException("Decimal separator must be either '.' or ','!");
+        this.decimalSeparator = separator.charAt(0);
+    }
+
     public void writeNamedRegion(DataFrame data, String name, boolean header, boolean overwriteFormulaCells, String worksheetScope) {
+        checkOpen();
         Name cname = getName(name, worksheetScope);
         checkName(cname);
 
@@ -636,6 +1088,7 @@ public final class Workbook {
         aref = new AreaReference(topLeft, bottomRight, workbook.getSpreadsheetVersion());
         // Redefine named range
         cname.setRefersToFormula(aref.formatAsString());
+        resetEvaluator();
 
         writeData(data, sheet, topLeft.getRow(), topLeft.getCol(), header, overwriteFormulaCells);
     }
@@ -643,13 +1096,58 @@ public final class Workbook {
     public ResultWithAttributes<DataFrame> readNamedRegion(String name, boolean header, DataType[] colTypes,
             boolean forceConversion, String dateTimeFormat,
                                                    boolean takeCached, int[] subset, ReadStrategy readStrategy, String worksheetScope) {
+        checkOpen();
         Name cname = getName(name, worksheetScope);
         checkName(cname);
         String foundInScope = effectiveScope(worksheetScope, cname);
 
         // Get sheet where name is defined in
-        Sheet sheet = workbook.getSheet(cname.getSheetName());
+        Sheet sheet = getSheetForReading(cname.getSheetName(), readStrategy);
+        int[] region = getNamedRegion(cname);
+
+        return new ResultWithAttributes<DataFrame>(
+                readData(sheet, region[0], region[1], region[2], region[3], header, readStrategy, colTypes,
+                        forceConversion, dateTimeFormat, takeCached, subset),
+                WORKSHEET_SCOPE, foundInScope);
+    }
+
+    /**
+     * Reads multiple named regions in one go. Formula cells are evaluated using a single formula evaluator and
+     * data frame columns are built in parallel if so configured (see {@link #setParallelism(int)}).
+     * Arguments other than the names are the same as for {@link #readNamedRegion}.
+     *
+     * @return Data frames in the order of the names; the worksheet scope attribute
+     * contains the scope each name was found in
+     */
+    public ResultWithAttributes<DataFrame[]> readNamedRegions(String[] names, boolean header, DataType[] colTypes,
+            boolean forceConversion, String dateTimeFormat, boolean takeCached, int[] subset, ReadStrategy readStrategy,
+            String worksheetScope) {
+        checkOpen();
+        FormulaEvaluator evaluator = createEvaluator(takeCached);
+        String[] foundInScope = new String[names.length];
+        List<Callable<CollectedData>> collectors = new ArrayList<>(names.length);
+        boolean[] streaming = new boolean[names.length];
+        for (int i = 0; i < names.length; i++) {
+            Name cname = getName(names[i], worksheetScope);
+            checkName(cname);
+            foundInScope[i] = effectiveScope(worksheetScope, cname);
+
+            Sheet sheet = getSheetForReading(cname.getSheetName(), readStrategy);
+            int[] region = getNamedRegion(cname);
+            int[] colset = getColumnSet(subset, region[3]);
+            boolean stream = streaming[i] = isStreaming(readStrategy, sheet);
+            collectors.add(() -> collectData(sheet, region[0], region[1], region[2], header, readStrategy, colTypes,
+                    forceConversion, dateTimeFormat, takeCached, colset, stream, evaluator));
+        }
 
+        return new ResultWithAttributes<DataFrame[]>(readRegions(collectors, streaming),
+                Collections.singletonMap(WORKSHEET_SCOPE.toString(), foundInScope));
+    }
+
+    /**
+     * @return {top row, left column, number of rows, number of columns} of the area referred to by a name
+     */
+    private int[] getNamedRegion(Name cname) {
         AreaReference aref = new AreaReference(cname.getRefersToFormula(), workbook.getSpreadsheetVersion());
         // Get name corners (top left, bottom right)
         CellReference topLeft = aref.getFirstCell();
@@ -658,15 +1156,12 @@ public final class Workbook {
         // Determine number of rows and columns
         int nrows = bottomRight.getRow() - topLeft.getRow() + 1;
         int ncols = bottomRight.getCol() - topLeft.getCol() + 1;
-
-        return new ResultWithAttributes<DataFrame>(
-                readData(sheet, topLeft.getRow(), topLeft.getCol(), nrows, ncols, header, readStrategy, colTypes,
-                        forceConversion, dateTimeFormat, takeCached, subset),
-                WORKSHEET_SCOPE, foundInScope);
+        return new int[]{topLeft.getRow(), topLeft.getCol(), nrows, ncols};
     }
 
     public DataFrame readTable(int worksheetIndex, String tableName, boolean header, ReadStrategy readStrategy,
                                DataType[] colTypes, boolean forceConversion, String dateTimeFormat, boolean takeCached, int[] subset) {
+        checkOpen();
         if (!isXSSF()) throw new IllegalArgumentException("Tables are not supported with this file format!");
         XSSFSheet s = (XSSFSheet) getSheet(worksheetIndex);
         int[] coords = getReferenceCoordinatesForTable(worksheetIndex, tableName);
@@ -678,6 +1173,7 @@ public final class Workbook {
 
     public DataFrame readTable(String worksheetName, String tableName, boolean header, ReadStrategy readStrategy,
                                DataType[] colTypes, boolean forceConversion, String dateTimeFormat, boolean takeCached, int[] subset) {
+        checkOpen();
         return readTable(workbook.getSheetIndex(worksheetName), tableName, header, readStrategy, colTypes,
                 forceConversion, dateTimeFormat, takeCached, subset);
     }
@@ -692,11 +1188,13 @@ public final class Workbook {
      * @param header         If true, column headers are written, otherwise not
      */
     public void writeWorksheet(DataFrame data, int worksheetIndex, int startRow, int startCol, boolean header, boolean overwriteFormulaCells) {
+        checkOpen();
         Sheet sheet = workbook.getSheetAt(worksheetIndex);
         writeData(data, sheet, startRow, startCol, header, overwriteFormulaCells);
     }
 
     public void writeWorksheet(DataFrame data, String worksheetName, int startRow, int startCol, boolean header, boolean overwriteFormulaCells) {
+        checkOpen();
         int sheetIndex = workbook.getSheetIndex(worksheetName);
         if(sheetIndex < 0)
             throw new NoSuchElementException("Worksheet " + worksheetName + " was not found!");
@@ -711,6 +1209,46 @@ public final class Workbook {
         writeWorksheet(data, worksheetName, 0, 0, header, overwriteFormulaCells);
     }
 
+    /**
+     * Writes a data frame into a new worksheet in streaming mode (XLSX only). Rows are written through
+     * an SXSSF workbook which only keeps a window of the most recent rows in memory and flushes older
+     * rows to temporary files. Streamed worksheets cannot be read or modified until the workbook has been
+     * saved and loaded again.
+     *
+     * @param data                Data frame to be written to the worksheet
+     * @param worksheetName       Name of the worksheet to be created
+     * @param startRow            Start row (row index of top left cell)
+     * @param startCol            Start column (column index of top left cell)
+     * @param header              If true, column headers are written, otherwise not
+     * @param rowAccessWindowSize Number of rows kept in memory before they are flushed
+     */
+    public void writeWorksheetStreaming(DataFrame data, String worksheetName, int startRow, int startCol, boolean header,
+                                        int rowAccessWindowSize) {
+        checkOpen();
+        if (!isXSSF())
+            throw new IllegalArgumentException("Streaming write is only supported for *.xlsx files!");
+        if (existsSheet(worksheetName))
+            throw new IllegalArgumentException("Worksheet '" + worksheetName + "' already exists - streaming write " +
+                    "is only supported for new worksheets!");
+        if (worksheetName.length() > 31)
+            throw new IllegalArgumentException("Sheet names are not allowed to contain more than 31 characters!");
+        if (rowAccessWindowSize < 1)
+            throw new IllegalArgumentException("Row access window size must be positive!");
+
+        if (streamingWorkbook == null)
+            streamingWorkbook = new SXSSFWorkbook((XSSFWorkbook) workbook, rowAccessWindowSize);
+        SXSSFSheet sheet = streamingWorkbook.createSheet(worksheetName);
+        resetEvaluator();
+        sheet.setRandomAccessWindowSize(rowAccessWindowSize);
+        streamedSheets.add(workbook.getSheet(worksheetName));
+
+        writeDataByRow(data, sheet, startRow, startCol, header);
+    }
+
+    public void writeWorksheetStreaming(DataFrame data, String worksheetName, boolean header, int rowAccessWindowSize) {
+        writeWorksheetStreaming(data, worksheetName, 0, 0, header, rowAccessWindowSize);
+    }
+
     /**
      * Reads data from a worksheet. Data regions can be narrowed down by specifying corresponding row and column ranges.
      * Limits specified as negative integers will be automatically determined. The rules for automatically determining
@@ -727,6 +1265,7 @@ public final class Workbook {
      * @param endRow          End row
      * @param endCol          End column
      * @param header          If true, assume header, otherwise not
+     * @param readStrategy    Read strategy; STREAMING reads the worksheet XML without its DOM (XLSX only)
      * @param colTypes        Column data types
      * @param forceConversion Should conversion to a less generic data type be forced?
      * @param dateTimeFormat  Date/time format used when converting between Date and String
@@ -735,8 +1274,57 @@ public final class Workbook {
     public DataFrame readWorksheet(int worksheetIndex, int startRow, int startCol, int endRow, int endCol, boolean header,
                                    ReadStrategy readStrategy, DataType[] colTypes, boolean forceConversion, String dateTimeFormat,
                                    boolean takeCached, int[] subset, boolean autofitRow, boolean autofitCol) {
-        Sheet sheet = workbook.getSheetAt(worksheetIndex);
-        int[] boundingBox = getBoundingBox(worksheetIndex, startRow, startCol, endRow, endCol, autofitRow, autofitCol);
+        checkOpen();
+        Sheet sheet = getSheetForReading(worksheetIndex, readStrategy);
+        int[] region = getWorksheetRegion(worksheetIndex, startRow, startCol, endRow, endCol, readStrategy,
+                autofitRow, autofitCol);
+
+        return readData(sheet, region[0], region[1], region[2], region[3], header, readStrategy, colTypes,
+                forceConversion, dateTimeFormat, takeCached, subset);
+    }
+
+    /**
+     * Reads data from multiple worksheets in one go. Formula cells are evaluated using a single formula evaluator
+     * and data frame columns are built in parallel if so configured (see {@link #setParallelism(int)}); with the
+     * STREAMING read strategy, the worksheets are also parsed in parallel. Arguments other than the worksheet names
+     * are the same as for {@link #readWorksheet} and apply to each worksheet.
+     *
+     * @return Data frames in the order of the worksheet names
+     */
+    public DataFrame[] readWorksheets(String[] worksheetNames, int startRow, int startCol, int endRow, int endCol,
+                                      boolean header, ReadStrategy readStrategy, DataType[] colTypes,
+                                      boolean forceConversion, String dateTimeFormat, boolean takeCached, int[] subset,
+                                      boolean autofitRow, boolean autofitCol) {
+        checkOpen();
+        FormulaEvaluator evaluator = createEvaluator(takeCached);
+        List<Callable<CollectedData>> collectors = new ArrayList<>(worksheetNames.length);
+        boolean[] streaming = new boolean[worksheetNames.length];
+        for (int i = 0; i < worksheetNames.length; i++) {
+            int worksheetIndex = workbook.getSheetIndex(worksheetNames[i]);
+            Sheet sheet = getSheetForReading(worksheetNames[i], readStrategy);
+            int[] region = getWorksheetRegion(worksheetIndex, startRow, startCol, endRow, endCol, readStrategy,
+                    autofitRow, autofitCol);
+            int[] colset = getColumnSet(subset, region[3]);
+            boolean stream = streaming[i] = isStreaming(readStrategy, sheet);
+            collectors.add(() -> collectData(sheet, region[0], region[1], region[2], header, readStrategy, colTypes,
+                    forceConversion, dateTimeFormat, takeCached, colset, stream, evaluator));
+        }
+        return readRegions(collectors, streaming);
+    }
+
+    /**
+     * Determines the data region to be read from a worksheet (see {@link #readWorksheet} for the rules)
+     *
+     * @return {top row, left column, number of rows, number of columns}
+     */
+    private int[] getWorksheetRegion(int worksheetIndex, int startRow, int startCol, int endRow, int endCol,
+                                     ReadStrategy readStrategy, boolean autofitRow, boolean autofitCol) {
+        Sheet sheet = getSheetForReading(worksheetIndex, readStrategy);
+        int[] boundingBox = readStrategy == ReadStrategy.STREAMING && sheet instanceof XSSFSheet &&
+                !modifiedSheets.contains(sheet) ?
+                new StreamingSheetReader((XSSFSheet) sheet).getBoundingBox(startRow, startCol, endRow, endCol,
+                        autofitRow, autofitCol) :
+                getBoundingBox(worksheetIndex, startRow, startCol, endRow, endCol, autofitRow, autofitCol);
         startRow = boundingBox[0];
         startCol = boundingBox[1];
         endRow = boundingBox[2];
@@ -747,31 +1335,200 @@ public final class Workbook {
         if (nrows == 0 || ncols == 0) {
             this.warnings.add("Data frame contains " + nrows + " rows and " + ncols + " columns!");
         }
+        return new int[]{startRow, startCol, nrows, ncols};
+    }
 
-        return readData(sheet, startRow, startCol, nrows, ncols, header, readStrategy, colTypes, forceConversion, dateTimeFormat,
-                takeCached, subset);
+    /**
+     * Collects the cell values of multiple data regions and builds the corresponding data frames. Streamed regions
+     * do not access the workbook DOM and are collected concurrently if so configured; all other regions are
+     * collected sequentially since formula evaluation and DOM access are not thread-safe.
+     */
+    private DataFrame[] readRegions(List<Callable<CollectedData>> collectors, boolean[] streaming) {
+        List<Future<CollectedData>> futures = new ArrayList<>(Collections.nCopies(collectors.size(), null));
+        if (parallelism > 1) {
+            for (int i = 0; i < collectors.size(); i++) {
+                if (streaming[i]) futures.set(i, getPool().submit(collectors.get(i)));
+            }
+        }
+        List<CollectedData> collected = new ArrayList<>(collectors.size());
+        for (int i = 0; i < collectors.size(); i++) {
+            Future<CollectedData> future = futures.get(i);
+            collected.add(future != null ? getResult(future) : getResult(collectors.get(i)));
+        }
+        return buildDataFrames(collected);
+    }
+
+    /**
+     * Opens a reader for reading data from a worksheet in chunks of rows, such that only one chunk needs to be held
+     * in memory at a time. The data region is determined once when opening the reader; arguments other than the
+     * number of rows per chunk are the same as for {@link #readWorksheet}. Unless specified by colTypes, the column
+     * types are determined from the first chunk and then kept for all subsequent chunks (cells of other types are
+     * converted as usual).
+     *
+     * @param chunkRows Maximum number of (data) rows per chunk
+     * @return Chunk reader
+     */
+    public ChunkReader openReader(int worksheetIndex, int startRow, int startCol, int endRow, int endCol, boolean header,
+                                  int chunkRows, ReadStrategy readStrategy, DataType[] colTypes, boolean forceConversion,
+                                  String dateTimeFormat, boolean takeCached, int[] subset, boolean autofitRow,
+                                  boolean autofitCol) {
+        checkOpen();
+        if (chunkRows < 1)
+            throw new IllegalArgumentException("Number of rows per chunk must be at least 1!");
+        Sheet sheet = getSheetForReading(worksheetIndex, readStrategy);
+        int[] region = getWorksheetRegion(worksheetIndex, startRow, startCol, endRow, endCol, readStrategy,
+                autofitRow, autofitCol);
+        return new ChunkReader(sheet, region[0], region[1], region[2], region[3], header, chunkRows, readStrategy,
+                colTypes, forceConversion, dateTimeFormat, takeCached, getColumnSet(subset, region[3]));
+    }
+
+    public ChunkReader openReader(String worksheetName, int startRow, int startCol, int endRow, int endCol, boolean header,
+                                  int chunkRows, ReadStrategy readStrategy, DataType[] colTypes, boolean forceConversion,
+                                  String dateTimeFormat, boolean takeCached, int[] subset, boolean autofitRow,
+                                  boolean autofitCol) {
+        checkOpen();
+        getSheet(worksheetName);
+        return openReader(workbook.getSheetIndex(worksheetName), startRow, startCol, endRow, endCol, header, chunkRows,
+                readStrategy, colTypes, forceConversion, dateTimeFormat, takeCached, subset, autofitRow, autofitCol);
+    }
+
+    /**
+     * Reads a worksheet data region in chunks of rows (see {@link #openReader}). With the STREAMING read strategy,
+     * the worksheet XML is parsed incrementally; otherwise rows are read from the worksheet DOM.
+     */
+    public final class ChunkReader implements Closeable {
+        private final Sheet sheet;
+        private final int startRow;
+        private final int startCol;
+        // Number of rows including the header row, if any
+        private final int nrows;
+        private final int chunkRows;
+        private final int[] colset;
+        private final String[] columnHeaders;
+        private final ColumnBuilder[] builders;
+        // Worksheet XML cursor; null unless streaming
+        private final StreamingSheetReader.RowCursor cursor;
+        // Column types by column index; null until determined from the first chunk
+        private DataType[] colTypes;
+        // Next row to be read (relative to the start row)
+        private int nextRow;
+
+        private ChunkReader(Sheet sheet, int startRow, int startCol, int nrows, int ncols, boolean header,
+                            int chunkRows, ReadStrategy readStrategy, DataType[] colTypes, boolean forceConversion,
+                            String dateTimeFormat, boolean takeCached, int[] colset) {
+            this.sheet = sheet;
+            this.startRow = startRow;
+            this.startCol = startCol;
+            this.nrows = nrows;
+            this.chunkRows = chunkRows;
+            this.colset = colset;
+            this.colTypes = colTypes != null && colTypes.length > 0 ? colTypes : null;
+            this.nextRow = header ? 1 : 0;
+            this.builders = new ColumnBuilder[colset.length];
+
+            int capacity = Math.min(chunkRows, Math.max(nrows, 1));
+            if (isStreaming(readStrategy, sheet)) {
+                int[] columns = Arrays.stream(colset).map(col -> startCol + col).toArray();
+                ColumnBuilder cbHeader = header ?
+                        new DefaultColumnBuilder(1, true, true, null, onErrorCell, missingValues, dateTimeFormat) : null;
+                for (int i = 0; i < builders.length; i++) {
+                    builders[i] = newColumnBuilder(ReadStrategy.STREAMING, capacity, forceConversion, true, null,
+                            dateTimeFormat);
+                }
+                this.cursor = new StreamingSheetReader((XSSFSheet) sheet).open(startRow, nrows, columns, cbHeader);
+                this.columnHeaders = header ? cbHeader.buildStringColumn().getStringData() : new String[colset.length];
+                replaceMissingColumnHeaders(columnHeaders, colset);
+            } else {
+                FormulaEvaluator evaluator = createEvaluator(takeCached);
+                this.cursor = null;
+                this.columnHeaders = readColumnHeaders(sheet, startRow, startCol, header, dateTimeFormat, takeCached,
+                        colset, evaluator);
+                for (int i = 0; i < builders.length; i++) {
+                    builders[i] = newColumnBuilder(readStrategy, capacity, forceConversion, takeCached, evaluator,
+                            dateTimeFormat);
+                }
+            }
+            openReaders.add(this);
+        }
+
+        public boolean hasNext() {
+            return nextRow < nrows;
+        }
+
+        /**
+         * @return The next chunk of (at most chunkRows) rows
+         */
+        public DataFrame nextChunk() {
+            if (!hasNext())
+                throw new NoSuchElementException("No more rows to read!");
+
+            int to = Math.min(nrows, nextRow + chunkRows);
+            for (int i = 0; i < builders.length; i++) {
+                // Values are converted to the specified (or previously determined) column types right away
+                builders[i].clear();
+                builders[i].setColumnType(getColumnType(colTypes, colset[i]));
+            }
+            if (cursor != null) {
+                cursor.read(builders, to - nextRow);
+            } else {
+                Row r;
+                for (int row = nextRow; row < to; row++) {
+                    r = sheet.getRow(startRow + row);
+                    for (int i = 0; i < colset.length; i++) {
+                        builders[i].addCell(r == null ? null : r.getCell(startCol + colset[i]));
+                    }
+                }
+            }
+            nextRow = to;
+
+            DataFrame chunk = buildDataFrames(Collections.singletonList(
+                    new CollectedData(columnHeaders, builders, colTypes, colset)))[0];
+            if (colTypes == null) {
+                // Keep the column types of the first chunk for all subsequent chunks
+                colTypes = new DataType[Arrays.stream(colset).max().orElse(-1) + 1];
+                for (int i = 0; i < colset.length; i++) {
+                    colTypes[colset[i]] = chunk.getColumnType(i);
+                }
+            }
+            if (!hasNext()) close();
+            return chunk;
+        }
+
+        /**
+         * Stops reading; releases the worksheet XML stream when streaming
+         */
+        @Override
+        public void close() {
+            nextRow = nrows;
+            if (cursor != null) cursor.close();
+            openReaders.remove(this);
+        }
     }
 
     public DataFrame readWorksheet(String worksheetName, int startRow, int startCol, int endRow, int endCol, boolean header,
                                    ReadStrategy readStrategy, DataType[] colTypes, boolean forceConversion, String dateTimeFormat, boolean takeCached,
                                    int[] subset, boolean autofitRow, boolean autofitCol) {
+        checkOpen();
         return readWorksheet(workbook.getSheetIndex(worksheetName), startRow, startCol, endRow, endCol, header, readStrategy,
                 colTypes, forceConversion, dateTimeFormat, takeCached, subset, autofitRow, autofitCol);
     }
 
     public DataFrame readWorksheet(String worksheetName, int startRow, int startCol, int endRow, int endCol, boolean header) {
+        checkOpen();
         return readWorksheet(worksheetName, startRow, startCol, endRow, endCol, header, ReadStrategy.DEFAULT, 
                 null, false, "", false, null, true, true);
     }
     
     public DataFrame readWorksheet(String worksheetName, int startRow, int startCol, int endRow, int endCol, boolean header,
             boolean autofitRow, boolean autofitCol) {
+        checkOpen();
         return readWorksheet(worksheetName, startRow, startCol, endRow, endCol, header, ReadStrategy.DEFAULT,
                 null, false, "", false, null, autofitRow, autofitCol);
     }
 
     public DataFrame readWorksheet(String worksheetName, boolean header, ReadStrategy readStrategy, DataType[] colTypes, 
             boolean forceConversion, String dateTimeFormat) {
+        checkOpen();
         return readWorksheet(worksheetName, -1, -1, -1, -1, header, readStrategy, colTypes, forceConversion, 
                 dateTimeFormat, false, null, true, true);
     }
@@ -781,10 +1538,12 @@ public final class Workbook {
     }
 
     public void addImage(File imageFile, String name, String worksheetScope, boolean originalSize) throws IOException {
+        checkOpen();
         Name cname = getName(name, worksheetScope);
 
         // Get sheet where name is defined in
         Sheet sheet = workbook.getSheet(cname.getSheetName());
+        markModified(sheet);
 
         AreaReference aref = new AreaReference(cname.getRefersToFormula(), workbook.getSpreadsheetVersion());
         // Get name corners (top left, bottom right)
@@ -844,14 +1603,19 @@ public final class Workbook {
     }
 
     public CellStyle createCellStyle(String name) {
+        checkOpen();
         if (getCellStyle(name) == null) {
+            CellStyle cs;
             if (isHSSF()) {
-                return HCellStyle.create((HSSFWorkbook) workbook, name);
+                cs = HCellStyle.create((HSSFWorkbook) workbook, name);
             } else if (isXSSF()) {
-                return XCellStyle.create((XSSFWorkbook) workbook, name);
+                cs = XCellStyle.create((XSSFWorkbook) workbook, name);
             } else {
                 throw new RuntimeException("Unsupported workbook format.");
             }
+            if (name != null && namedCellStyles != null)
+                namedCellStyles.put(name, isXSSF() ? ((XCellStyle) cs).getNamedStyle() : cs);
+            return cs;
         } else
             throw new IllegalArgumentException("Cell style with name '" + name + "' already exists!");
     }
@@ -861,6 +1625,7 @@ public final class Workbook {
     }
 
     public int getActiveSheetIndex() {
+        checkOpen();
         if (workbook.getNumberOfSheets() < 1)
             return -1;
         else
@@ -868,6 +1633,7 @@ public final class Workbook {
     }
 
     public String getActiveSheetName() {
+        checkOpen();
         if (workbook.getNumberOfSheets() < 1)
             return null;
         else
@@ -875,49 +1641,63 @@ public final class Workbook {
     }
 
     public void setActiveSheet(int sheetIndex) {
+        checkOpen();
         workbook.setActiveSheet(sheetIndex);
+        // The selection state is stored with each sheet
+        markAllModified();
     }
 
     public void setActiveSheet(String sheetName) {
+        checkOpen();
         int sheetIndex = workbook.getSheetIndex(sheetName);
         setActiveSheet(sheetIndex);
     }
 
     public void hideSheet(int sheetIndex, boolean veryHidden) {
+        checkOpen();
         setAlternativeActiveSheet(sheetIndex);
         workbook.setSheetVisibility(sheetIndex, veryHidden ? SheetVisibility.VERY_HIDDEN : SheetVisibility.HIDDEN);
     }
 
     public void hideSheet(String sheetName, boolean veryHidden) {
+        checkOpen();
         hideSheet(workbook.getSheetIndex(sheetName), veryHidden);
     }
 
     public void unhideSheet(int sheetIndex) {
+        checkOpen();
         workbook.setSheetVisibility(sheetIndex, SheetVisibility.VISIBLE);
     }
 
     public void unhideSheet(String sheetName) {
+        checkOpen();
         unhideSheet(workbook.getSheetIndex(sheetName));
     }
 
     public boolean isSheetHidden(int sheetIndex) {
+        checkOpen();
         return workbook.isSheetHidden(sheetIndex);
     }
 
     public boolean isSheetHidden(String sheetName) {
+        checkOpen();
         return isSheetHidden(workbook.getSheetIndex(sheetName));
     }
 
     public boolean isSheetVeryHidden(int sheetIndex) {
+        checkOpen();
         return workbook.isSheetVeryHidden(sheetIndex);
     }
 
     public boolean isSheetVeryHidden(String sheetName) {
+        checkOpen();
         return isSheetVeryHidden(workbook.getSheetIndex(sheetName));
     }
 
     public void setColumnWidth(int sheetIndex, int columnIndex, int width) {
+        checkOpen();
         Sheet sheet = getSheet(sheetIndex);
+        markModified(sheet);
         if (width >= 0)
             sheet.setColumnWidth(columnIndex, width);
         else if (width == -1)
@@ -927,14 +1707,17 @@ public final class Workbook {
     }
 
     public void setColumnWidth(String sheetName, int columnIndex, int width) {
+        checkOpen();
         setColumnWidth(workbook.getSheetIndex(sheetName), columnIndex, width);
     }
 
     public void setRowHeight(int sheetIndex, int rowIndex, float height) {
+        checkOpen();
         Sheet sheet = getSheet(sheetIndex);
+        markModified(sheet);
         Row r = sheet.getRow(rowIndex);
         if (r == null)
-            r = getSheet(sheetIndex).createRow(rowIndex);
+            r = createRow(sheet, rowIndex);
 
         if (height >= 0)
             r.setHeightInPoints(height);
@@ -943,18 +1726,42 @@ public final class Workbook {
     }
 
     public void setRowHeight(String sheetName, int rowIndex, float height) {
+        checkOpen();
         setRowHeight(workbook.getSheetIndex(sheetName), rowIndex, height);
     }
 
     public void save(OutputStream os) throws IOException {
-        workbook.write(os);
+        checkOpen();
+        checkWritable();
+        if (streamingWorkbook != null) {
+            // Injects the rows of streamed worksheets
+            streamingWorkbook.write(os);
+        } else {
+            workbook.write(os);
+        }
     }
 
     public void save(File f) throws IOException {
+        checkOpen();
+        checkWritable();
+        boolean incremental = incrementalSave && canSaveIncrementally();
+        // The workbook is written to a temporary file first, such that a failed save leaves an existing file
+        // intact; with incremental saves, the target file may also be the source file itself
+        File tmp = File.createTempFile("xlconnect", ".tmp", f.getAbsoluteFile().getParentFile());
+        try {
+            try (OutputStream os = new FileOutputStream(tmp)) {
+                if (incremental) {
+                    saveIncrementally(os);
+                } else {
+                    save(os);
+                }
+            }
+            Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp.toPath());
+        }
         this.excelFile = f;
-        FileOutputStream fos = new FileOutputStream(f, false);
-        save(fos);
-        fos.close();
+        setSource(f);
     }
 
     public void save(String file) throws IOException {
@@ -962,9 +1769,131 @@ public final class Workbook {
     }
 
     public void save() throws IOException {
+        checkOpen();
+        if (excelFile == null)
+            throw new IllegalArgumentException("Workbook has not been loaded from a file - please specify the file to save to!");
         save(excelFile);
     }
 
+    /**
+     * Writes the workbook to the specified channel, which is not closed
+     */
+    public void save(WritableByteChannel channel) throws IOException {
+        checkOpen();
+        save(Channels.newOutputStream(channel));
+    }
+
+    /**
+     * @return The workbook's file content
+     */
+    public byte[] toByteArray() throws IOException {
+        checkOpen();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        save(os);
+        return os.toByteArray();
+    }
+
+    /**
+     * Specifies whether XLSX files are saved incrementally. Worksheets which have not been modified through
+     * this API and an unchanged shared strings table are then copied from the file the workbook has been loaded
+     * from (or last been saved to) without being re-serialized or even decompressed. Workbooks written in
+     * streaming mode, encrypted workbooks and workbooks whose file has changed in the meantime are saved as a
+     * whole.
+     */
+    public void setIncrementalSave(boolean incrementalSave) {
+        checkOpen();
+        this.incrementalSave = incrementalSave;
+    }
+
+    /**
+     * Closes the workbook, releasing the underlying file, the workbook's content and the temporary files of
+     * worksheets written in streaming mode. Unsaved changes are discarded. Any further use of the workbook
+     * fails with an IllegalStateException; closing a closed workbook has no effect.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        org.apache.poi.ss.usermodel.Workbook wb = workbook;
+        workbook = null;
+        for (ChunkReader reader : new ArrayList<>(openReaders)) {
+            reader.close();
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        evaluator = null;
+        extents.clear();
+        streamedSheets.clear();
+        modifiedSheets.clear();
+        defaultStyles.clear();
+        dataTypeStyles.clear();
+        sourceFile = null;
+        try {
+            if (wb instanceof XSSFWorkbook) {
+                // Reverting (rather than closing) never writes changes back to the package's file
+                ((XSSFWorkbook) wb).getPackage().revert();
+            } else {
+                wb.close();
+            }
+        } finally {
+            // Also deletes the temporary files of worksheets written in streaming mode
+            if (streamingWorkbook != null) streamingWorkbook.close();
+            streamingWorkbook = null;
+        }
+    }
+
+    private void checkOpen() {
+        if (closed)
+            throw new IllegalStateException("Workbook has been closed!");
+    }
+
+    private void checkWritable() {
+        if (readOnly)
+            throw new IllegalArgumentException("Workbook has been opened read-only and cannot be saved!");
+    }
+
+    private boolean canSaveIncrementally() {
+        return sourceFile != null && streamingWorkbook == null && sourceFile.length() == sourceLength &&
+                sourceFile.lastModified() == sourceLastModified &&
+                IncrementalXlsxWriter.isSupported((XSSFWorkbook) workbook);
+    }
+
+    private void saveIncrementally(OutputStream os) throws IOException {
+        XSSFWorkbook wb = (XSSFWorkbook) workbook;
+        Set<POIXMLDocumentPart> unchanged = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Sheet sheet : wb) {
+            if (!modifiedSheets.contains(sheet)) unchanged.add((XSSFSheet) sheet);
+        }
+        if (!sharedStringsModified) unchanged.add(wb.getSharedStringSource());
+        IncrementalXlsxWriter.write(wb, sourceFile, unchanged, os);
+    }
+
+    /**
+     * Records that the workbook's current state (as far as XLSX files are concerned) is the one of the specified file
+     */
+    private void setSource(File file) {
+        if (isXSSF() && streamingWorkbook == null) {
+            modifiedSheets.clear();
+            sharedStringsModified = false;
+            sourceFile = file;
+            sourceLength = file.length();
+            sourceLastModified = file.lastModified();
+        } else {
+            sourceFile = null;
+        }
+    }
+
+    private <T extends Sheet> T markModified(T sheet) {
+        modifiedSheets.add(sheet);
+        return sheet;
+    }
+
+    private void markAllModified() {
+        for (Sheet sheet : workbook) modifiedSheets.add(sheet);
+    }
+
     Name getName(String name) {
         Name cname = workbook.getName(name);
         if (cname != null)
@@ -1020,11 +1949,13 @@ public final class Workbook {
     }
 
     private Cell getCell(Sheet sheet, int rowIndex, int colIndex, boolean create) {
+        // Cells are retrieved with create = true in order to be modified
+        if (create) markModified(sheet);
         // Get or create row
         Row row = sheet.getRow(rowIndex);
         if (row == null) {
             if (create) {
-                row = sheet.createRow(rowIndex);
+                row = createRow(sheet, rowIndex);
             } else return null;
         }
         // Get or create cell
@@ -1032,12 +1963,37 @@ public final class Workbook {
         if (cell == null) {
             if (create) {
                 cell = row.createCell(colIndex);
+                SheetExtentIndex extent = extents.get(sheet);
+                if (extent != null) extent.cellCreated(rowIndex, colIndex);
             } else return null;
         }
 
         return cell;
     }
 
+    private Row createRow(Sheet sheet, int rowIndex) {
+        // XSSF evaluation sheets ignore rows beyond the last row at the time they were created
+        if (rowIndex > sheet.getLastRowNum() && sheet instanceof XSSFSheet) resetEvaluator();
+        Row row = sheet.createRow(rowIndex);
+        markModified(sheet);
+        SheetExtentIndex extent = extents.get(sheet);
+        if (extent != null) extent.rowCreated(rowIndex);
+        return row;
+    }
+
+    private SheetExtentIndex getExtent(Sheet sheet) {
+        // Streamed rows bypass the index (see writeDataByRow), so streamed sheets are never indexed
+        if (streamedSheets.contains(sheet)) return new SheetExtentIndex(sheet);
+        return extents.computeIfAbsent(sheet, SheetExtentIndex::new);
+    }
+
+    // Re-reads the specified rows into the sheet's extent index (if any) after cell values have changed
+    private void refreshExtent(Sheet sheet, int fromRow, int toRow) {
+        markModified(sheet);
+        SheetExtentIndex extent = extents.get(sheet);
+        if (extent != null) extent.refresh(fromRow, toRow);
+    }
+
     private Cell getCell(Sheet sheet, int rowIndex, int colIndex) {
         return getCell(sheet, rowIndex, colIndex, true);
     }
@@ -1055,16 +2011,40 @@ public final class Workbook {
         return sheet;
     }
 
+    /**
+     * Worksheet to read data from; worksheets of read-only XLSX workbooks are not parsed if they are streamed
+     */
+    private Sheet getSheetForReading(int sheetIndex, ReadStrategy readStrategy) {
+        if (readStrategy == ReadStrategy.STREAMING && workbook instanceof LazyXSSFWorkbook)
+            return ((LazyXSSFWorkbook) workbook).getSheetAt(sheetIndex, false);
+        return workbook.getSheetAt(sheetIndex);
+    }
+
+    private Sheet getSheetForReading(String sheetName, ReadStrategy readStrategy) {
+        int sheetIndex = workbook.getSheetIndex(sheetName);
+        if (sheetIndex < 0)
+            throw new IllegalArgumentException("Sheet with name '" + sheetName + "' does not exist!");
+        return getSheetForReading(sheetIndex, readStrategy);
+    }
+
     public void setMissingValue(Object[] values) {
+        checkOpen();
         missingValue = values;
+        missingValues = new MissingValues(values);
+    }
+
+    // String cell values are set through here such that changes to the shared strings table are tracked
+    private void setStringValue(Cell cell, String value) {
+        cell.setCellValue(value);
+        sharedStringsModified = true;
     }
 
-    private void setMissing(Cell cell) {
+    private void setMissing(Cell cell, StyleCache styleCache) {
         if (missingValue.length < 1 || missingValue[0] == null)
             cell.setBlank();
         else {
             if (missingValue[0] instanceof String) {
-                cell.setCellValue((String) missingValue[0]);
+                setStringValue(cell, (String) missingValue[0]);
             } else if (missingValue[0] instanceof Double) {
                 cell.setCellValue((Double) missingValue[0]);
             } else {
@@ -1072,7 +2052,7 @@ public final class Workbook {
                 return;
             }
 
-            setCellStyle(cell, DataFormatOnlyCellStyle.get(DataType.String));
+            styleCache.getMissingStyler().accept(cell);
         }
     }
 
@@ -1113,12 +2093,17 @@ public final class Workbook {
      * null otherwise
      */
     public CellStyle getCellStyle(String name) {
-        if (isHSSF()) {
-            return HCellStyle.get((HSSFWorkbook) workbook, name);
-        } else if (isXSSF()) {
-            return XCellStyle.get((XSSFWorkbook) workbook, name);
+        checkOpen();
+        if (namedCellStyles == null) {
+            if (isHSSF()) {
+                namedCellStyles = new HashMap<String, CellStyle>(HCellStyle.getAll((HSSFWorkbook) workbook));
+            } else if (isXSSF()) {
+                namedCellStyles = new HashMap<String, CellStyle>(XCellStyle.getAll((XSSFWorkbook) workbook));
+            } else {
+                return null;
+            }
         }
-        return null;
+        return namedCellStyles.get(name);
     }
 
     private CellStyle getCellStyle(Cell cell) {
@@ -1126,23 +2111,70 @@ public final class Workbook {
     }
 
     public boolean existsCellStyle(String name) {
+        checkOpen();
         return getCellStyle(name) != null;
     }
 
-    private void setCellStyle(Cell c, CellStyle cs) {
-        if (cs != null) {
-            if (cs instanceof HCellStyle) {
-                HCellStyle.set((HSSFCell) c, (HCellStyle) cs);
-            } else if (cs instanceof XCellStyle) {
-                XCellStyle.set((XSSFCell) c, (XCellStyle) cs);
+    /**
+     * Cell styles resolved during a single write operation. Each cell style is resolved once to a styler
+     * which applies the final POI cell style, such that applying the same style to many cells neither
+     * creates a new style nor looks up the data format for each cell.
+     */
+    private final class StyleCache {
+        // Resolved named XLSX styles by style xf id
+        private final Map<Integer, XSSFCellStyle> namedStyles = new HashMap<>();
+        // Data format indexes by format
+        private final Map<String, Short> dataFormats = new HashMap<>();
+        // Styles derived for data format only styles, by source style index and data format index
+        private final Map<Integer, org.apache.poi.ss.usermodel.CellStyle> dataFormatStyles = new HashMap<>();
+        private Consumer<Cell> missingStyler = null;
+
+        private Consumer<Cell> getStyler(CellStyle cs) {
+            if (cs == null) {
+                return cell -> {
+                };
             } else if (cs instanceof DataFormatOnlyCellStyle) {
-                CellStyle csx = getCellStyle(c);
-                csx.setDataFormat(dataFormatMap.get(((DataFormatOnlyCellStyle) cs).getDataType()));
-                SSCellStyle.set(c, (SSCellStyle) csx);
+                String format = dataFormatMap.get(((DataFormatOnlyCellStyle) cs).getDataType());
+                short dataFormat = dataFormats.computeIfAbsent(format, f -> workbook.createDataFormat().getFormat(f));
+                return cell -> cell.setCellStyle(getDataFormatStyle(cell, dataFormat));
             } else {
-                SSCellStyle.set(c, (SSCellStyle) cs);
+                org.apache.poi.ss.usermodel.CellStyle style;
+                if (cs instanceof HCellStyle) {
+                    style = ((HCellStyle) cs).toCellStyle();
+                } else if (cs instanceof XCellStyle) {
+                    style = ((XCellStyle) cs).toCellStyle(namedStyles);
+                } else {
+                    style = ((SSCellStyle) cs).toCellStyle();
+                }
+                return cell -> cell.setCellStyle(style);
             }
         }
+
+        private Consumer<Cell> getMissingStyler() {
+            if (missingStyler == null)
+                missingStyler = getStyler(DataFormatOnlyCellStyle.get(DataType.String));
+            return missingStyler;
+        }
+
+        /**
+         * Determines the style of the specified cell with the data format replaced. The cell's current style
+         * is not modified as it is generally shared with other cells.
+         */
+        private org.apache.poi.ss.usermodel.CellStyle getDataFormatStyle(Cell cell, short dataFormat) {
+            org.apache.poi.ss.usermodel.CellStyle source = cell.getCellStyle();
+            if (source.getDataFormat() == dataFormat) return source;
+            int key = (source.getIndex() & 0xFFFF) << 16 | (dataFormat & 0xFFFF);
+            return dataFormatStyles.computeIfAbsent(key, k -> {
+                // Reuses an existing equivalent style if there is one
+                CellUtil.setCellStyleProperty(cell, CellPropertyType.DATA_FORMAT, dataFormat);
+                return cell.getCellStyle();
+            });
+        }
+    }
+
+    private void setCellStyle(Cell c, CellStyle cs) {
+        markModified(c.getSheet());
+        new StyleCache().getStyler(cs).accept(c);
     }
 
     private interface CellFunction {
@@ -1156,6 +2188,7 @@ public final class Workbook {
             throw new IllegalArgumentException("Invalid formula reference - should be of the form Sheet!A1:B10");
         }
         Sheet sheet = getSheet(sheetName);
+        markModified(sheet);
 
         CellReference[] crefs = aref.getAllReferencedCells();
         for (CellReference cref : crefs) {
@@ -1165,35 +2198,43 @@ public final class Workbook {
     }
 
     public void setCellStyle(String formula, final CellStyle cs) {
-        foreachReferencedCell(formula, cell -> setCellStyle(cell, cs));
+        checkOpen();
+        Consumer<Cell> styler = new StyleCache().getStyler(cs);
+        foreachReferencedCell(formula, styler::accept);
     }
 
     public void setCellStyle(int sheetIndex, int row, int col, CellStyle cs) {
+        checkOpen();
         Cell c = getCell(getSheet(sheetIndex), row, col);
         setCellStyle(c, cs);
     }
 
     public void setCellStyle(String sheetName, int row, int col, CellStyle cs) {
+        checkOpen();
         Cell c = getCell(getSheet(sheetName), row, col);
         setCellStyle(c, cs);
     }
 
     private void setHyperlink(Cell cell, HyperlinkType type, String address) {
+        markModified(cell.getSheet());
         Hyperlink link = workbook.getCreationHelper().createHyperlink(type);
         link.setAddress(address);
         cell.setHyperlink(link);
     }
 
     public void setHyperlink(String formula, final HyperlinkType type, final String address) {
+        checkOpen();
         foreachReferencedCell(formula, cell -> setHyperlink(cell, type, address));
     }
 
     public void setHyperlink(int sheetIndex, int row, int col, HyperlinkType type, String address) {
+        checkOpen();
         Cell cell = getCell(getSheet(sheetIndex), row, col);
         setHyperlink(cell, type, address);
     }
 
     public void setHyperlink(String sheetName, int row, int col, HyperlinkType type, String address) {
+        checkOpen();
         Cell cell = getCell(getSheet(sheetName), row, col);
         setHyperlink(cell, type, address);
     }
@@ -1311,15 +2352,18 @@ public final class Workbook {
     }
 
     public void mergeCells(int sheetIndex, String reference) {
-        getSheet(sheetIndex).addMergedRegion(CellRangeAddress.valueOf(reference));
+        checkOpen();
+        markModified(getSheet(sheetIndex)).addMergedRegion(CellRangeAddress.valueOf(reference));
     }
 
     public void mergeCells(String sheetName, String reference) {
-        getSheet(sheetName).addMergedRegion(CellRangeAddress.valueOf(reference));
+        checkOpen();
+        markModified(getSheet(sheetName)).addMergedRegion(CellRangeAddress.valueOf(reference));
     }
 
     public void unmergeCells(int sheetIndex, String reference) {
-        Sheet sheet = getSheet(sheetIndex);
+        checkOpen();
+        Sheet sheet = markModified(getSheet(sheetIndex));
         for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
             CellRangeAddress cra = sheet.getMergedRegion(i);
             if (cra.formatAsString().equals(reference)) {
@@ -1330,6 +2374,7 @@ public final class Workbook {
     }
 
     public void unmergeCells(String sheetName, String reference) {
+        checkOpen();
         unmergeCells(workbook.getSheetIndex(sheetName), reference);
     }
 
@@ -1338,20 +2383,26 @@ public final class Workbook {
      * Get the workbook from a Microsoft Excel file.
      * <p>
      * Reads the workbook if the file exists, otherwise creates a new workbook of the corresponding format.
+     * Read-only workbooks are read from the existing file on demand and cannot be saved; the file must
+     * not be modified while the workbook is in use.
      *
      * @param excelFile Microsoft Excel file to read or create if not existing
+     * @param readOnly  Should the workbook be opened read-only?
      * @return Instance of the workbook
      */
-    public static Workbook getWorkbook(File excelFile, String password, boolean create) throws IOException {
+    public static Workbook getWorkbook(File excelFile, String password, boolean create, boolean readOnly)
+            throws IOException {
         Workbook wb;
 
         if (excelFile.exists()) {
-            if (password == null)
+            if (readOnly)
+                wb = openReadOnly(excelFile, password);
+            else if (password == null)
                 wb = new Workbook(excelFile);
             else
                 wb = new Workbook(excelFile, password);
         } else {
-            if (create) {
+            if (create && !readOnly) {
                 String filename = excelFile.getName().toLowerCase();
                 if (filename.endsWith(".xls")) {
                     wb = new Workbook(excelFile, SpreadsheetVersion.EXCEL97);
@@ -1360,16 +2411,25 @@ public final class Workbook {
                 } else
                     throw new IllegalArgumentException("File extension \"" + filename.substring(filename.lastIndexOf('.') + 1) + "\" not supported! Only *.xls and *.xlsx are allowed!");
             } else
-                throw new FileNotFoundException("File '" + excelFile.getName() + "' could not be found - " +
-                        "you may specify to automatically create the file if not existing.");
+                throw new FileNotFoundException("File '" + excelFile.getName() + "' could not be found" +
+                        (readOnly ? "." : " - you may specify to automatically create the file if not existing."));
         }
         return wb;
     }
 
+    public static Workbook getWorkbook(File excelFile, String password, boolean create) throws IOException {
+        return getWorkbook(excelFile, password, create, false);
+    }
+
     public static Workbook getWorkbook(File excelFile, boolean create) throws IOException {
         return getWorkbook(excelFile, null, create);
     }
 
+    public static Workbook getWorkbook(String filename, String password, boolean create, boolean readOnly)
+            throws IOException {
+        return Workbook.getWorkbook(new File(filename), password, create, readOnly);
+    }
+
     public static Workbook getWorkbook(String filename, String password, boolean create) throws IOException {
         return Workbook.getWorkbook(new File(filename), password, create);
     }
@@ -1378,90 +2438,139 @@ public final class Workbook {
         return Workbook.getWorkbook(new File(filename), create);
     }
 
+    /**
+     * Get the workbook from the contents of a Microsoft Excel file (*.xls or *.xlsx, detected from the content).
+     * The stream is read completely but not closed. The workbook is not associated with a file, i.e. it can
+     * only be saved by specifying the target.
+     *
+     * @param password Password of an encrypted workbook; null if not encrypted
+     */
+    public static Workbook getWorkbook(InputStream is, String password) throws IOException {
+        return new Workbook(WorkbookFactory.create(is, password), null, false);
+    }
+
+    public static Workbook getWorkbook(byte[] content, String password) throws IOException {
+        return getWorkbook(new ByteArrayInputStream(content), password);
+    }
+
+    public static Workbook getWorkbook(ReadableByteChannel channel, String password) throws IOException {
+        return getWorkbook(Channels.newInputStream(channel), password);
+    }
+
+    /**
+     * Determines the worksheets, defined names, tables and worksheet dimensions of a Microsoft Excel file
+     * without loading the workbook (see {@link WorkbookInfo})
+     */
+    public static WorkbookInfo probe(File excelFile) throws IOException {
+        return WorkbookInfo.read(excelFile);
+    }
+
+    public static WorkbookInfo probe(String filename) throws IOException {
+        return probe(new File(filename));
+    }
+
     public void setCellFormula(Cell c, String formula) {
+        checkOpen();
+        markModified(c.getSheet());
         c.setCellFormula(formula);
+        notifySetFormula(c);
+        refreshExtent(c.getSheet(), c.getRowIndex(), c.getRowIndex());
     }
 
     public void setCellFormula(int sheetIndex, int row, int col, String formula) {
+        checkOpen();
         Cell c = getCell(getSheet(sheetIndex), row, col);
         setCellFormula(c, formula);
     }
 
     public void setCellFormula(String sheetName, int row, int col, String formula) {
+        checkOpen();
         Cell c = getCell(getSheet(sheetName), row, col);
         setCellFormula(c, formula);
     }
 
     public String getCellFormula(Cell c) {
+        checkOpen();
         return c.getCellFormula();
     }
 
     public String getCellFormula(int sheetIndex, int row, int col) {
-        Cell c = getCell(getSheet(sheetIndex), row, col);
-        return getCellFormula(c);
+        checkOpen();
+        return getCellFormula(getSheet(sheetIndex), row, col);
     }
 
     public String getCellFormula(String sheetName, int row, int col) {
-        Cell c = getCell(getSheet(sheetName), row, col);
+        checkOpen();
+        return getCellFormula(getSheet(sheetName), row, col);
+    }
+
+    private String getCellFormula(Sheet sheet, int row, int col) {
+        // Reading a formula neither creates the cell nor marks the sheet as modified
+        Cell c = getCell(sheet, row, col, false);
+        if (c == null)
+            throw new IllegalArgumentException("Cell " + CellUtils.formatAsString(sheet, row, col) + " does not contain a formula!");
         return getCellFormula(c);
     }
 
     public boolean getForceFormulaRecalculation(int sheetIndex) {
+        checkOpen();
         return getSheet(sheetIndex).getForceFormulaRecalculation();
     }
 
     public boolean getForceFormulaRecalculation(String sheetName) {
+        checkOpen();
         return getSheet(sheetName).getForceFormulaRecalculation();
     }
 
     public void setForceFormulaRecalculation(int sheetIndex, boolean value) {
-        getSheet(sheetIndex).setForceFormulaRecalculation(value);
+        checkOpen();
+        markModified(getSheet(sheetIndex)).setForceFormulaRecalculation(value);
     }
 
     public void setForceFormulaRecalculation(String sheetName, boolean value) {
-        getSheet(sheetName).setForceFormulaRecalculation(value);
+        checkOpen();
+        markModified(getSheet(sheetName)).setForceFormulaRecalculation(value);
     }
 
     public void setAutoFilter(int sheetIndex, String reference) {
-        getSheet(sheetIndex).setAutoFilter(CellRangeAddress.valueOf(reference));
+        checkOpen();
+        markModified(getSheet(sheetIndex)).setAutoFilter(CellRangeAddress.valueOf(reference));
     }
 
     public void setAutoFilter(String sheetName, String reference) {
-        getSheet(sheetName).setAutoFilter(CellRangeAddress.valueOf(reference));
+        checkOpen();
+        markModified(getSheet(sheetName)).setAutoFilter(CellRangeAddress.valueOf(reference));
     }
 
     public int getLastRow(int sheetIndex) {
+        checkOpen();
         return getSheet(sheetIndex).getLastRowNum();
     }
 
     public int getLastRow(String sheetName) {
+        checkOpen();
         return getSheet(sheetName).getLastRowNum();
     }
 
     public int getLastColumn(Sheet sheet) {
+        checkOpen();
         int lastRow = sheet.getLastRowNum();
-        int lastColumn = 1;
-        for (int i = 0; i < lastRow; ++i) {
-            Row row = sheet.getRow(i);
-            if (row != null) {
-                int col = row.getLastCellNum();
-                if (col > lastColumn) {
-                    lastColumn = col;
-                }
-            }
-        }
+        int lastColumn = Math.max(1, getExtent(sheet).getMaxLastCellNum(lastRow));
         return lastColumn - 1;
     }
 
     public int getLastColumn(int sheetIndex) {
+        checkOpen();
         return getLastColumn(getSheet(sheetIndex));
     }
 
     public int getLastColumn(String sheetName) {
+        checkOpen();
         return getLastColumn(getSheet(sheetName));
     }
 
     public void appendNamedRegion(DataFrame data, String name, boolean header, boolean overwriteFormulaCells, String worksheetScope) {
+        checkOpen();
         Sheet sheet = workbook.getSheet(getName(name, worksheetScope).getSheetName());
         // top, left, bottom, right
         int[] coord = getReferenceCoordinatesForName(name, worksheetScope).getValue();
@@ -1475,60 +2584,70 @@ public final class Workbook {
 
 
     public void appendWorksheet(DataFrame data, int worksheetIndex, boolean header) {
+        checkOpen();
         Sheet sheet = getSheet(worksheetIndex);
         int lastRow = getLastRow(worksheetIndex);
-        int firstCol = Integer.MAX_VALUE;
-        for (int i = 0; i < lastRow && firstCol > 0; i++) {
-            Row row = sheet.getRow(i);
-            if (row != null && row.getFirstCellNum() < firstCol)
-                firstCol = row.getFirstCellNum();
-        }
-        if (firstCol == Integer.MAX_VALUE)
+        int firstCol = getExtent(sheet).getMinFirstCellNum(lastRow);
+        if (firstCol < 0)
             firstCol = 0;
 
         writeWorksheet(data, worksheetIndex, getLastRow(worksheetIndex) + 1, firstCol, header, false);
     }
 
     public void appendWorksheet(DataFrame data, String worksheetName, boolean header) {
+        checkOpen();
         appendWorksheet(data, workbook.getSheetIndex(worksheetName), header);
     }
 
     public void clearSheet(int sheetIndex) {
-        Sheet sheet = getSheet(sheetIndex);
+        checkOpen();
+        Sheet sheet = markModified(getSheet(sheetIndex));
+        if (evaluatorNotifications + sheet.getPhysicalNumberOfRows() > MAX_EVALUATOR_NOTIFICATIONS) resetEvaluator();
         int firstRow = sheet.getFirstRowNum();
         int lastRow = sheet.getLastRowNum();
         for (int i = lastRow; i >= firstRow; i--) {
             Row r = sheet.getRow(i);
-            if (r != null)
+            if (r != null) {
+                if (evaluator != null) r.forEach(this::notifyDeleteCell);
                 sheet.removeRow(r);
+            }
         }
+        SheetExtentIndex extent = extents.get(sheet);
+        if (extent != null) extent.clear();
     }
 
     public void clearSheet(String sheetName) {
+        checkOpen();
         clearSheet(workbook.getSheetIndex(sheetName));
     }
 
     // coords[] = { top, left, bottom, right }
     public void clearRange(int sheetIndex, int[] coords) {
+        checkOpen();
         Sheet sheet = getSheet(sheetIndex);
         for (int i = coords[0]; i <= coords[2]; i++) {
             Row row = sheet.getRow(i);
             if (row == null) continue;
             for (int j = coords[1]; j <= coords[3]; j++) {
                 Cell cell = row.getCell(j);
-                if (cell != null)
+                if (cell != null) {
+                    notifyDeleteCell(cell);
                     row.removeCell(cell);
+                }
             }
             if (row.getLastCellNum() < 0)
                 sheet.removeRow(row);
         }
+        refreshExtent(sheet, coords[0], coords[2]);
     }
 
     public void clearRange(String sheetName, int[] coords) {
+        checkOpen();
         clearRange(workbook.getSheetIndex(sheetName), coords);
     }
 
     public void clearRangeFromReference(String reference) {
+        checkOpen();
         AreaReference ref = new AreaReference(reference, workbook.getSpreadsheetVersion());
         CellReference firstCell = ref.getFirstCell();
         CellReference lastCell = ref.getLastCell();
@@ -1539,19 +2658,23 @@ public final class Workbook {
     }
 
     public void clearNamedRegion(String name, String worksheetScope) {
+        checkOpen();
         String dataSourceSheetName = getName(name, worksheetScope).getSheetName();
         int[] coords = getReferenceCoordinatesForName(name, worksheetScope).getValue();
         clearRange(dataSourceSheetName, coords);
     }
 
     public void createFreezePane(int sheetIndex, int colSplit, int rowSplit, int leftColumn, int topRow) {
+        checkOpen();
+        Sheet sheet = markModified(getSheet(sheetIndex));
         if (leftColumn < 0 | topRow < 0)
-            getSheet(sheetIndex).createFreezePane(colSplit, rowSplit);
+            sheet.createFreezePane(colSplit, rowSplit);
         else
-            getSheet(sheetIndex).createFreezePane(colSplit, rowSplit, leftColumn, topRow);
+            sheet.createFreezePane(colSplit, rowSplit, leftColumn, topRow);
     }
 
     public void createFreezePane(String sheetName, int colSplit, int rowSplit, int leftColumn, int topRow) {
+        checkOpen();
         createFreezePane(workbook.getSheetIndex(sheetName), colSplit, rowSplit, leftColumn, topRow);
     }
 
@@ -1564,25 +2687,31 @@ public final class Workbook {
     }
 
     public void createSplitPane(int sheetIndex, int xSplitPos, int ySplitPos, int leftColumn, int topRow) {
-        getSheet(sheetIndex).createSplitPane(xSplitPos, ySplitPos, leftColumn, topRow, PaneType.LOWER_RIGHT);
+        checkOpen();
+        markModified(getSheet(sheetIndex)).createSplitPane(xSplitPos, ySplitPos, leftColumn, topRow, PaneType.LOWER_RIGHT);
     }
 
     public void createSplitPane(String sheetName, int xSplitPos, int ySplitPos, int leftColumn, int topRow) {
+        checkOpen();
         createSplitPane(workbook.getSheetIndex(sheetName), xSplitPos, ySplitPos, leftColumn, topRow);
     }
 
     public void removePane(int sheetIndex) {
+        checkOpen();
         createFreezePane(sheetIndex, 0, 0);
     }
 
     public void removePane(String sheetName) {
+        checkOpen();
         createFreezePane(sheetName, 0, 0);
     }
 
     public void setSheetColor(int sheetIndex, int color) {
+        checkOpen();
         if (isXSSF()) {
             XSSFWorkbook wb = (XSSFWorkbook) workbook;
             XSSFSheet sheet = wb.getSheetAt(sheetIndex);
+            markModified(sheet);
             sheet.setTabColor(
                     new XSSFColor(IndexedColors.fromInt(color), wb.getStylesSource().getIndexedColors()));
         } else if (isHSSF()) {
@@ -1591,98 +2720,20 @@ public final class Workbook {
     }
 
     public void setSheetColor(String sheetName, int color) {
+        checkOpen();
         setSheetColor(workbook.getSheetIndex(sheetName), color);
     }
 
     public int[] getBoundingBox(int sheetIndex, int startRow, int startCol, int endRow, int endCol,
                                 boolean autofitRow, boolean autofitCol) {
+        checkOpen();
         Sheet sheet = workbook.getSheetAt(sheetIndex);
-        final int mark = Integer.MAX_VALUE - 1;
-
-        if (startRow < 0) {
-            startRow = sheet.getFirstRowNum();
-            if (sheet.getRow(startRow) == null) {
-                // There is no row in this sheet
-                startRow = -1;
-            }
-        }
-
-        if (endRow < 0) {
-            // We interpret this as "all except for the last N rows"
-            // -1 => auto-detect the last row
-            // -2 => all except for the last row
-            // -3 => all except for the last 2 rows
-            // ...
-            endRow = sheet.getLastRowNum() + endRow + 1;
-            if (sheet.getRow(endRow) == null) {
-                // There is no row in this sheet
-                endRow = -1;
-            }
-        }
-
-        int minRow = startRow;
-        int maxRow = endRow;
-        int minCol = startCol;
-        int maxCol = endCol < 0 ? mark : endCol;
-
-        int origEndCol = endCol;
-
-        startCol = startCol < 0 ? mark : startCol;
-        endCol = endCol < 0 ? -1 : endCol;
-        Cell topLeft = null, bottomRight = null;
-        boolean anyCell = false;
-        for (int i = minRow; i > -1 && i <= maxRow; i++) {
-            Row r = sheet.getRow(i);
-            if (r != null) {
-                // Determine column boundaries
-                int start = Math.max(minCol, r.getFirstCellNum());
-                int end = Math.min(maxCol + 1, r.getLastCellNum()); // NOTE: getLastCellNum is 1-based!
-                boolean anyNonBlank = false;
-                for (int j = start; j > -1 && j < end; j++) {
-                    Cell c = r.getCell(j);
-                    if (c != null && c.getCellType() != CellType.BLANK) {
-                        anyCell = true;
-                        anyNonBlank = true;
-                        if ((autofitCol || minCol < 0) && (topLeft == null || j < startCol)) {
-                            startCol = j;
-                            topLeft = c;
-                        }
-                        if ((autofitCol || maxCol == mark) && (bottomRight == null || j > endCol)) {
-                            endCol = j;
-                            bottomRight = c;
-                        }
-                    }
-                }
-                if (autofitRow && anyNonBlank) {
-                    endRow = i;
-                    if (sheet.getRow(startRow) == null) {
-                        startRow = i;
-                    }
-                }
-            }
-        }
-
-        if ((autofitRow || startRow < 0) && !anyCell) {
-            startRow = endRow = -1;
-        }
-        if ((autofitCol || startCol == mark) && !anyCell) {
-            startCol = endCol = -1;
-        }
-
-        if (origEndCol < 0) {
-            // We interpret this as "all except for the last N columns"
-            // -1 => auto-detect the last column
-            // -2 => all except for the last column
-            // -3 => all except for the last 2 columns
-            // ...
-            endCol = endCol + origEndCol + 1;
-        }
-
-        return new int[]{startRow, startCol, endRow, endCol};
+        return getExtent(sheet).getBoundingBox(startRow, startCol, endRow, endCol, autofitRow, autofitCol);
     }
 
     public int[] getBoundingBox(String sheetName, int startRow, int startCol, int endRow, int endCol,
                                 boolean autofitRow, boolean autofitColumn) {
+        checkOpen();
         return getBoundingBox(workbook.getSheetIndex(sheetName), startRow, startCol, endRow, endCol,
                 autofitRow, autofitColumn);
     }
@@ -0,0 +1,340 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.DimensionsRecord;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.NameRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageRelationship;
+import org.apache.poi.openxml4j.opc.PackageRelationshipTypes;
+import org.apache.poi.poifs.crypt.Decryptor;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.miraisolutions.xlconnect.Attribute.WORKSHEET_SCOPE;
+
+/**
+ * Workbook metadata (worksheets, defined names, tables and worksheet dimensions) as determined by
+ * {@link Workbook#probe(File)} without loading the workbook. For XLSX files, only the workbook part, the
+ * table parts and the beginning of each worksheet part (up to its dimension element) are read; for XLS files,
+ * only the BOUNDSHEET, NAME and DIMENSIONS records.
+ * <p>
+ * Worksheet dimensions are taken as recorded in the file; they may differ from the ones of a loaded workbook
+ * for empty worksheets or if the file has been written by a tool recording inaccurate dimensions.
+ */
+public final class WorkbookInfo {
+
+    // NOTE: XMLInputFactory instances are thread-safe once configured
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLHelper.newXMLInputFactory();
+
+    private final List<String> sheets = new ArrayList<>();
+    private final List<String[]> tables = new ArrayList<>();
+    // Last row and column (0-based) per worksheet; -1 if the worksheet is empty
+    private final List<int[]> lastCells = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    // Index of the worksheet each name is scoped to; -1 for workbook scope
+    private final List<Integer> nameSheetIndexes = new ArrayList<>();
+
+    private WorkbookInfo() {
+    }
+
+    public String[] getSheets() {
+        return sheets.toArray(new String[0]);
+    }
+
+    /**
+     * Defined names as given by {@link Workbook#getDefinedNames} (without checking the validity of the names)
+     *
+     * @param worksheetScope Worksheet name to get the names scoped to it, "" for names with workbook scope or
+     *                       null for all names
+     */
+    public ResultWithAttributes<String[]> getDefinedNames(String worksheetScope) {
+        int scopeIndex = worksheetScope == null || worksheetScope.isEmpty() ? -1 : getSheetIndex(worksheetScope);
+        List<String> found = new ArrayList<>();
+        List<String> scopes = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            int sheetIndex = nameSheetIndexes.get(i);
+            if (worksheetScope == null || sheetIndex == scopeIndex) {
+                found.add(names.get(i));
+                scopes.add(worksheetScope != null ? worksheetScope : sheetIndex >= 0 ? sheets.get(sheetIndex) : "");
+            }
+        }
+        return new ResultWithAttributes<>(found.toArray(new String[0]),
+                Collections.singletonMap(WORKSHEET_SCOPE.toString(), scopes.toArray(new String[0])));
+    }
+
+    public String[] getTables(String sheetName) {
+        return tables.get(getSheetIndex(sheetName)).clone();
+    }
+
+    public int getLastRow(String sheetName) {
+        return lastCells.get(getSheetIndex(sheetName))[0];
+    }
+
+    public int getLastColumn(String sheetName) {
+        return lastCells.get(getSheetIndex(sheetName))[1];
+    }
+
+    private int getSheetIndex(String sheetName) {
+        for (int i = 0; i < sheets.size(); i++) {
+            if (sheets.get(i).equalsIgnoreCase(sheetName)) return i;
+        }
+        throw new IllegalArgumentException("Sheet with name '" + sheetName + "' does not exist!");
+    }
+
+    static WorkbookInfo read(File excelFile) throws IOException {
+        if (!excelFile.exists())
+            throw new FileNotFoundException("File '" + excelFile.getName() + "' could not be found.");
+        WorkbookInfo info = new WorkbookInfo();
+        FileMagic magic = FileMagic.valueOf(excelFile);
+        if (magic == FileMagic.OOXML) {
+            info.readXlsx(excelFile);
+        } else if (magic == FileMagic.OLE2) {
+            info.readXls(excelFile);
+        } else {
+            throw new IllegalArgumentException("File '" + excelFile.getName() + "' is neither an *.xls nor an *.xlsx file!");
+        }
+        return info;
+    }
+
+    private void readXlsx(File excelFile) throws IOException {
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(excelFile, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException(e);
+        }
+        try {
+            List<PackagePart> workbookParts = pkg.getPartsByRelationshipType(PackageRelationshipTypes.CORE_DOCUMENT);
+            if (workbookParts.isEmpty())
+                throw new IllegalArgumentException("File '" + excelFile.getName() + "' does not contain a workbook!");
+            PackagePart workbookPart = workbookParts.get(0);
+            List<String> localSheetIds = new ArrayList<>();
+            for (String relId : readWorkbookPart(workbookPart, localSheetIds)) {
+                PackagePart sheetPart = workbookPart.getRelatedPart(workbookPart.getRelationship(relId));
+                List<String> sheetTables = new ArrayList<>();
+                for (PackageRelationship rel : sheetPart.getRelationshipsByType(XSSFRelation.TABLE.getRelation())) {
+                    sheetTables.add(readTableName(sheetPart.getRelatedPart(rel)));
+                }
+                tables.add(sheetTables.toArray(new String[0]));
+                lastCells.add(readDimension(sheetPart));
+            }
+            for (String localSheetId : localSheetIds) {
+                nameSheetIndexes.add(localSheetId == null ? -1 : Integer.parseInt(localSheetId));
+            }
+        } catch (InvalidFormatException | XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            pkg.revert();
+        }
+    }
+
+    /**
+     * Reads the worksheet names and defined names from the workbook part
+     *
+     * @return Relationship IDs of the worksheet parts
+     */
+    private List<String> readWorkbookPart(PackagePart part, List<String> localSheetIds)
+            throws IOException, XMLStreamException {
+        List<String> relIds = new ArrayList<>();
+        try (InputStream is = part.getInputStream()) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(is);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) continue;
+                    switch (reader.getLocalName()) {
+                        case "sheet":
+                            sheets.add(reader.getAttributeValue(null, "name"));
+                            relIds.add(getRelationshipId(reader));
+                            break;
+                        case "definedName":
+                            names.add(reader.getAttributeValue(null, "name"));
+                            localSheetIds.add(reader.getAttributeValue(null, "localSheetId"));
+                            break;
+                        default:
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return relIds;
+    }
+
+    private static String getRelationshipId(XMLStreamReader reader) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if ("id".equals(reader.getAttributeLocalName(i)) && namespace != null && !namespace.isEmpty())
+                return reader.getAttributeValue(i);
+        }
+        throw new IllegalArgumentException("Worksheet '" + reader.getAttributeValue(null, "name") +
+                "' does not refer to a worksheet part!");
+    }
+
+    private static String readTableName(PackagePart part) throws IOException, XMLStreamException {
+        try (InputStream is = part.getInputStream()) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(is);
+            try {
+                reader.nextTag();
+                return reader.getAttributeValue(null, "name");
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * @return {last row, last column} as given by the worksheet's dimension element or, if there is none,
+     * as determined from the worksheet's cells
+     */
+    private static int[] readDimension(PackagePart part) throws IOException, XMLStreamException {
+        int lastRow = -1;
+        int lastCol = -1;
+        try (InputStream is = part.getInputStream()) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(is);
+            try {
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(reader.getLocalName())) break;
+                    if (event != XMLStreamConstants.START_ELEMENT) continue;
+                    String ref = reader.getAttributeValue(null, "r");
+                    switch (reader.getLocalName()) {
+                        case "dimension":
+                            CellRangeAddress range = CellRangeAddress.valueOf(reader.getAttributeValue(null, "ref"));
+                            return new int[]{range.getLastRow(), range.getLastColumn()};
+                        case "row":
+                            lastRow = ref == null ? lastRow + 1 : Math.max(lastRow, Integer.parseInt(ref) - 1);
+                            break;
+                        case "c":
+                            if (ref != null) lastCol = Math.max(lastCol, new CellReference(ref).getCol());
+                            break;
+                        default:
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return new int[]{lastRow, lastCol};
+    }
+
+    private void readXls(File excelFile) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(excelFile, true)) {
+            if (fs.getRoot().hasEntry(Decryptor.DEFAULT_POIFS_ENTRY))
+                throw new IllegalArgumentException("Password protected workbooks cannot be probed!");
+            XlsListener listener = new XlsListener();
+            HSSFRequest request = new HSSFRequest();
+            for (short sid : new short[]{BOFRecord.sid, EOFRecord.sid, BoundSheetRecord.sid, NameRecord.sid,
+                    DimensionsRecord.sid}) {
+                request.addListener(listener, sid);
+            }
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+            listener.finish();
+        } catch (org.apache.poi.hssf.eventusermodel.HSSFUserException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Collects the XLS records of interest; processing is aborted once all worksheets' dimensions are known
+     */
+    private final class XlsListener extends AbortableHSSFListener {
+        private final List<BoundSheetRecord> boundSheets = new ArrayList<>();
+        // Worksheet indexes in the order of the worksheets' substreams
+        private int[] substreamSheets;
+        private int[][] dimensions;
+        private int depth = 0;
+        private int substream = -1;
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    if (depth++ == 0 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) substream++;
+                    if (substreamSheets == null && substream >= 0) startSheets();
+                    break;
+                case EOFRecord.sid:
+                    depth--;
+                    if (depth == 0 && substreamSheets != null && substream == substreamSheets.length - 1) return 1;
+                    break;
+                case BoundSheetRecord.sid:
+                    boundSheets.add((BoundSheetRecord) record);
+                    break;
+                case NameRecord.sid:
+                    NameRecord name = (NameRecord) record;
+                    names.add(name.getNameText());
+                    nameSheetIndexes.add(name.getSheetNumber() - 1);
+                    break;
+                case DimensionsRecord.sid:
+                    if (depth == 1 && substream >= 0 && substream < substreamSheets.length) {
+                        DimensionsRecord dims = (DimensionsRecord) record;
+                        dimensions[substreamSheets[substream]] = new int[]{dims.getLastRow() - 1, dims.getLastCol() - 1};
+                    }
+                    break;
+                default:
+            }
+            return 0;
+        }
+
+        private void startSheets() {
+            BoundSheetRecord[] ordered = BoundSheetRecord.orderByBofPosition(boundSheets);
+            substreamSheets = new int[ordered.length];
+            for (int i = 0; i < ordered.length; i++) {
+                substreamSheets[i] = boundSheets.indexOf(ordered[i]);
+            }
+            dimensions = new int[boundSheets.size()][];
+        }
+
+        void finish() {
+            for (int i = 0; i < boundSheets.size(); i++) {
+                sheets.add(boundSheets.get(i).getSheetname());
+                tables.add(new String[0]);
+                lastCells.add(dimensions != null && dimensions[i] != null ? dimensions[i] : new int[]{-1, -1});
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@
 package com.miraisolutions.xlconnect;
 
 import org.apache.poi.ss.usermodel.BorderStyle;
+import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.DataFormat;
 import org.apache.poi.ss.usermodel.FillPatternType;
 import org.apache.poi.xssf.model.StylesTable;
@@ -30,6 +31,9 @@ import org.apache.poi.xssf.usermodel.extensions.XSSFCellBorder;
 import org.apache.poi.xssf.usermodel.extensions.XSSFCellFill;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.*;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * This class uses parts from
  * <a href="http://svn.apache.org/repos/asf/poi/trunk/src/ooxml/java/org/apache/poi/xssf/usermodel/XSSFCellStyle.java">XSSFCellStyle.java</a>
@@ -397,11 +401,56 @@ public final class XCellStyle implements CellStyle {
         return null;
     }
 
-    public static void set(XSSFCell c, XCellStyle cs) {
-        if (cs.xfId < 0) {
+    /**
+     * @return XCellStyle referring to the (named) style xf only, as returned by get
+     */
+    XCellStyle getNamedStyle() {
+        return new XCellStyle(workbook, -1, styleXfId);
+    }
+
+    /**
+     * Used for indexing all user-named cell styles (style xf only). If several styles
+     * share the same name, the first one is taken (as with get).
+     *
+     * @return Mapping of style names to XCellStyles with corresponding (named) style xf
+     */
+    public static Map<String, XCellStyle> getAll(XSSFWorkbook workbook) {
+        Map<String, XCellStyle> styles = new HashMap<>();
+        CTCellStyles ctCellStyles = workbook.getStylesSource().getCTStylesheet().getCellStyles();
+
+        if (ctCellStyles != null) {
+            for (int i = 0; i < ctCellStyles.getCount(); i++) {
+                CTCellStyle ctCellStyle = ctCellStyles.getCellStyleArray(i);
+                String name = ctCellStyle.getName();
+                if (name != null && !styles.containsKey(name))
+                    styles.put(name, new XCellStyle(workbook, -1, (int) ctCellStyle.getXfId()));
+            }
+        }
+
+        return styles;
+    }
+
+    public static void set(Cell c, XCellStyle cs) {
+        c.setCellStyle(cs.toCellStyle());
+    }
+
+    /**
+     * Resolves this style to a POI cell style. Named styles are resolved only once per style xf;
+     * the resolved cell styles are kept in the specified map and reused for subsequent calls.
+     */
+    XSSFCellStyle toCellStyle(Map<Integer, XSSFCellStyle> resolvedNamedStyles) {
+        if (xfId < 0) {
+            return resolvedNamedStyles.computeIfAbsent(styleXfId, id -> toCellStyle());
+        } else {
+            return toCellStyle();
+        }
+    }
+
+    private XSSFCellStyle toCellStyle() {
+        if (xfId < 0) {
             // Only the style xf is of interest
 
-            CTXf styleXf = cs.getStyleXf();
+            CTXf styleXf = getStyleXf();
 
             CTXf xf = CTXf.Factory.newInstance();
             xf.setNumFmtId(styleXf.getNumFmtId());
@@ -409,22 +458,38 @@ public final class XCellStyle implements CellStyle {
             xf.setFillId(styleXf.getFillId());
             xf.setBorderId(styleXf.getBorderId());
             xf.setAlignment(styleXf.getAlignment());
-            xf.setXfId(cs.styleXfId);
+            xf.setXfId(styleXfId);
 
-            int xfSize = cs.workbook.getStylesSource().putCellXf(xf);
-            c.setCellStyle(new XSSFCellStyle(xfSize - 1, cs.styleXfId,
-                    cs.workbook.getStylesSource(), cs.workbook.getTheme()));
-        } else if (cs.styleXfId < 0) {
+            StylesTable stylesSource = workbook.getStylesSource();
+            int index = findCellXf(stylesSource, xf);
+            if (index < 0) index = stylesSource.putCellXf(xf) - 1;
+            return new XSSFCellStyle(index, styleXfId, stylesSource, workbook.getTheme());
+        } else if (styleXfId < 0) {
             // It's an unnamed cell style - only the core xf is of interest
 
-            int styleXfId = 0;
-            int id = (int) cs.workbook.getStylesSource().getCellXfAt(cs.xfId).getXfId();
-            if (id > 0) styleXfId = id;
+            int coreStyleXfId = 0;
+            int id = (int) workbook.getStylesSource().getCellXfAt(xfId).getXfId();
+            if (id > 0) coreStyleXfId = id;
 
-            c.setCellStyle(new XSSFCellStyle(cs.xfId, styleXfId, cs.workbook.getStylesSource(),
-                    cs.workbook.getTheme()));
+            return new XSSFCellStyle(xfId, coreStyleXfId, workbook.getStylesSource(), workbook.getTheme());
         } else
-            c.setCellStyle(new XSSFCellStyle(cs.xfId, cs.styleXfId,
-                    cs.workbook.getStylesSource(), cs.workbook.getTheme()));
+            return new XSSFCellStyle(xfId, styleXfId, workbook.getStylesSource(), workbook.getTheme());
+    }
+
+    /**
+     * Finds an existing cell xf equal to the specified one, such that resolving a named style
+     * repeatedly (e.g. once per write) does not add another cell xf each time
+     *
+     * @return Index of the cell xf; -1 if there is none
+     */
+    private static int findCellXf(StylesTable stylesSource, CTXf xf) {
+        String xml = null;
+        for (int i = 0; i < stylesSource.getNumCellStyles(); i++) {
+            CTXf candidate = stylesSource.getCellXfAt(i);
+            if (candidate.getXfId() != xf.getXfId() || candidate.getNumFmtId() != xf.getNumFmtId()) continue;
+            if (xml == null) xml = xf.xmlText();
+            if (xml.equals(candidate.xmlText())) return i;
+        }
+        return -1;
     }
 }
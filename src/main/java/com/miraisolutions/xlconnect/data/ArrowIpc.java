@@ -0,0 +1,530 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.data;
+
+import com.zaxxer.sparsebits.SparseBitSet;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Conversion of data frames to and from the
+ * <a href="https://arrow.apache.org/docs/format/Columnar.html#ipc-streaming-format">Arrow IPC streaming format</a>.
+ * Columns are written as Float64 (Numeric), Utf8 (String), Bool (Boolean) and Timestamp with millisecond
+ * unit and time zone UTC (DateTime), with validity bitmaps for missing values. On reading, integer,
+ * floating point, (large) string, boolean, date and timestamp columns are supported.
+ */
+public final class ArrowIpc {
+
+    // Maximum number of rows per record batch
+    private static final int BATCH_ROWS = 65536;
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final short METADATA_V5 = 4;
+    // Message header types
+    private static final int HEADER_SCHEMA = 1;
+    private static final int HEADER_DICTIONARY_BATCH = 2;
+    private static final int HEADER_RECORD_BATCH = 3;
+    // Field types
+    private static final int TYPE_INT = 2;
+    private static final int TYPE_FLOATING_POINT = 3;
+    private static final int TYPE_UTF8 = 5;
+    private static final int TYPE_BOOL = 6;
+    private static final int TYPE_DATE = 8;
+    private static final int TYPE_TIMESTAMP = 10;
+    private static final int TYPE_LARGE_UTF8 = 20;
+    private static final int PRECISION_SINGLE = 1;
+    private static final int PRECISION_DOUBLE = 2;
+    private static final int UNIT_MILLISECOND = 1;
+
+    private ArrowIpc() {
+    }
+
+    public static void write(DataFrame data, File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            write(data, out);
+        }
+    }
+
+    public static void write(DataFrame data, OutputStream out) throws IOException {
+        writeMessage(out, HEADER_SCHEMA, schema(data), Collections.emptyList());
+        for (int from = 0; from < data.rows(); from += BATCH_ROWS) {
+            writeRecordBatch(out, data, from, Math.min(data.rows(), from + BATCH_ROWS));
+        }
+        // End of stream
+        out.write(new byte[]{-1, -1, -1, -1, 0, 0, 0, 0});
+        out.flush();
+    }
+
+    public static byte[] toByteArray(DataFrame data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            write(data, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static FlatBuffer.Table schema(DataFrame data) {
+        List<FlatBuffer.Table> fields = new ArrayList<>(data.columns());
+        for (int i = 0; i < data.columns(); i++) {
+            FlatBuffer.Table field = new FlatBuffer.Table();
+            if (data.getColumnName(i) != null)
+                field.addNode(0, new FlatBuffer.StringNode(data.getColumnName(i)));
+            field.addByte(1, 1);
+            FlatBuffer.Table type = new FlatBuffer.Table();
+            switch (data.getColumnType(i)) {
+                case Boolean:
+                    field.addByte(2, TYPE_BOOL);
+                    break;
+                case DateTime:
+                    field.addByte(2, TYPE_TIMESTAMP);
+                    type.addShort(0, UNIT_MILLISECOND).addNode(1, new FlatBuffer.StringNode("UTC"));
+                    break;
+                case Numeric:
+                    field.addByte(2, TYPE_FLOATING_POINT);
+                    type.addShort(0, PRECISION_DOUBLE);
+                    break;
+                case String:
+                    field.addByte(2, TYPE_UTF8);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown column type detected!");
+            }
+            field.addNode(3, type);
+            // Readers expect a children vector even for primitive types
+            field.addNode(5, new FlatBuffer.TableVector(Collections.<FlatBuffer.Node>emptyList()));
+            fields.add(field);
+        }
+        return new FlatBuffer.Table().addNode(1, new FlatBuffer.TableVector(fields));
+    }
+
+    private static void writeRecordBatch(OutputStream out, DataFrame data, int from, int to) throws IOException {
+        int length = to - from;
+        List<byte[]> buffers = new ArrayList<>();
+        long[] nodes = new long[2 * data.columns()];
+        for (int i = 0; i < data.columns(); i++) {
+            Column col = data.getColumn(i);
+            int nullCount = 0;
+            SparseBitSet missing = col.getMissing();
+            for (int j = missing.nextSetBit(from); j >= 0 && j < to; j = missing.nextSetBit(j + 1)) nullCount++;
+            nodes[2 * i] = length;
+            nodes[2 * i + 1] = nullCount;
+
+            if (nullCount == 0) {
+                buffers.add(new byte[0]);
+            } else {
+                byte[] validity = new byte[(length + 7) / 8];
+                for (int j = 0; j < length; j++) {
+                    if (!missing.get(from + j)) validity[j >> 3] |= (byte) (1 << (j & 7));
+                }
+                buffers.add(validity);
+            }
+
+            switch (col.getDataType()) {
+                case Boolean: {
+                    boolean[] values = col.getBooleanData();
+                    byte[] bits = new byte[(length + 7) / 8];
+                    for (int j = 0; j < length; j++) {
+                        if (values[from + j]) bits[j >> 3] |= (byte) (1 << (j & 7));
+                    }
+                    buffers.add(bits);
+                    break;
+                }
+                case DateTime: {
+                    ByteBuffer values = littleEndian(8 * length);
+                    values.asLongBuffer().put(col.getDateTimeData(), from, length);
+                    buffers.add(values.array());
+                    break;
+                }
+                case Numeric: {
+                    ByteBuffer values = littleEndian(8 * length);
+                    values.asDoubleBuffer().put(col.getNumericData(), from, length);
+                    buffers.add(values.array());
+                    break;
+                }
+                case String: {
+                    String[] values = col.getStringData();
+                    ByteBuffer offsets = littleEndian(4 * (length + 1));
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    offsets.putInt(0);
+                    for (int j = 0; j < length; j++) {
+                        String value = values[from + j];
+                        if (value != null && !missing.get(from + j)) {
+                            byte[] b = value.getBytes(StandardCharsets.UTF_8);
+                            bytes.write(b, 0, b.length);
+                        }
+                        offsets.putInt(bytes.size());
+                    }
+                    buffers.add(offsets.array());
+                    buffers.add(bytes.toByteArray());
+                    break;
+                }
+                default:
+                    throw new IllegalArgumentException("Unknown column type detected!");
+            }
+        }
+
+        long[] bufferSpecs = new long[2 * buffers.size()];
+        long offset = 0;
+        for (int k = 0; k < buffers.size(); k++) {
+            bufferSpecs[2 * k] = offset;
+            bufferSpecs[2 * k + 1] = buffers.get(k).length;
+            offset += padded(buffers.get(k).length);
+        }
+        FlatBuffer.Table batch = new FlatBuffer.Table()
+                .addLong(0, length)
+                .addNode(1, new FlatBuffer.StructVector(nodes, 2))
+                .addNode(2, new FlatBuffer.StructVector(bufferSpecs, 2));
+        writeMessage(out, HEADER_RECORD_BATCH, batch, buffers);
+    }
+
+    private static void writeMessage(OutputStream out, int headerType, FlatBuffer.Table header, List<byte[]> body)
+            throws IOException {
+        long bodyLength = 0;
+        for (byte[] b : body) bodyLength += padded(b.length);
+        FlatBuffer.Table message = new FlatBuffer.Table()
+                .addShort(0, METADATA_V5)
+                .addByte(1, headerType)
+                .addNode(2, header)
+                .addLong(3, bodyLength);
+        byte[] metadata = FlatBuffer.finish(message);
+        // Continuation marker and metadata length are followed by the metadata padded to 8 bytes
+        int metadataLength = padded(metadata.length);
+        ByteBuffer prefix = littleEndian(8);
+        prefix.putInt(CONTINUATION).putInt(metadataLength);
+        out.write(prefix.array());
+        out.write(metadata);
+        out.write(new byte[metadataLength - metadata.length]);
+        for (byte[] b : body) {
+            out.write(b);
+            out.write(new byte[padded(b.length) - b.length]);
+        }
+    }
+
+    public static DataFrame read(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return read(in);
+        }
+    }
+
+    public static DataFrame read(InputStream in) throws IOException {
+        DataInputStream input = new DataInputStream(in);
+        List<Field> fields = null;
+        List<List<Column>> batches = new ArrayList<>();
+        while (true) {
+            // The end of stream marker is optional
+            Integer marker = readInt(input, true);
+            if (marker == null) break;
+            int metadataLength = marker;
+            // Streams written before Arrow 0.15 do not use a continuation marker
+            if (metadataLength == CONTINUATION) metadataLength = readInt(input, false);
+            if (metadataLength == 0) break;
+
+            byte[] metadata = new byte[metadataLength];
+            input.readFully(metadata);
+            FlatBuffer.Reader reader = new FlatBuffer.Reader(metadata);
+            int message = reader.root();
+            int headerType = reader.getByte(message, 1, 0);
+            int header = reader.getNode(message, 2);
+            byte[] body = new byte[Math.toIntExact(reader.getLong(message, 3, 0))];
+            input.readFully(body);
+
+            if (headerType == HEADER_SCHEMA) {
+                fields = readSchema(reader, header);
+            } else if (headerType == HEADER_RECORD_BATCH) {
+                if (fields == null)
+                    throw new IllegalArgumentException("Arrow stream does not start with a schema!");
+                batches.add(readRecordBatch(reader, header, fields, body));
+            } else if (headerType == HEADER_DICTIONARY_BATCH) {
+                throw new IllegalArgumentException("Dictionary encoded Arrow columns are not supported!");
+            } else {
+                throw new IllegalArgumentException("Unsupported Arrow message type " + headerType + "!");
+            }
+        }
+        if (fields == null)
+            throw new IllegalArgumentException("Arrow stream does not contain a schema!");
+
+        DataFrame data = new DataFrame();
+        for (int i = 0; i < fields.size(); i++) {
+            List<Column> chunks = new ArrayList<>(batches.size());
+            for (List<Column> batch : batches) chunks.add(batch.get(i));
+            data.addColumn(fields.get(i).name, concat(chunks, fields.get(i).dataType));
+        }
+        return data;
+    }
+
+    public static DataFrame read(byte[] bytes) {
+        try {
+            return read(new ByteArrayInputStream(bytes));
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Arrow stream is truncated!");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class Field {
+        private final String name;
+        private final int type;
+        // Bit width (Int), precision (FloatingPoint) or unit (Date, Timestamp)
+        private final int parameter;
+        private final boolean signed;
+        private final DataType dataType;
+
+        private Field(String name, int type, int parameter, boolean signed, DataType dataType) {
+            this.name = name;
+            this.type = type;
+            this.parameter = parameter;
+            this.signed = signed;
+            this.dataType = dataType;
+        }
+    }
+
+    private static List<Field> readSchema(FlatBuffer.Reader reader, int schema) {
+        if (reader.getShort(schema, 0, 0) != 0)
+            throw new IllegalArgumentException("Big endian Arrow streams are not supported!");
+        int vector = reader.getNode(schema, 1);
+        List<Field> fields = new ArrayList<>();
+        for (int i = 0; i < reader.vectorLength(vector); i++) {
+            int field = reader.vectorTable(vector, i);
+            String name = reader.getString(field, 0);
+            int type = reader.getByte(field, 2, 0);
+            int typeTable = reader.getNode(field, 3);
+            if (reader.getNode(field, 4) >= 0)
+                throw new IllegalArgumentException("Dictionary encoded Arrow column '" + name + "' is not supported!");
+            switch (type) {
+                case TYPE_INT:
+                    int bitWidth = reader.getInt(typeTable, 0, 0);
+                    fields.add(new Field(name, type, bitWidth, reader.getByte(typeTable, 1, 0) != 0, DataType.Numeric));
+                    break;
+                case TYPE_FLOATING_POINT:
+                    int precision = reader.getShort(typeTable, 0, 0);
+                    if (precision != PRECISION_SINGLE && precision != PRECISION_DOUBLE)
+                        throw new IllegalArgumentException("Half precision Arrow column '" + name + "' is not supported!");
+                    fields.add(new Field(name, type, precision, true, DataType.Numeric));
+                    break;
+                case TYPE_UTF8:
+                case TYPE_LARGE_UTF8:
+                    fields.add(new Field(name, type, 0, false, DataType.String));
+                    break;
+                case TYPE_BOOL:
+                    fields.add(new Field(name, type, 0, false, DataType.Boolean));
+                    break;
+                case TYPE_DATE:
+                    fields.add(new Field(name, type, reader.getShort(typeTable, 0, UNIT_MILLISECOND), true,
+                            DataType.DateTime));
+                    break;
+                case TYPE_TIMESTAMP:
+                    fields.add(new Field(name, type, reader.getShort(typeTable, 0, 0), true, DataType.DateTime));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Arrow column '" + name + "' has an unsupported type (" +
+                            type + ")!");
+            }
+        }
+        return fields;
+    }
+
+    private static List<Column> readRecordBatch(FlatBuffer.Reader reader, int batch, List<Field> fields, byte[] body) {
+        if (reader.getNode(batch, 3) >= 0)
+            throw new IllegalArgumentException("Compressed Arrow streams are not supported!");
+        int length = Math.toIntExact(reader.getLong(batch, 0, 0));
+        int nodes = reader.getNode(batch, 1);
+        int buffers = reader.getNode(batch, 2);
+        ByteBuffer data = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+
+        List<Column> columns = new ArrayList<>(fields.size());
+        int b = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            Field field = fields.get(i);
+            if (reader.vectorStructLong(nodes, i, 2, 0) != length)
+                throw new IllegalArgumentException("Arrow column '" + field.name + "' has an unexpected length!");
+            int validityOffset = (int) reader.vectorStructLong(buffers, b, 2, 0);
+            int validityLength = (int) reader.vectorStructLong(buffers, b, 2, 1);
+            int valuesOffset = (int) reader.vectorStructLong(buffers, b + 1, 2, 0);
+            b += 2;
+
+            SparseBitSet missing = new SparseBitSet(length);
+            if (validityLength > 0) {
+                for (int j = 0; j < length; j++) {
+                    if ((body[validityOffset + (j >> 3)] & (1 << (j & 7))) == 0) missing.set(j);
+                }
+            }
+
+            Object values;
+            switch (field.type) {
+                case TYPE_INT: {
+                    double[] numbers = new double[length];
+                    for (int j = 0; j < length; j++) {
+                        numbers[j] = getInteger(data, valuesOffset, j, field.parameter, field.signed);
+                    }
+                    values = numbers;
+                    break;
+                }
+                case TYPE_FLOATING_POINT: {
+                    double[] numbers = new double[length];
+                    for (int j = 0; j < length; j++) {
+                        numbers[j] = field.parameter == PRECISION_DOUBLE ? data.getDouble(valuesOffset + 8 * j) :
+                                data.getFloat(valuesOffset + 4 * j);
+                    }
+                    values = numbers;
+                    break;
+                }
+                case TYPE_UTF8:
+                case TYPE_LARGE_UTF8: {
+                    boolean large = field.type == TYPE_LARGE_UTF8;
+                    int dataOffset = (int) reader.vectorStructLong(buffers, b, 2, 0);
+                    b++;
+                    String[] strings = new String[length];
+                    for (int j = 0; j < length; j++) {
+                        if (missing.get(j)) continue;
+                        int start = (int) (large ? data.getLong(valuesOffset + 8 * j) : data.getInt(valuesOffset + 4 * j));
+                        int end = (int) (large ? data.getLong(valuesOffset + 8 * (j + 1)) :
+                                data.getInt(valuesOffset + 4 * (j + 1)));
+                        strings[j] = new String(body, dataOffset + start, end - start, StandardCharsets.UTF_8);
+                    }
+                    values = strings;
+                    break;
+                }
+                case TYPE_BOOL: {
+                    boolean[] booleans = new boolean[length];
+                    for (int j = 0; j < length; j++) {
+                        booleans[j] = (body[valuesOffset + (j >> 3)] & (1 << (j & 7))) != 0;
+                    }
+                    values = booleans;
+                    break;
+                }
+                case TYPE_DATE: {
+                    long[] dates = new long[length];
+                    for (int j = 0; j < length; j++) {
+                        dates[j] = field.parameter == UNIT_MILLISECOND ? data.getLong(valuesOffset + 8 * j) :
+                                data.getInt(valuesOffset + 4 * j) * 86400000L;
+                    }
+                    values = dates;
+                    break;
+                }
+                default: {
+                    long[] dates = new long[length];
+                    for (int j = 0; j < length; j++) {
+                        dates[j] = toMillis(data.getLong(valuesOffset + 8 * j), field.parameter);
+                    }
+                    values = dates;
+                }
+            }
+            columns.add(new Column(values, length, missing, field.dataType));
+        }
+        return columns;
+    }
+
+    private static double getInteger(ByteBuffer data, int offset, int j, int bitWidth, boolean signed) {
+        switch (bitWidth) {
+            case 8:
+                byte b = data.get(offset + j);
+                return signed ? b : b & 0xFF;
+            case 16:
+                short s = data.getShort(offset + 2 * j);
+                return signed ? s : s & 0xFFFF;
+            case 32:
+                int i = data.getInt(offset + 4 * j);
+                return signed ? i : i & 0xFFFFFFFFL;
+            case 64:
+                long l = data.getLong(offset + 8 * j);
+                return signed || l >= 0 ? l : (double) (l >>> 1) * 2.0 + (l & 1);
+            default:
+                throw new IllegalArgumentException("Unsupported integer bit width " + bitWidth + "!");
+        }
+    }
+
+    private static long toMillis(long value, int unit) {
+        switch (unit) {
+            case 0:
+                return value * 1000;
+            case UNIT_MILLISECOND:
+                return value;
+            case 2:
+                return Math.floorDiv(value, 1000L);
+            default:
+                return Math.floorDiv(value, 1000000L);
+        }
+    }
+
+    private static Column concat(List<Column> chunks, DataType type) {
+        if (chunks.size() == 1) return chunks.get(0);
+
+        int size = 0;
+        for (Column chunk : chunks) size += chunk.size();
+        Object values;
+        switch (type) {
+            case Boolean:
+                values = new boolean[size];
+                break;
+            case DateTime:
+                values = new long[size];
+                break;
+            case Numeric:
+                values = new double[size];
+                break;
+            default:
+                values = new String[size];
+        }
+        SparseBitSet missing = new SparseBitSet(size);
+        int offset = 0;
+        for (Column chunk : chunks) {
+            Object chunkValues = type == DataType.Boolean ? chunk.getBooleanData() :
+                    type == DataType.DateTime ? chunk.getDateTimeData() :
+                            type == DataType.Numeric ? chunk.getNumericData() : chunk.getStringData();
+            System.arraycopy(chunkValues, 0, values, offset, chunk.size());
+            SparseBitSet m = chunk.getMissing();
+            for (int j = m.nextSetBit(0); j >= 0; j = m.nextSetBit(j + 1)) missing.set(offset + j);
+            offset += chunk.size();
+        }
+        return new Column(values, size, missing, type);
+    }
+
+    private static int padded(int length) {
+        return (length + 7) / 8 * 8;
+    }
+
+    private static ByteBuffer littleEndian(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Reads a little endian int32; returns null if optional and the end of the stream has been reached
+     */
+    private static Integer readInt(DataInputStream input, boolean optional) throws IOException {
+        int first = input.read();
+        if (first < 0) {
+            if (optional) return null;
+            throw new EOFException("Unexpected end of Arrow stream");
+        }
+        byte[] rest = new byte[3];
+        input.readFully(rest);
+        return first | (rest[0] & 0xFF) << 8 | (rest[1] & 0xFF) << 16 | (rest[2] & 0xFF) << 24;
+    }
+}
@@ -20,7 +20,6 @@
 package com.miraisolutions.xlconnect.data;
 
 import com.zaxxer.sparsebits.SparseBitSet;
-import java.util.Date;
 
 public final class Column {
     private final Object data;
@@ -43,8 +42,11 @@ public final class Column {
         return (boolean[]) data;
     }
 
-    public Date[] getDateTimeData() {
-        return (Date[]) data;
+    /**
+     * @return Date/time values as milliseconds since the epoch (0 for missing values)
+     */
+    public long[] getDateTimeData() {
+        return (long[]) data;
     }
 
     public double[] getNumericData() {
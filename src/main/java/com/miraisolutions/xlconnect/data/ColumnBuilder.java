@@ -22,6 +22,9 @@ package com.miraisolutions.xlconnect.data;
 import com.miraisolutions.xlconnect.ErrorBehavior;
 import com.miraisolutions.xlconnect.Workbook;
 import com.miraisolutions.xlconnect.utils.CellUtils;
+import com.miraisolutions.xlconnect.utils.DateTimeFormatter;
+import com.miraisolutions.xlconnect.utils.DateUtils;
+import com.miraisolutions.xlconnect.utils.NumberParser;
 import com.zaxxer.sparsebits.SparseBitSet;
 import org.apache.poi.ss.usermodel.*;
 
@@ -29,15 +32,66 @@ import java.util.*;
 
 public abstract class ColumnBuilder {
 
-    // Collection to hold detected data types for each value in a column
+    // Type tag for missing values
+    private static final byte MISSING = -1;
+    private static final DataType[] TYPES = DataType.values();
+
+    // Number of values added so far
+    private int size = 0;
+    // Initial capacity
+    private final int capacity;
+
+    /* Buffered values (allocated on demand); these are kept for all values until the column type
+       is known and only for the current value (index 0) once the column type has been fixed */
+    // Detected data type (ordinal) for each value in a column (MISSING for missing values)
     // --> will be used to determine actual final data type for column
-    protected final ArrayList<DataType> detectedTypes;
-    // Collection to hold cell references
-    protected final ArrayList<Cell> cells;
-    // Collection to hold actual values
-    protected final ArrayList<CellValue> values;
+    private byte[] detectedTypes;
+    // Numeric and date/time (Excel serial) values
+    private double[] numbers;
+    // Boolean values
+    private final BitSet booleans = new BitSet();
+    // String values
+    private String[] strings;
+    // Data format index of numeric values (used for formatting as strings)
+    private short[] formats;
+    // Row and column index of each value; the cell reference is only built in case of a warning
+    private int[] rowIndices;
+    private int[] colIndices;
+
+    // Column type specified in advance (see setColumnType); null if it is to be determined from the values
+    private DataType specifiedType = null;
+    // Number of values from which the column type is determined (see setSampleSize); 0 for all values
+    private int sampleSize = 0;
+    // Decimal separator used when converting strings to numbers (see setDecimalSeparator)
+    private char decimalSeparator = '.';
+    // Does the buffer contain non-missing values?
+    private boolean hasValues = false;
+
+    /* Column type and values decoded into that type; the type is fixed either in advance or
+       once the sample of values is complete and values are decoded directly from then on */
+    private DataType columnType = null;
+    private boolean[] booleanValues;
+    private long[] dateTimeValues;
+    private double[] numericValues;
+    private String[] stringValues;
+    private SparseBitSet missing;
+
+    // Sheet the cells belong to
+    private Sheet sheet = null;
+    // Does the workbook use the 1904 date system?
+    private boolean date1904 = false;
+    // Converter from Excel dates to epoch milliseconds; created on demand
+    private DateUtils.EpochMillisConverter dateConverter = null;
+    // Data formats by data format index, and the most recently used data format
+    private final Map<Short, DataFormatInfo> dataFormats = new HashMap<>();
+    private DataFormatInfo lastDataFormat = null;
+    // Formatter for converting numeric values to strings; created on demand
+    private DataFormatter formatter = null;
+
     // Date/time format used for conversion to and from strings
     protected final String dateTimeFormat;
+    // Conversions between date/time values and strings; deferred until the column is built
+    private final DateTimeBatch dateTimeBatch = new DateTimeBatch();
 
     // Should conversion to a less generic data type be forced?
     protected final boolean forceConversion;
@@ -48,14 +102,14 @@ public abstract class ColumnBuilder {
 
     // This is used to support the warnings mechanism on the R side
     protected final ArrayList<String> warnings = new ArrayList<>();
+    // Warnings from converting values to the column type; added to the warnings when building the column
+    private final ArrayList<String> conversionWarnings = new ArrayList<>();
 
     public ColumnBuilder(int nrows, boolean forceConversion,
                          boolean takeCached, FormulaEvaluator evaluator, ErrorBehavior onErrorCell,
                          String dateTimeFormat) {
 
-        this.detectedTypes = new ArrayList<>(nrows);
-        this.cells = new ArrayList<>(nrows);
-        this.values = new ArrayList<>(nrows);
+        this.capacity = Math.max(nrows, 1);
         this.forceConversion = forceConversion;
         this.evaluator = evaluator;
         this.takeCached = takeCached;
@@ -63,11 +117,82 @@ public abstract class ColumnBuilder {
         this.dateTimeFormat = dateTimeFormat;
     }
 
+    private void allocateBuffers(int capacity) {
+        this.detectedTypes = new byte[capacity];
+        this.numbers = new double[capacity];
+        this.strings = new String[capacity];
+        this.formats = new short[capacity];
+        this.rowIndices = new int[capacity];
+        this.colIndices = new int[capacity];
+    }
+
+    /**
+     * Specifies the column type in advance. Values are then converted to the column type as they are
+     * added instead of being buffered until the column is built. The column type is kept when clearing
+     * the column builder; null resets to determining the column type from the values.
+     */
+    public void setColumnType(DataType type) {
+        if (size > 0)
+            throw new IllegalStateException("Column type must be set before adding values!");
+        this.specifiedType = type;
+        resetColumnType();
+    }
+
+    /**
+     * Determines the column type from the first sampleSize values (or from further values as long as all of them are
+     * missing); subsequent values are converted to the column type as they are added. 0 determines the column type
+     * from all values. The sample size is kept when clearing the column builder.
+     */
+    public void setSampleSize(int sampleSize) {
+        if (sampleSize < 0)
+            throw new IllegalArgumentException("Sample size must not be negative!");
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Sets the decimal separator used for converting strings to numeric values (with forceConversion).
+     * The decimal separator is kept when clearing the column builder.
+     */
+    public void setDecimalSeparator(char decimalSeparator) {
+        this.decimalSeparator = decimalSeparator;
+    }
+
     public void clear() {
-        detectedTypes.clear();
-        cells.clear();
-        values.clear();
+        // Drop references to strings of previous values
+        if (strings != null) Arrays.fill(strings, 0, Math.min(size, strings.length), null);
+        booleans.clear();
+        size = 0;
+        hasValues = false;
         warnings.clear();
+        conversionWarnings.clear();
+        resetColumnType();
+    }
+
+    private void resetColumnType() {
+        if (columnType != null) {
+            // Buffers have been reduced to a single value
+            detectedTypes = null;
+            numbers = null;
+            strings = null;
+            formats = null;
+            rowIndices = null;
+            colIndices = null;
+        }
+        columnType = null;
+        booleanValues = null;
+        dateTimeValues = null;
+        numericValues = null;
+        stringValues = null;
+        missing = null;
+        dateTimeBatch.clear();
+    }
+
+    /**
+     * @return Are values converted to the column type as they are added?
+     */
+    private boolean isDirect() {
+        if (columnType == null && specifiedType != null) fixColumnType(specifiedType);
+        return columnType != null;
     }
 
     public void addCell(Cell c) {
@@ -90,196 +215,504 @@ public abstract class ColumnBuilder {
     }
 
     protected void addMissing() {
-        // Add "missing" to collection
-        values.add(null);
-        cells.add(null);
-        // assume "smallest" data type
-        detectedTypes.add(DataType.Boolean);
+        if (isDirect()) {
+            ensureValueCapacity();
+            missing.set(size);
+            ++size;
+            return;
+        }
+        ensureCapacity();
+        // Add "missing"; this will be treated as the "smallest" data type
+        detectedTypes[size] = MISSING;
+        strings[size] = null;
+        ++size;
+        checkSample();
     }
 
     protected void addValue(Cell c, CellValue cv, DataType dt) {
-        cells.add(c);
-        values.add(cv);
-        detectedTypes.add(dt);
+        if (sheet == null) {
+            sheet = c.getSheet();
+            date1904 = CellUtils.isDate1904(sheet.getWorkbook());
+        }
+        if (isDirect()) {
+            // Buffer the value at index 0 and convert it right away
+            bufferValue(0, c, cv, dt);
+            ensureValueCapacity();
+            convert(columnType, 0, size);
+            strings[0] = null;
+            ++size;
+            return;
+        }
+        ensureCapacity();
+        bufferValue(size, c, cv, dt);
+        ++size;
+        hasValues = true;
+        checkSample();
     }
 
-    public Column buildBooleanColumn() {
-        int size = values.size();
-        boolean[] colValues = new boolean[size];
-        SparseBitSet missing = new SparseBitSet(size);
-
-        int counter = 0;
-        for (CellValue cv : values) {
-            if (cv == null) {
-                missing.set(counter);
-            } else {
-                switch (detectedTypes.get(counter)) {
-                    case Boolean:
-                        colValues[counter] = cv.getBooleanValue();
-                        break;
-                    case Numeric:
-                        colValues[counter] = forceConversion && cv.getNumberValue() > 0;
-                        missing.set(counter, !forceConversion);
-                        break;
-                    case String:
-                        colValues[counter] = forceConversion && Boolean.parseBoolean(cv.getStringValue().toLowerCase());
-                        missing.set(counter, !forceConversion);
-                        break;
-                    case DateTime:
-                        missing.set(counter);
-                        this.warnings.add("Cell " + CellUtils.formatAsString(cells.get(counter)) + " cannot be converted from DateTime to Boolean - returning NA");
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unknown data type detected!");
+    private void bufferValue(int i, Cell c, CellValue cv, DataType dt) {
+        rowIndices[i] = c.getRowIndex();
+        colIndices[i] = c.getColumnIndex();
+        strings[i] = null;
+        switch (dt) {
+            case Boolean:
+                booleans.set(i, cv.getBooleanValue());
+                break;
+            case Numeric:
+                formats[i] = getDataFormat(c.getCellStyle()).index;
+                numbers[i] = cv.getNumberValue();
+                break;
+            case DateTime:
+                numbers[i] = cv.getNumberValue();
+                break;
+            case String:
+                strings[i] = cv.getStringValue();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown data type detected!");
+        }
+        detectedTypes[i] = (byte) dt.ordinal();
+    }
+
+    private void ensureCapacity() {
+        if (detectedTypes == null) {
+            allocateBuffers(capacity);
+        } else if (size == detectedTypes.length) {
+            int capacity = size * 2;
+            detectedTypes = Arrays.copyOf(detectedTypes, capacity);
+            numbers = Arrays.copyOf(numbers, capacity);
+            strings = Arrays.copyOf(strings, capacity);
+            formats = Arrays.copyOf(formats, capacity);
+            rowIndices = Arrays.copyOf(rowIndices, capacity);
+            colIndices = Arrays.copyOf(colIndices, capacity);
+        }
+    }
+
+    /**
+     * Fixes the column type once the sample of values is complete
+     */
+    private void checkSample() {
+        if (sampleSize > 0 && size >= sampleSize && hasValues) {
+            fixColumnType(determineColumnType());
+        }
+    }
+
+    /**
+     * Fixes the column type: converts the values buffered so far and reduces the buffers to a single value
+     */
+    private void fixColumnType(DataType type) {
+        allocateValues(type, Math.max(capacity, size));
+        columnType = type;
+        for (int i = 0; i < size; i++) {
+            convert(type, i, i);
+        }
+        allocateBuffers(1);
+        booleans.clear();
+    }
+
+    private void allocateValues(DataType type, int n) {
+        missing = new SparseBitSet(n);
+        switch (type) {
+            case Boolean:
+                booleanValues = new boolean[n];
+                break;
+            case DateTime:
+                dateTimeValues = new long[n];
+                break;
+            case Numeric:
+                numericValues = new double[n];
+                break;
+            case String:
+                stringValues = new String[n];
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown data type detected!");
+        }
+    }
+
+    private void ensureValueCapacity() {
+        int length;
+        switch (columnType) {
+            case Boolean:
+                length = booleanValues.length;
+                if (size == length) booleanValues = Arrays.copyOf(booleanValues, 2 * length);
+                break;
+            case DateTime:
+                length = dateTimeValues.length;
+                if (size == length) dateTimeValues = Arrays.copyOf(dateTimeValues, 2 * length);
+                break;
+            case Numeric:
+                length = numericValues.length;
+                if (size == length) numericValues = Arrays.copyOf(numericValues, 2 * length);
+                break;
+            default:
+                length = stringValues.length;
+                if (size == length) stringValues = Arrays.copyOf(stringValues, 2 * length);
+        }
+    }
+
+    /**
+     * Data format string of a data format index and whether it is a date format
+     */
+    private static final class DataFormatInfo {
+        private final short index;
+        private final String formatString;
+        private final boolean date;
+
+        private DataFormatInfo(short index, String formatString) {
+            this.index = index;
+            this.formatString = formatString;
+            this.date = DateUtil.isADateFormat(index, formatString);
+        }
+    }
+
+    private DataFormatInfo getDataFormat(CellStyle style) {
+        short index = style.getDataFormat();
+        if (lastDataFormat == null || lastDataFormat.index != index) {
+            lastDataFormat = dataFormats.computeIfAbsent(index, k -> new DataFormatInfo(k, style.getDataFormatString()));
+        }
+        return lastDataFormat;
+    }
+
+    /**
+     * Checks whether a numeric cell is date formatted (see DateUtil.isCellDateFormatted); whether
+     * data formats are date formats is cached by data format index
+     */
+    protected boolean isCellDateFormatted(Cell c) {
+        if (!DateUtil.isValidExcelDate(c.getNumericCellValue())) return false;
+        CellStyle style = c.getCellStyle();
+        return style != null && getDataFormat(style).date;
+    }
+
+    private String cellReference(int i) {
+        return CellUtils.formatAsString(sheet, rowIndices[i], colIndices[i]);
+    }
+
+    /**
+     * Converts buffered value i to the column type and stores it at index j of the column values
+     */
+    private void convert(DataType type, int i, int j) {
+        if (detectedTypes[i] == MISSING) {
+            missing.set(j);
+            return;
+        }
+        switch (type) {
+            case Boolean:
+                toBoolean(i, j);
+                break;
+            case DateTime:
+                toDateTime(i, j);
+                break;
+            case Numeric:
+                toNumeric(i, j);
+                break;
+            default:
+                toString(i, j);
+        }
+    }
+
+    private void toBoolean(int i, int j) {
+        switch (TYPES[detectedTypes[i]]) {
+            case Boolean:
+                booleanValues[j] = booleans.get(i);
+                break;
+            case Numeric:
+                if (forceConversion) {
+                    booleanValues[j] = numbers[i] > 0;
+                } else {
+                    notConverted(i, j, DataType.Numeric);
                 }
-            }
-            ++counter;
+                break;
+            case String:
+                if (forceConversion) {
+                    booleanValues[j] = "true".equalsIgnoreCase(strings[i]);
+                } else {
+                    notConverted(i, j, DataType.String);
+                }
+                break;
+            case DateTime:
+                missing.set(j);
+                conversionWarnings.add("Cell " + cellReference(i) + " cannot be converted from DateTime to Boolean - returning NA");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown data type detected!");
         }
-        return new Column(colValues, size, missing, DataType.Boolean);
     }
 
-    public Column buildDateTimeColumn() {
-        int size = values.size();
-        Date[] colValues = new Date[size];
-        SparseBitSet missing = new SparseBitSet(size);
-
-        Iterator<CellValue> it = values.iterator();
-        Iterator<Cell> jt = cells.iterator();
-        int counter = 0;
-        while (it.hasNext()) {
-            CellValue cv = it.next();
-            Cell cell = jt.next();
-            if (cv == null) {
-                missing.set(counter);
-            } else {
-                switch (detectedTypes.get(counter)) {
-                    case Boolean:
-                        missing.set(counter);
-                        this.warnings.add("Cell " + CellUtils.formatAsString(cells.get(counter)) + " cannot be converted from Boolean to DateTime - returning NA");
-                        break;
-                    case Numeric:
-                        if (forceConversion) {
-                            if (DateUtil.isValidExcelDate(cv.getNumberValue())) {
-                                colValues[counter] = cell.getDateCellValue();
-                            } else {
-                                missing.set(counter);
-                                this.warnings.add("Cell " + CellUtils.formatAsString(cells.get(counter)) + " cannot be converted from Numeric to DateTime - returning NA");
-                            }
-                        } else {
-                            missing.set(counter);
-                        }
-                        break;
-                    case String:
-                        if (forceConversion) {
-                            try {
-                                colValues[counter] = Workbook.dateTimeFormatter.parse(cv.getStringValue(), dateTimeFormat);
-                            } catch (Exception e) {
-                                missing.set(counter);
-                                this.warnings.add("Cell " + CellUtils.formatAsString(cells.get(counter)) + " cannot be converted from " +
-                                        "String to DateTime - returning NA - cause: " + e.getClass() + ":" + e.getMessage());
-                            }
-                        } else {
-                            missing.set(counter);
-                        }
-                        break;
-                    case DateTime:
-                        colValues[counter] = cell.getDateCellValue();
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unknown data type detected!");
+    private void toDateTime(int i, int j) {
+        switch (TYPES[detectedTypes[i]]) {
+            case Boolean:
+                missing.set(j);
+                conversionWarnings.add("Cell " + cellReference(i) + " cannot be converted from Boolean to DateTime - returning NA");
+                break;
+            case Numeric:
+                if (forceConversion) {
+                    dateTimeValues[j] = getDateConverter().convert(numbers[i]);
+                    if (!DateUtil.isValidExcelDate(numbers[i])) {
+                        missing.set(j);
+                        conversionWarnings.add("Cell " + cellReference(i) + " cannot be converted from Numeric to DateTime - returning NA");
+                    }
+                } else {
+                    notConverted(i, j, DataType.Numeric);
                 }
-            }
-            ++counter;
+                break;
+            case String:
+                if (forceConversion) {
+                    dateTimeBatch.addString(i, j);
+                } else {
+                    notConverted(i, j, DataType.String);
+                }
+                break;
+            case DateTime:
+                dateTimeValues[j] = getDateConverter().convert(numbers[i]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown data type detected!");
         }
-        return new Column(colValues, size, missing, DataType.DateTime);
     }
 
-    public Column buildNumericColumn() {
-        int size = values.size();
-        double[] colValues = new double[size];
-        SparseBitSet missing = new SparseBitSet(size);
-
-        int counter = 0;
-        for (CellValue cv : values) {
-            if (cv == null) {
-                missing.set(counter);
-            } else {
-                switch (detectedTypes.get(counter)) {
-                    case Boolean:
-                        colValues[counter] = cv.getBooleanValue() ? 1.0 : 0.0;
-                        break;
-                    case Numeric:
-                        colValues[counter] = cv.getNumberValue();
-                        break;
-                    case String:
-                        if (forceConversion) {
-                            try {
-                                colValues[counter] = Double.parseDouble(cv.getStringValue());
-                            } catch (NumberFormatException e) {
-                                missing.set(counter);
-                                this.warnings.add("Cell " + CellUtils.formatAsString(cells.get(counter)) +
-                                        " cannot be converted from String to Numeric - returning NA");
-                            }
-                        } else {
-                            missing.set(counter);
-                        }
-                        break;
-                    case DateTime:
-                        if (forceConversion) {
-                            colValues[counter] = cv.getNumberValue();
-                        } else {
-                            missing.set(counter);
-                        }
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unknown data type detected!");
+    private void toNumeric(int i, int j) {
+        switch (TYPES[detectedTypes[i]]) {
+            case Boolean:
+                numericValues[j] = booleans.get(i) ? 1.0 : 0.0;
+                break;
+            case Numeric:
+                numericValues[j] = numbers[i];
+                break;
+            case String:
+                if (forceConversion) {
+                    double value = NumberParser.parseDouble(strings[i], decimalSeparator);
+                    if (!Double.isNaN(value) || NumberParser.isNaN(strings[i])) {
+                        numericValues[j] = value;
+                    } else {
+                        missing.set(j);
+                        conversionWarnings.add("Cell " + cellReference(i) +
+                                " cannot be converted from String to Numeric - returning NA");
+                    }
+                } else {
+                    notConverted(i, j, DataType.String);
                 }
-            }
-            ++counter;
+                break;
+            case DateTime:
+                if (forceConversion) {
+                    numericValues[j] = numbers[i];
+                } else {
+                    notConverted(i, j, DataType.DateTime);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown data type detected!");
         }
-        return new Column(colValues, size, missing, DataType.Numeric);
     }
 
-    public Column buildStringColumn() {
-        int size = values.size();
-        String[] colValues = new String[size];
-        SparseBitSet missing = new SparseBitSet(size);
-
-        Iterator<CellValue> it = values.iterator();
-        Iterator<Cell> jt = cells.iterator();
-        DataFormatter fmt = new DataFormatter();
-        int counter = 0;
-        while (it.hasNext()) {
-            CellValue cv = it.next();
-            Cell cell = jt.next();
-            if (cv == null) {
-                missing.set(counter);
+    private void toString(int i, int j) {
+        switch (TYPES[detectedTypes[i]]) {
+            case Boolean:
+                stringValues[j] = booleans.get(i) ? "true" : "false";
+                break;
+            case Numeric:
+                // format according to Excel format
+                // see also org.apache.poi.ss.usermodel.DataFormatter#formatRawCellContents
+                if (formatter == null) formatter = new DataFormatter();
+                stringValues[j] = formatter.formatRawCellContents(numbers[i], formats[i],
+                        dataFormats.get(formats[i]).formatString);
+                break;
+            case DateTime:
+                // format according to dateTimeFormatter
+                dateTimeBatch.addMillis(j, getDateConverter().convert(numbers[i]));
+                break;
+            case String:
+                stringValues[j] = strings[i];
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown data type detected!");
+        }
+    }
+
+    /**
+     * Sets value j to missing as value i cannot be converted to the column type without forceConversion.
+     * This is silent for specified column types, but warns if the column type has been inferred from a
+     * sample of values and the value would have widened the column type when inferring it from all values.
+     */
+    private void notConverted(int i, int j, DataType from) {
+        missing.set(j);
+        if (specifiedType == null && columnType != null && from.ordinal() > columnType.ordinal()) {
+            conversionWarnings.add("Cell " + cellReference(i) + " cannot be converted from " + from + " to " +
+                    columnType + " - returning NA - column type has been inferred from the first " +
+                    sampleSize + " values");
+        }
+    }
+
+    /**
+     * Date/time values to be formatted as strings or strings to be parsed as date/time values. These are
+     * collected while converting values such that the date/time formatter processes the column at once.
+     */
+    private final class DateTimeBatch {
+        private int n = 0;
+        // Are date/time values formatted (rather than strings parsed)?
+        private boolean formatting;
+        // Index of the column value to set
+        private int[] targets;
+        // Epoch milliseconds to format (DateTime to String)
+        private long[] millis;
+        // Strings to parse (String to DateTime) with their cell position and the position of
+        // a potential warning among the conversion warnings
+        private String[] strings;
+        private int[] rows;
+        private int[] cols;
+        private int[] warningPositions;
+
+        void addMillis(int j, long value) {
+            grow();
+            if (millis == null) millis = new long[targets.length];
+            formatting = true;
+            targets[n] = j;
+            millis[n++] = value;
+        }
+
+        void addString(int i, int j) {
+            grow();
+            if (strings == null) {
+                strings = new String[targets.length];
+                rows = new int[targets.length];
+                cols = new int[targets.length];
+                warningPositions = new int[targets.length];
+            }
+            formatting = false;
+            targets[n] = j;
+            strings[n] = ColumnBuilder.this.strings[i];
+            rows[n] = rowIndices[i];
+            cols[n] = colIndices[i];
+            warningPositions[n++] = conversionWarnings.size();
+        }
+
+        private void grow() {
+            if (targets == null) {
+                targets = new int[Math.min(capacity, 1024)];
+            } else if (n == targets.length) {
+                int length = 2 * n;
+                targets = Arrays.copyOf(targets, length);
+                if (millis != null) millis = Arrays.copyOf(millis, length);
+                if (strings != null) {
+                    strings = Arrays.copyOf(strings, length);
+                    rows = Arrays.copyOf(rows, length);
+                    cols = Arrays.copyOf(cols, length);
+                    warningPositions = Arrays.copyOf(warningPositions, length);
+                }
+            }
+        }
+
+        void flush() {
+            if (n == 0) return;
+            if (formatting) {
+                String[] formatted = Workbook.dateTimeFormatter.format(Arrays.copyOf(millis, n), dateTimeFormat);
+                for (int k = 0; k < n; k++) {
+                    stringValues[targets[k]] = formatted[k];
+                }
             } else {
-                switch (detectedTypes.get(counter)) {
-                    case Boolean:
-                        colValues[counter] = cv.getBooleanValue() ? "true" : "false";
-                        break;
-                    case Numeric:
-                        // format according to Excel format
-                        // see also org.apache.poi.ss.usermodel.DataFormatter#formatRawCellContents
-                        int formatIndex = cell.getCellStyle().getDataFormat();
-                        String formatStr = cell.getCellStyle().getDataFormatString();
-                        colValues[counter] = fmt.formatRawCellContents(cv.getNumberValue(), formatIndex, formatStr);
-                        break;
-                    case DateTime:
-                        // format according to dateTimeFormatter
-                        colValues[counter] = Workbook.dateTimeFormatter.format(cell.getDateCellValue(), dateTimeFormat);
-                        break;
-                    case String:
-                        colValues[counter] = cv.getStringValue();
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unknown data type detected!");
+                long[] parsed;
+                String cause = "";
+                try {
+                    parsed = Workbook.dateTimeFormatter.parse(Arrays.copyOf(strings, n), dateTimeFormat);
+                } catch (Exception e) {
+                    // Unsupported date/time format
+                    parsed = null;
+                    cause = " - cause: " + e.getClass() + ":" + e.getMessage();
+                }
+                // Merge warnings for strings which cannot be parsed into the conversion warnings in cell order
+                ArrayList<String> merged = null;
+                int next = 0;
+                for (int k = 0; k < n; k++) {
+                    if (parsed != null && parsed[k] != DateTimeFormatter.INVALID) {
+                        dateTimeValues[targets[k]] = parsed[k];
+                        continue;
+                    }
+                    missing.set(targets[k]);
+                    if (merged == null) merged = new ArrayList<>(conversionWarnings.size() + n - k);
+                    merged.addAll(conversionWarnings.subList(next, warningPositions[k]));
+                    next = warningPositions[k];
+                    merged.add("Cell " + CellUtils.formatAsString(sheet, rows[k], cols[k]) +
+                            " cannot be converted from String to DateTime - returning NA" + cause);
                 }
+                if (merged != null) {
+                    merged.addAll(conversionWarnings.subList(next, conversionWarnings.size()));
+                    conversionWarnings.clear();
+                    conversionWarnings.addAll(merged);
+                }
+            }
+            clear();
+        }
+
+        void clear() {
+            if (strings != null) Arrays.fill(strings, 0, n, null);
+            n = 0;
+        }
+    }
+
+    private DateUtils.EpochMillisConverter getDateConverter() {
+        if (dateConverter == null) dateConverter = new DateUtils.EpochMillisConverter(date1904);
+        return dateConverter;
+    }
+
+    /**
+     * Builds the column of the specified type. If the column type has already been fixed,
+     * it must be the specified type.
+     */
+    private Column buildColumn(DataType type) {
+        if (columnType != null && columnType != type)
+            throw new IllegalStateException("Column type has already been determined as " + columnType + "!");
+
+        boolean buffered = columnType == null;
+        if (buffered) {
+            // Convert the buffered values; these are kept such that the column can be built again
+            allocateValues(type, size);
+            for (int i = 0; i < size; i++) {
+                convert(type, i, i);
             }
-            ++counter;
         }
-        return new Column(colValues, size, missing, DataType.String);
+        dateTimeBatch.flush();
+        // Values converted on the fly have been allocated with some spare capacity
+        Object values;
+        switch (type) {
+            case Boolean:
+                values = booleanValues.length == size ? booleanValues : Arrays.copyOf(booleanValues, size);
+                break;
+            case DateTime:
+                values = dateTimeValues.length == size ? dateTimeValues : Arrays.copyOf(dateTimeValues, size);
+                break;
+            case Numeric:
+                values = numericValues.length == size ? numericValues : Arrays.copyOf(numericValues, size);
+                break;
+            default:
+                values = stringValues.length == size ? stringValues : Arrays.copyOf(stringValues, size);
+        }
+        Column column = new Column(values, size, buffered ? missing : missing.clone(), type);
+        warnings.addAll(conversionWarnings);
+        conversionWarnings.clear();
+        if (buffered) {
+            booleanValues = null;
+            dateTimeValues = null;
+            numericValues = null;
+            stringValues = null;
+            missing = null;
+        }
+        return column;
+    }
+
+    public Column buildBooleanColumn() {
+        return buildColumn(DataType.Boolean);
+    }
+
+    public Column buildDateTimeColumn() {
+        return buildColumn(DataType.DateTime);
+    }
+
+    public Column buildNumericColumn() {
+        return buildColumn(DataType.Numeric);
+    }
+
+    public Column buildStringColumn() {
+        return buildColumn(DataType.String);
     }
 
     protected void cellError(String msg) {
@@ -292,19 +725,20 @@ public abstract class ColumnBuilder {
     }
 
     public DataType determineColumnType() {
-        DataType columnType = DataType.Boolean;
-        // Iterate over cell types; as soon as String is detecte we can stop
-        Iterator<DataType> it = detectedTypes.iterator();
-        while (it.hasNext() && !columnType.equals(DataType.String)) {
-            DataType dt = it.next();
+        if (columnType != null) return columnType;
+        if (specifiedType != null) return specifiedType;
+        int columnType = DataType.Boolean.ordinal();
+        int stringType = DataType.String.ordinal();
+        // Iterate over cell types; as soon as String is detected we can stop
+        for (int i = 0; i < size && columnType != stringType; i++) {
             // In case current data type ordinal is bigger than column data type ordinal
             // then adapt column data type to be current data type;
             // this assumes DataType enum to in order from "smallest" to "biggest" data type
-            if (dt.ordinal() > columnType.ordinal()) {
-                columnType = dt;
+            if (detectedTypes[i] > columnType) {
+                columnType = detectedTypes[i];
             }
         }
-        return columnType;
+        return TYPES[columnType];
     }
 
     // extracts the cached value from a cell without re-evaluating
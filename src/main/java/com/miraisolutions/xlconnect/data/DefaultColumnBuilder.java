@@ -24,34 +24,19 @@ import com.miraisolutions.xlconnect.ErrorBehavior;
 import com.miraisolutions.xlconnect.utils.CellUtils;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.CellValue;
-import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
 
 public final class DefaultColumnBuilder extends ColumnBuilder {
 
-    // The following split is done for performance reasons
-    private final List<Object> missingValueStrings;
-    private final List<Object> missingValueNumbers;
+    private final MissingValues missingValues;
 
     public DefaultColumnBuilder(int nrows, boolean forceConversion,
                                 boolean takeCached, FormulaEvaluator evaluator, ErrorBehavior onErrorCell,
-                                Object[] missingValue, String dateTimeFormat) {
+                                MissingValues missingValues, String dateTimeFormat) {
 
         super(nrows, forceConversion, takeCached, evaluator, onErrorCell, dateTimeFormat);
-
-        // Split missing values into missing values for strings and doubles
-        // (for better performance later on)
-        Map<Boolean, List<Object>> partitioned = Arrays.stream(missingValue)
-                .collect(Collectors.partitioningBy(o -> o instanceof String));
-
-        missingValueStrings = partitioned.get(true);
-        missingValueNumbers = partitioned.get(false);
+        this.missingValues = missingValues;
     }
 
     @Override
@@ -65,11 +50,11 @@ public final class DefaultColumnBuilder extends ColumnBuilder {
                 addValue(c, cv, DataType.Boolean);
                 break;
             case NUMERIC:
-                if (DateUtil.isCellDateFormatted(c))
+                if (isCellDateFormatted(c))
                     addValue(c, cv, DataType.DateTime);
                 else {
                     double value = cv.getNumberValue();
-                    if (missingValueNumbers.contains(value))
+                    if (missingValues.isMissing(value))
                         addMissing();
                     else
                         addValue(c, cv, DataType.Numeric);
@@ -77,7 +62,7 @@ public final class DefaultColumnBuilder extends ColumnBuilder {
                 break;
             case STRING:
                 String value = cv.getStringValue();
-                if ((value == null) || missingValueStrings.contains(value))
+                if ((value == null) || missingValues.isMissing(value))
                     addMissing();
                 else
                     addValue(c, cv, DataType.String);
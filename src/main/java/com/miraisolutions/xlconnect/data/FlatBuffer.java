@@ -0,0 +1,351 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.data;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Minimal support for writing and reading <a href="https://flatbuffers.dev/">FlatBuffers</a> as used
+ * by the Arrow IPC format (tables, strings, vectors of tables and vectors of structs of longs).
+ * Objects are written front to back, with parents preceding their children.
+ */
+final class FlatBuffer {
+
+    private FlatBuffer() {
+    }
+
+    /**
+     * @return The serialized flatbuffer with the specified root table
+     */
+    static byte[] finish(Node root) {
+        Output out = new Output();
+        out.putInt(0);
+        int rootPos = root.write(out);
+        out.patchInt(0, rootPos);
+        return out.toByteArray();
+    }
+
+    abstract static class Node {
+        abstract int write(Output out);
+    }
+
+    static final class Table extends Node {
+
+        private static final class Field {
+            private final int slot;
+            private final int size;
+            private final long value;
+            private final Node child;
+
+            private Field(int slot, int size, long value, Node child) {
+                this.slot = slot;
+                this.size = size;
+                this.value = value;
+                this.child = child;
+            }
+        }
+
+        private final List<Field> fields = new ArrayList<>();
+
+        Table addByte(int slot, int value) {
+            fields.add(new Field(slot, 1, value, null));
+            return this;
+        }
+
+        Table addShort(int slot, int value) {
+            fields.add(new Field(slot, 2, value, null));
+            return this;
+        }
+
+        Table addInt(int slot, int value) {
+            fields.add(new Field(slot, 4, value, null));
+            return this;
+        }
+
+        Table addLong(int slot, long value) {
+            fields.add(new Field(slot, 8, value, null));
+            return this;
+        }
+
+        Table addNode(int slot, Node child) {
+            fields.add(new Field(slot, 4, 0, child));
+            return this;
+        }
+
+        int write(Output out) {
+            // Lay out fields by decreasing size such that they are naturally aligned
+            List<Field> layout = new ArrayList<>(fields);
+            layout.sort(Comparator.comparingInt((Field f) -> f.size).reversed());
+            int slots = 0;
+            for (Field f : fields) slots = Math.max(slots, f.slot + 1);
+            int[] offsets = new int[slots];
+            int[] fieldOffsets = new int[layout.size()];
+            int size = 4;
+            for (int i = 0; i < layout.size(); i++) {
+                Field f = layout.get(i);
+                size = align(size, f.size);
+                fieldOffsets[i] = size;
+                offsets[f.slot] = size;
+                size += f.size;
+            }
+
+            // vtable
+            out.align(2);
+            int vtablePos = out.position();
+            out.putShort(4 + 2 * slots);
+            out.putShort(size);
+            for (int offset : offsets) out.putShort(offset);
+
+            // Table (aligned such that 8 byte fields are aligned)
+            out.align(layout.isEmpty() ? 4 : Math.max(4, layout.get(0).size));
+            int tablePos = out.position();
+            out.putInt(tablePos - vtablePos);
+            for (int i = 0; i < layout.size(); i++) {
+                Field f = layout.get(i);
+                out.pad(tablePos + fieldOffsets[i] - out.position());
+                out.putScalar(f.value, f.size);
+            }
+
+            // Children follow their parent (offsets are unsigned)
+            for (int i = 0; i < layout.size(); i++) {
+                Field f = layout.get(i);
+                if (f.child != null) {
+                    int fieldPos = tablePos + fieldOffsets[i];
+                    out.patchInt(fieldPos, f.child.write(out) - fieldPos);
+                }
+            }
+            return tablePos;
+        }
+    }
+
+    static final class TableVector extends Node {
+        private final List<? extends Node> elements;
+
+        TableVector(List<? extends Node> elements) {
+            this.elements = elements;
+        }
+
+        int write(Output out) {
+            out.align(4);
+            int pos = out.position();
+            out.putInt(elements.size());
+            for (int i = 0; i < elements.size(); i++) out.putInt(0);
+            for (int i = 0; i < elements.size(); i++) {
+                int elementPos = pos + 4 + 4 * i;
+                out.patchInt(elementPos, elements.get(i).write(out) - elementPos);
+            }
+            return pos;
+        }
+    }
+
+    /**
+     * Vector of structs consisting of longFields longs each
+     */
+    static final class StructVector extends Node {
+        private final long[] values;
+        private final int longFields;
+
+        StructVector(long[] values, int longFields) {
+            this.values = values;
+            this.longFields = longFields;
+        }
+
+        int write(Output out) {
+            // The elements (following the length) need to be 8 byte aligned
+            out.align(4);
+            if ((out.position() + 4) % 8 != 0) out.pad(4);
+            int pos = out.position();
+            out.putInt(values.length / longFields);
+            for (long value : values) out.putScalar(value, 8);
+            return pos;
+        }
+    }
+
+    static final class StringNode extends Node {
+        private final byte[] bytes;
+
+        StringNode(String s) {
+            this.bytes = s.getBytes(StandardCharsets.UTF_8);
+        }
+
+        int write(Output out) {
+            out.align(4);
+            int pos = out.position();
+            out.putInt(bytes.length);
+            out.put(bytes);
+            out.pad(1);
+            return pos;
+        }
+    }
+
+    private static int align(int pos, int alignment) {
+        return (pos + alignment - 1) / alignment * alignment;
+    }
+
+    static final class Output {
+        private ByteBuffer buffer = ByteBuffer.allocate(256).order(ByteOrder.LITTLE_ENDIAN);
+
+        int position() {
+            return buffer.position();
+        }
+
+        private void ensure(int n) {
+            if (buffer.remaining() < n) {
+                ByteBuffer b = ByteBuffer.allocate(Math.max(2 * buffer.capacity(), buffer.position() + n))
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                buffer.flip();
+                b.put(buffer);
+                buffer = b;
+            }
+        }
+
+        void align(int alignment) {
+            pad(FlatBuffer.align(buffer.position(), alignment) - buffer.position());
+        }
+
+        void pad(int n) {
+            ensure(n);
+            for (int i = 0; i < n; i++) buffer.put((byte) 0);
+        }
+
+        void put(byte[] bytes) {
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        void putShort(int value) {
+            putScalar(value, 2);
+        }
+
+        void putInt(int value) {
+            putScalar(value, 4);
+        }
+
+        void putScalar(long value, int size) {
+            ensure(size);
+            switch (size) {
+                case 1:
+                    buffer.put((byte) value);
+                    break;
+                case 2:
+                    buffer.putShort((short) value);
+                    break;
+                case 4:
+                    buffer.putInt((int) value);
+                    break;
+                default:
+                    buffer.putLong(value);
+            }
+        }
+
+        void patchInt(int pos, int value) {
+            buffer.putInt(pos, value);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+
+    /**
+     * Reads tables, strings and vectors from a serialized flatbuffer. Positions are absolute
+     * positions within the buffer; absent (optional) objects are represented by -1.
+     */
+    static final class Reader {
+        private final ByteBuffer buffer;
+
+        Reader(byte[] bytes) {
+            this.buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int root() {
+            return buffer.getInt(0);
+        }
+
+        private int fieldPosition(int table, int slot) {
+            int vtable = table - buffer.getInt(table);
+            int vtableSize = buffer.getShort(vtable) & 0xFFFF;
+            int entry = 4 + 2 * slot;
+            if (entry >= vtableSize) return -1;
+            int offset = buffer.getShort(vtable + entry) & 0xFFFF;
+            return offset == 0 ? -1 : table + offset;
+        }
+
+        int getByte(int table, int slot, int defaultValue) {
+            int pos = fieldPosition(table, slot);
+            return pos < 0 ? defaultValue : buffer.get(pos) & 0xFF;
+        }
+
+        int getShort(int table, int slot, int defaultValue) {
+            int pos = fieldPosition(table, slot);
+            return pos < 0 ? defaultValue : buffer.getShort(pos);
+        }
+
+        int getInt(int table, int slot, int defaultValue) {
+            int pos = fieldPosition(table, slot);
+            return pos < 0 ? defaultValue : buffer.getInt(pos);
+        }
+
+        long getLong(int table, int slot, long defaultValue) {
+            int pos = fieldPosition(table, slot);
+            return pos < 0 ? defaultValue : buffer.getLong(pos);
+        }
+
+        /**
+         * @return Position of the referenced table, vector or string; -1 if absent
+         */
+        int getNode(int table, int slot) {
+            int pos = fieldPosition(table, slot);
+            return pos < 0 ? -1 : pos + buffer.getInt(pos);
+        }
+
+        String getString(int table, int slot) {
+            int pos = getNode(table, slot);
+            if (pos < 0) return null;
+            return new String(buffer.array(), pos + 4, buffer.getInt(pos), StandardCharsets.UTF_8);
+        }
+
+        int vectorLength(int vector) {
+            return vector < 0 ? 0 : buffer.getInt(vector);
+        }
+
+        /**
+         * @return Position of the i-th table of a vector of tables
+         */
+        int vectorTable(int vector, int i) {
+            int pos = vector + 4 + 4 * i;
+            return pos + buffer.getInt(pos);
+        }
+
+        /**
+         * @return The j-th long of the i-th struct of a vector of structs consisting of longFields longs
+         */
+        long vectorStructLong(int vector, int i, int longFields, int j) {
+            return buffer.getLong(vector + 4 + 8 * (longFields * i + j));
+        }
+    }
+}
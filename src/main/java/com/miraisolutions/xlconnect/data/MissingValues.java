@@ -0,0 +1,80 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.miraisolutions.xlconnect.data;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Missing value sentinels for reading data: cells whose numeric or string value matches one of them are
+ * read as missing values. Numbers are matched as by Double.equals (i.e. NaN matches NaN, 0.0 does not
+ * match -0.0) using an open addressing hash table of their bit patterns, such that lookups do not box.
+ */
+public final class MissingValues {
+
+    // Bit patterns of the numeric sentinels (open addressing, linear probing); null if there are none
+    private final long[] numbers;
+    private final boolean[] used;
+    private final Set<String> strings = new HashSet<>();
+
+    public MissingValues(Object[] values) {
+        long[] bits = Arrays.stream(values)
+                .filter(v -> v instanceof Double)
+                .mapToLong(v -> Double.doubleToLongBits((Double) v))
+                .distinct()
+                .toArray();
+        if (bits.length == 0) {
+            this.numbers = null;
+            this.used = null;
+        } else {
+            int capacity = Integer.highestOneBit(bits.length) * 4;
+            this.numbers = new long[capacity];
+            this.used = new boolean[capacity];
+            for (long b : bits) {
+                int i = slot(b);
+                while (used[i]) i = (i + 1) & (capacity - 1);
+                numbers[i] = b;
+                used[i] = true;
+            }
+        }
+        for (Object v : values) {
+            if (v instanceof String) strings.add((String) v);
+        }
+    }
+
+    private int slot(long bits) {
+        long h = bits * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (numbers.length - 1);
+    }
+
+    public boolean isMissing(double value) {
+        if (numbers == null) return false;
+        long bits = Double.doubleToLongBits(value);
+        for (int i = slot(bits); used[i]; i = (i + 1) & (numbers.length - 1)) {
+            if (numbers[i] == bits) return true;
+        }
+        return false;
+    }
+
+    public boolean isMissing(String value) {
+        return !strings.isEmpty() && strings.contains(value);
+    }
+}
@@ -21,5 +21,9 @@
 package com.miraisolutions.xlconnect.data;
 
 public enum ReadStrategy {
-    DEFAULT, FAST
+    DEFAULT, FAST,
+    /* Streams the worksheet XML instead of reading it from the workbook DOM (XLSX only). This only saves memory
+       for workbooks opened read-only, as others are loaded completely when opened. Unless the data region is
+       given explicitly, the worksheet XML is parsed twice: once to determine the region and once to read it. */
+    STREAMING
 }
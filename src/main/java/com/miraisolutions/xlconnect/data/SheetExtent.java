@@ -0,0 +1,206 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.data;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+/**
+ * Row-wise view on the non-blank cells of a worksheet. This is used to determine the bounding box
+ * of a data region independently of how the worksheet is accessed (DOM or streaming).
+ */
+public abstract class SheetExtent {
+
+    // Marker for "auto-detect" column boundaries
+    private static final int MARK = Integer.MAX_VALUE - 1;
+
+    /**
+     * @return Index of the first row in the sheet (may refer to a non-existing row for empty sheets)
+     */
+    public abstract int getFirstRowNum();
+
+    /**
+     * @return Index of the last row in the sheet (may refer to a non-existing row for empty sheets)
+     */
+    public abstract int getLastRowNum();
+
+    public abstract boolean hasRow(int rowIndex);
+
+    /**
+     * Determines the first and last column of the non-blank cells in the specified row,
+     * only considering columns between minCol and maxCol (both inclusive).
+     *
+     * @return {first, last} column index or null if there are no such cells
+     */
+    public abstract int[] getNonBlankColumns(int rowIndex, int minCol, int maxCol);
+
+    /**
+     * @return {first row, first column, last row, last column} of all non-blank cells in the sheet
+     * (all -1 if there are none), or null if these are not known without scanning the sheet
+     */
+    public int[] getNonBlankBounds() {
+        return null;
+    }
+
+    /**
+     * Determines the bounding box of a data region. Limits specified as negative integers are determined
+     * automatically; see {@link com.miraisolutions.xlconnect.Workbook#readWorksheet} for the rules.
+     * If the non-blank bounds of the sheet are known and the region contains all non-blank cells (as when
+     * reading a whole sheet), the bounding box follows from these; otherwise, the rows of the region are
+     * scanned one by one.
+     *
+     * @return {top, left, bottom, right}
+     */
+    public int[] getBoundingBox(int startRow, int startCol, int endRow, int endCol,
+                                boolean autofitRow, boolean autofitCol) {
+        if (startRow < 0) {
+            startRow = getFirstRowNum();
+            if (!hasRow(startRow)) {
+                // There is no row in this sheet
+                startRow = -1;
+            }
+        }
+
+        if (endRow < 0) {
+            // We interpret this as "all except for the last N rows"
+            // -1 => auto-detect the last row
+            // -2 => all except for the last row
+            // -3 => all except for the last 2 rows
+            // ...
+            endRow = getLastRowNum() + endRow + 1;
+            if (!hasRow(endRow)) {
+                // There is no row in this sheet
+                endRow = -1;
+            }
+        }
+
+        int minRow = startRow;
+        int maxRow = endRow;
+        int minCol = startCol;
+        int maxCol = endCol < 0 ? MARK : endCol;
+
+        int origEndCol = endCol;
+
+        startCol = startCol < 0 ? MARK : startCol;
+        endCol = endCol < 0 ? -1 : endCol;
+        boolean anyCell = false, anyLeft = false, anyRight = false;
+        int[] bounds = minRow > -1 ? getNonBlankBounds() : null;
+        if (bounds != null && (bounds[0] < 0 || minRow <= bounds[0] && maxRow >= bounds[2] &&
+                minCol <= bounds[1] && maxCol >= bounds[3])) {
+            // Same as scanning the rows below, as all non-blank cells are within the region
+            if (bounds[0] >= 0) {
+                anyCell = true;
+                if (autofitCol || minCol < 0) startCol = bounds[1];
+                if (autofitCol || maxCol == MARK) endCol = bounds[3];
+                if (autofitRow) {
+                    endRow = bounds[2];
+                    if (!hasRow(startRow)) {
+                        startRow = bounds[0];
+                    }
+                }
+            }
+        } else for (int i = minRow; i > -1 && i <= maxRow; i++) {
+            int[] cols = getNonBlankColumns(i, minCol, maxCol);
+            if (cols != null) {
+                anyCell = true;
+                if ((autofitCol || minCol < 0) && (!anyLeft || cols[0] < startCol)) {
+                    startCol = cols[0];
+                    anyLeft = true;
+                }
+                if ((autofitCol || maxCol == MARK) && (!anyRight || cols[1] > endCol)) {
+                    endCol = cols[1];
+                    anyRight = true;
+                }
+                if (autofitRow) {
+                    endRow = i;
+                    if (!hasRow(startRow)) {
+                        startRow = i;
+                    }
+                }
+            }
+        }
+
+        if ((autofitRow || startRow < 0) && !anyCell) {
+            startRow = endRow = -1;
+        }
+        if ((autofitCol || startCol == MARK) && !anyCell) {
+            startCol = endCol = -1;
+        }
+
+        if (origEndCol < 0) {
+            // We interpret this as "all except for the last N columns"
+            // -1 => auto-detect the last column
+            // -2 => all except for the last column
+            // -3 => all except for the last 2 columns
+            // ...
+            endCol = endCol + origEndCol + 1;
+        }
+
+        return new int[]{startRow, startCol, endRow, endCol};
+    }
+
+    /**
+     * Determines the first and last column of the non-blank cells in a row by scanning its cells
+     */
+    static int[] scanNonBlankColumns(Row r, int minCol, int maxCol) {
+        if (r == null) return null;
+        int start = Math.max(minCol, r.getFirstCellNum());
+        int end = Math.min(maxCol + 1, r.getLastCellNum()); // NOTE: getLastCellNum is 1-based!
+        int first = -1, last = -1;
+        for (int j = start; j > -1 && j < end; j++) {
+            Cell c = r.getCell(j);
+            if (c != null && c.getCellType() != CellType.BLANK) {
+                if (first < 0) first = j;
+                last = j;
+            }
+        }
+        return first < 0 ? null : new int[]{first, last};
+    }
+
+    /**
+     * Creates a sheet extent which scans the rows of a (DOM-based) worksheet
+     */
+    public static SheetExtent of(Sheet sheet) {
+        return new SheetExtent() {
+            @Override
+            public int getFirstRowNum() {
+                return sheet.getFirstRowNum();
+            }
+
+            @Override
+            public int getLastRowNum() {
+                return sheet.getLastRowNum();
+            }
+
+            @Override
+            public boolean hasRow(int rowIndex) {
+                return sheet.getRow(rowIndex) != null;
+            }
+
+            @Override
+            public int[] getNonBlankColumns(int rowIndex, int minCol, int maxCol) {
+                return scanNonBlankColumns(sheet.getRow(rowIndex), minCol, maxCol);
+            }
+        };
+    }
+}
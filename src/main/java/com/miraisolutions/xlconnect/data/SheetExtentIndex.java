@@ -0,0 +1,240 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.data;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.TreeMap;
+
+/**
+ * Sheet extent which keeps the first/last (non-blank) cell of each row as well as the minimum/maximum over all
+ * rows, so that the extent of a sheet does not need to be determined by scanning all of its rows and cells.
+ * The index needs to be notified about any changes to the rows and cells of the sheet.
+ */
+public final class SheetExtentIndex extends SheetExtent {
+
+    private final Sheet sheet;
+    // Rows contained in the index
+    private final BitSet rows = new BitSet();
+    // First and last cell of each row as defined by Row#getFirstCellNum and Row#getLastCellNum
+    // (-1 for rows without cells)
+    private int[] firstCell = new int[0];
+    private int[] lastCell = new int[0];
+    // First and last non-blank cell of each row (-1 for rows without non-blank cells)
+    private int[] firstNonBlank = new int[0];
+    private int[] lastNonBlank = new int[0];
+    // Number of rows (with cells) by first and last cell
+    private final TreeMap<Integer, Integer> firstCellCounts = new TreeMap<>();
+    private final TreeMap<Integer, Integer> lastCellCounts = new TreeMap<>();
+    // Rows with non-blank cells and their number by first and last non-blank cell
+    private final BitSet nonBlankRows = new BitSet();
+    private final TreeMap<Integer, Integer> firstNonBlankCounts = new TreeMap<>();
+    private final TreeMap<Integer, Integer> lastNonBlankCounts = new TreeMap<>();
+
+    public SheetExtentIndex(Sheet sheet) {
+        this.sheet = sheet;
+        for (Row r : sheet) {
+            update(r.getRowNum(), r);
+        }
+    }
+
+    @Override
+    public int getFirstRowNum() {
+        return sheet.getFirstRowNum();
+    }
+
+    @Override
+    public int getLastRowNum() {
+        return sheet.getLastRowNum();
+    }
+
+    @Override
+    public boolean hasRow(int rowIndex) {
+        return sheet.getRow(rowIndex) != null;
+    }
+
+    @Override
+    public int[] getNonBlankColumns(int rowIndex, int minCol, int maxCol) {
+        if (rowIndex < 0 || !rows.get(rowIndex)) return null;
+        int first = firstNonBlank[rowIndex];
+        int last = lastNonBlank[rowIndex];
+        if (first < 0 || last < minCol || first > maxCol) return null;
+        if (first >= minCol && last <= maxCol) return new int[]{first, last};
+        // Only part of the row is of interest
+        return scanNonBlankColumns(sheet.getRow(rowIndex), minCol, maxCol);
+    }
+
+    @Override
+    public int[] getNonBlankBounds() {
+        if (nonBlankRows.isEmpty()) return new int[]{-1, -1, -1, -1};
+        return new int[]{nonBlankRows.nextSetBit(0), firstNonBlankCounts.firstKey(),
+                nonBlankRows.length() - 1, lastNonBlankCounts.lastKey()};
+    }
+
+    /**
+     * @return Minimum of Row#getFirstCellNum over all rows with cells before the specified row
+     * or -1 if there are no such rows. This is answered from the index if the specified row is at or after
+     * the last row and otherwise requires a scan of the preceding rows.
+     */
+    public int getMinFirstCellNum(int toRow) {
+        if (firstCellCounts.isEmpty()) return -1;
+        int lastRow = rows.length() - 1;
+        if (toRow > lastRow) return firstCellCounts.firstKey();
+        if (toRow == lastRow) {
+            // All rows except for the last one
+            Integer min = firstCellCounts.firstKey();
+            if (firstCell[lastRow] != min || firstCellCounts.get(min) > 1) return min;
+            Integer next = firstCellCounts.higherKey(min);
+            return next == null ? -1 : next;
+        }
+        int min = -1;
+        for (int i = rows.nextSetBit(0); i >= 0 && i < toRow; i = rows.nextSetBit(i + 1)) {
+            if (firstCell[i] >= 0 && (min < 0 || firstCell[i] < min)) min = firstCell[i];
+        }
+        return min;
+    }
+
+    /**
+     * @return Maximum of Row#getLastCellNum over all rows with cells before the specified row
+     * or -1 if there are no such rows. This is answered from the index if the specified row is at or after
+     * the last row and otherwise requires a scan of the preceding rows.
+     */
+    public int getMaxLastCellNum(int toRow) {
+        if (lastCellCounts.isEmpty()) return -1;
+        int lastRow = rows.length() - 1;
+        if (toRow > lastRow) return lastCellCounts.lastKey();
+        if (toRow == lastRow) {
+            // All rows except for the last one
+            Integer max = lastCellCounts.lastKey();
+            if (lastCell[lastRow] != max || lastCellCounts.get(max) > 1) return max;
+            Integer next = lastCellCounts.lowerKey(max);
+            return next == null ? -1 : next;
+        }
+        int max = -1;
+        for (int i = rows.nextSetBit(0); i >= 0 && i < toRow; i = rows.nextSetBit(i + 1)) {
+            if (lastCell[i] > max) max = lastCell[i];
+        }
+        return max;
+    }
+
+    /**
+     * Registers a newly created (empty) row
+     */
+    public void rowCreated(int rowIndex) {
+        if (!rows.get(rowIndex)) {
+            ensureCapacity(rowIndex);
+            rows.set(rowIndex);
+            firstCell[rowIndex] = lastCell[rowIndex] = -1;
+            firstNonBlank[rowIndex] = lastNonBlank[rowIndex] = -1;
+        }
+    }
+
+    /**
+     * Registers a newly created (blank) cell
+     */
+    public void cellCreated(int rowIndex, int colIndex) {
+        rowCreated(rowIndex);
+        int first = firstCell[rowIndex];
+        int last = lastCell[rowIndex];
+        removeCounts(firstCellCounts, lastCellCounts, first, last);
+        firstCell[rowIndex] = first < 0 ? colIndex : Math.min(first, colIndex);
+        lastCell[rowIndex] = Math.max(last, colIndex + 1);
+        addCounts(firstCellCounts, lastCellCounts, firstCell[rowIndex], lastCell[rowIndex]);
+    }
+
+    /**
+     * Re-reads the specified rows (both inclusive) from the sheet, e.g. after cell values have been changed
+     */
+    public void refresh(int fromRow, int toRow) {
+        for (int i = Math.max(fromRow, 0); i <= toRow; i++) {
+            update(i, sheet.getRow(i));
+        }
+    }
+
+    /**
+     * Removes all rows from the index
+     */
+    public void clear() {
+        rows.clear();
+        firstCellCounts.clear();
+        lastCellCounts.clear();
+        nonBlankRows.clear();
+        firstNonBlankCounts.clear();
+        lastNonBlankCounts.clear();
+    }
+
+    private void update(int rowIndex, Row r) {
+        if (rows.get(rowIndex)) {
+            removeCounts(firstCellCounts, lastCellCounts, firstCell[rowIndex], lastCell[rowIndex]);
+            removeCounts(firstNonBlankCounts, lastNonBlankCounts, firstNonBlank[rowIndex], lastNonBlank[rowIndex]);
+            nonBlankRows.clear(rowIndex);
+            rows.clear(rowIndex);
+        }
+        if (r == null) return;
+
+        rowCreated(rowIndex);
+        int first = r.getFirstCellNum();
+        int last = r.getLastCellNum();
+        firstCell[rowIndex] = first;
+        lastCell[rowIndex] = last;
+        addCounts(firstCellCounts, lastCellCounts, first, last);
+        for (Cell c : r) {
+            if (c.getCellType() != CellType.BLANK) {
+                int col = c.getColumnIndex();
+                if (firstNonBlank[rowIndex] < 0 || col < firstNonBlank[rowIndex]) firstNonBlank[rowIndex] = col;
+                if (col > lastNonBlank[rowIndex]) lastNonBlank[rowIndex] = col;
+            }
+        }
+        if (firstNonBlank[rowIndex] >= 0) {
+            nonBlankRows.set(rowIndex);
+            addCounts(firstNonBlankCounts, lastNonBlankCounts, firstNonBlank[rowIndex], lastNonBlank[rowIndex]);
+        }
+    }
+
+    private void ensureCapacity(int rowIndex) {
+        if (rowIndex >= firstCell.length) {
+            int capacity = Math.max(rowIndex + 1, firstCell.length * 2);
+            firstCell = Arrays.copyOf(firstCell, capacity);
+            lastCell = Arrays.copyOf(lastCell, capacity);
+            firstNonBlank = Arrays.copyOf(firstNonBlank, capacity);
+            lastNonBlank = Arrays.copyOf(lastNonBlank, capacity);
+        }
+    }
+
+    private static void addCounts(TreeMap<Integer, Integer> firstCounts, TreeMap<Integer, Integer> lastCounts,
+                                  int first, int last) {
+        if (first < 0) return;
+        firstCounts.merge(first, 1, Integer::sum);
+        lastCounts.merge(last, 1, Integer::sum);
+    }
+
+    private static void removeCounts(TreeMap<Integer, Integer> firstCounts, TreeMap<Integer, Integer> lastCounts,
+                                     int first, int last) {
+        if (first < 0) return;
+        firstCounts.computeIfPresent(first, (k, n) -> n > 1 ? n - 1 : null);
+        lastCounts.computeIfPresent(last, (k, n) -> n > 1 ? n - 1 : null);
+    }
+}
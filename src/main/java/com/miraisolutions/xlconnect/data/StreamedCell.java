@@ -0,0 +1,253 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.data;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * Read-only cell as obtained from streaming a worksheet's XML. Formula cells only provide
+ * their cached result; the formula itself is not retained.
+ */
+final class StreamedCell implements Cell {
+
+    private final Sheet sheet;
+    private final int rowIndex;
+    private final int columnIndex;
+    private final boolean formula;
+    // Type of the (cached) value
+    private final CellType valueType;
+    // Numeric and boolean (1/0) values
+    private final double number;
+    // String values and error codes (e.g. #DIV/0!)
+    private final String text;
+    private final CellStyle style;
+    private final boolean date1904;
+
+    StreamedCell(Sheet sheet, int rowIndex, int columnIndex, boolean formula, CellType valueType, double number,
+                 String text, CellStyle style, boolean date1904) {
+        this.sheet = sheet;
+        this.rowIndex = rowIndex;
+        this.columnIndex = columnIndex;
+        this.formula = formula;
+        this.valueType = valueType;
+        this.number = number;
+        this.text = text;
+        this.style = style;
+        this.date1904 = date1904;
+    }
+
+    public int getColumnIndex() {
+        return columnIndex;
+    }
+
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    public Sheet getSheet() {
+        return sheet;
+    }
+
+    public Row getRow() {
+        throw new UnsupportedOperationException("Streamed cells are not attached to a row");
+    }
+
+    public CellType getCellType() {
+        return formula ? CellType.FORMULA : valueType;
+    }
+
+    public CellType getCachedFormulaResultType() {
+        if (!formula)
+            throw new IllegalStateException("Only formula cells have cached results");
+        return valueType;
+    }
+
+    public String getCellFormula() {
+        throw new UnsupportedOperationException("Formulas are not available for streamed cells");
+    }
+
+    public double getNumericCellValue() {
+        switch (valueType) {
+            case BLANK:
+                return 0.0;
+            case NUMERIC:
+                return number;
+            default:
+                throw typeMismatch(CellType.NUMERIC);
+        }
+    }
+
+    public Date getDateCellValue() {
+        if (getCellType() == CellType.BLANK) return null;
+        return DateUtil.getJavaDate(getNumericCellValue(), date1904);
+    }
+
+    public LocalDateTime getLocalDateTimeCellValue() {
+        if (getCellType() == CellType.BLANK) return null;
+        return DateUtil.getLocalDateTime(getNumericCellValue(), date1904);
+    }
+
+    public RichTextString getRichStringCellValue() {
+        return new XSSFRichTextString(getStringCellValue());
+    }
+
+    public String getStringCellValue() {
+        switch (valueType) {
+            case BLANK:
+                return "";
+            case STRING:
+                return text;
+            default:
+                throw typeMismatch(CellType.STRING);
+        }
+    }
+
+    public boolean getBooleanCellValue() {
+        switch (valueType) {
+            case BLANK:
+                return false;
+            case BOOLEAN:
+                return number != 0;
+            default:
+                throw typeMismatch(CellType.BOOLEAN);
+        }
+    }
+
+    public byte getErrorCellValue() {
+        switch (valueType) {
+            case BLANK:
+                return 0;
+            case ERROR:
+                return FormulaError.forString(text).getCode();
+            default:
+                throw typeMismatch(CellType.ERROR);
+        }
+    }
+
+    public CellStyle getCellStyle() {
+        return style;
+    }
+
+    public CellAddress getAddress() {
+        return new CellAddress(rowIndex, columnIndex);
+    }
+
+    public Comment getCellComment() {
+        return null;
+    }
+
+    public Hyperlink getHyperlink() {
+        return null;
+    }
+
+    public CellRangeAddress getArrayFormulaRange() {
+        throw new IllegalStateException("Streamed cells are not part of an array formula");
+    }
+
+    public boolean isPartOfArrayFormulaGroup() {
+        return false;
+    }
+
+    private IllegalStateException typeMismatch(CellType expected) {
+        return new IllegalStateException("Cannot get a " + expected + " value from a " + valueType + " cell");
+    }
+
+    @Override
+    @Deprecated
+    public void setCellType(CellType cellType) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setBlank() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setCellValue(double value) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setCellValue(Date value) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setCellValue(LocalDateTime value) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setCellValue(Calendar value) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setCellValue(RichTextString value) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setCellValue(String value) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setCellValue(boolean value) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setCellFormula(String formula) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void removeFormula() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setCellErrorValue(byte value) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setCellStyle(CellStyle style) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setAsActiveCell() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setCellComment(Comment comment) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void removeCellComment() {
+        throw new UnsupportedOperationException();
+    }
+
+    public void setHyperlink(Hyperlink link) {
+        throw new UnsupportedOperationException();
+    }
+
+    public void removeHyperlink() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,577 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.data;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Reads worksheet data by streaming the worksheet XML part of an XLSX workbook with a SAX parser,
+ * i.e. without building the worksheet's DOM.
+ * <p>
+ * Data is read from the worksheet part as stored in the package, i.e. as of the last time the workbook
+ * has been loaded or saved. Formula cells always provide their cached results.
+ * <p>
+ * The worksheet's DOM is only avoided if the workbook has not been loaded completely (see the read-only mode
+ * of Workbook.getWorkbook); determining a bounding box (getBoundingBox) and reading data (read, open) are
+ * separate passes over the worksheet XML.
+ */
+public final class StreamingSheetReader {
+
+    private final XSSFSheet sheet;
+    private final SharedStrings sharedStrings;
+    private final StylesTable stylesTable;
+    private final boolean date1904;
+    // Resolved cell styles by style index
+    private final Map<Integer, CellStyle> cellStyles = new HashMap<>();
+
+    public StreamingSheetReader(XSSFSheet sheet) {
+        XSSFWorkbook workbook = sheet.getWorkbook();
+        this.sheet = sheet;
+        this.sharedStrings = workbook.getSharedStringSource();
+        this.stylesTable = workbook.getStylesSource();
+        this.date1904 = workbook.isDate1904();
+    }
+
+    /**
+     * Determines the bounding box of a data region in a single pass over the worksheet.
+     *
+     * @see SheetExtent#getBoundingBox
+     */
+    public int[] getBoundingBox(int startRow, int startCol, int endRow, int endCol,
+                                boolean autofitRow, boolean autofitCol) {
+        final int minCol = startCol;
+        final int maxCol = endCol < 0 ? Integer.MAX_VALUE - 1 : endCol;
+        final StreamedExtent extent = new StreamedExtent();
+
+        parse(new SheetHandler() {
+            @Override
+            protected void startRow(int rowIndex) {
+                extent.addRow(rowIndex);
+            }
+
+            @Override
+            protected void cell(int rowIndex, int colIndex) {
+                if (colIndex >= minCol && colIndex <= maxCol && isNonBlank()) {
+                    extent.addNonBlank(rowIndex, colIndex);
+                }
+            }
+        });
+
+        return extent.getBoundingBox(startRow, startCol, endRow, endCol, autofitRow, autofitCol);
+    }
+
+    /**
+     * Reads the specified region of the worksheet into column builders.
+     *
+     * @param startRow      Start row (row index of top left cell)
+     * @param nrows         Number of rows (including the header row, if any)
+     * @param columns       Column indices to read (one per column builder)
+     * @param headerBuilder Column builder for the header row; null if there is no header
+     * @param builders      Column builders, one for each specified column
+     */
+    public void read(int startRow, int nrows, int[] columns, ColumnBuilder headerBuilder, ColumnBuilder[] builders) {
+        if (nrows < 1 || columns.length < 1) return;
+
+        final int endRow = startRow + nrows - 1;
+        final int firstDataRow = headerBuilder == null ? startRow : startRow + 1;
+        final StreamedCell[] rowCells = new StreamedCell[Arrays.stream(columns).max().getAsInt() + 1];
+
+        SheetHandler handler = new SheetHandler() {
+            // Next data row to be added to the column builders
+            int nextRow = firstDataRow;
+            boolean headerDone = headerBuilder == null;
+
+            @Override
+            protected void startRow(int rowIndex) throws SAXException {
+                if (rowIndex > endRow) throw new StopParsingException();
+                Arrays.fill(rowCells, null);
+            }
+
+            @Override
+            protected void cell(int rowIndex, int colIndex) {
+                if (rowIndex >= startRow && colIndex < rowCells.length) {
+                    rowCells[colIndex] = newCell(rowIndex, colIndex);
+                }
+            }
+
+            @Override
+            protected void endRow(int rowIndex) {
+                if (rowIndex < startRow || rowIndex < nextRow && headerDone) return;
+                if (!headerDone) {
+                    if (rowIndex == startRow) {
+                        addRow(headerBuilder, rowCells);
+                    } else {
+                        addRow(headerBuilder, null);
+                    }
+                    headerDone = true;
+                    if (rowIndex == startRow) return;
+                }
+                addMissingRows(rowIndex);
+                for (int i = 0; i < columns.length; i++) {
+                    builders[i].addCell(rowCells[columns[i]]);
+                }
+                nextRow = rowIndex + 1;
+            }
+
+            @Override
+            protected void endSheet() {
+                if (!headerDone) {
+                    addRow(headerBuilder, null);
+                    headerDone = true;
+                }
+                addMissingRows(endRow + 1);
+            }
+
+            private void addRow(ColumnBuilder builder, StreamedCell[] cells) {
+                for (int column : columns) {
+                    builder.addCell(cells == null ? null : cells[column]);
+                }
+            }
+
+            private void addMissingRows(int rowIndex) {
+                for (; nextRow < rowIndex; nextRow++) {
+                    for (ColumnBuilder builder : builders) {
+                        builder.addCell(null);
+                    }
+                }
+            }
+        };
+
+        parse(handler);
+    }
+
+    /**
+     * Opens a cursor over the rows of the specified region. The worksheet XML is parsed incrementally
+     * (pull parsing), such that the region can be read in chunks of rows without keeping the region in
+     * memory and without parsing the worksheet more than once. The header row, if any, is read immediately.
+     *
+     * @param startRow      Start row (row index of top left cell)
+     * @param nrows         Number of rows (including the header row, if any)
+     * @param columns       Column indices to read (one per column builder)
+     * @param headerBuilder Column builder for the header row; null if there is no header
+     */
+    public RowCursor open(int startRow, int nrows, int[] columns, ColumnBuilder headerBuilder) {
+        return new RowCursor(startRow, nrows, columns, headerBuilder);
+    }
+
+    /**
+     * Cursor over the rows of a worksheet region; see {@link #open}
+     */
+    public final class RowCursor implements Closeable {
+        private final int endRow;
+        private final int[] columns;
+        private final StreamedCell[] rowCells;
+        private final AttributesImpl attributes = new AttributesImpl();
+        private final SheetHandler handler;
+        private InputStream input = null;
+        private XMLStreamReader reader = null;
+        // Next row to be added to the column builders
+        private int nextRow;
+        // Row index of the row most recently parsed (whose cells are in rowCells); -1 if none
+        private int parsedRow = -1;
+        private boolean endOfSheet = false;
+
+        private RowCursor(int startRow, int nrows, int[] columns, ColumnBuilder headerBuilder) {
+            this.endRow = startRow + nrows - 1;
+            this.columns = columns;
+            this.rowCells = new StreamedCell[Arrays.stream(columns).max().orElse(-1) + 1];
+            this.nextRow = startRow;
+            this.handler = new SheetHandler() {
+                @Override
+                protected void startRow(int rowIndex) throws SAXException {
+                    if (rowIndex > endRow) throw new StopParsingException();
+                    Arrays.fill(rowCells, null);
+                }
+
+                @Override
+                protected void cell(int rowIndex, int colIndex) {
+                    if (rowIndex >= nextRow && colIndex < rowCells.length) {
+                        rowCells[colIndex] = newCell(rowIndex, colIndex);
+                    }
+                }
+
+                @Override
+                protected void endRow(int rowIndex) {
+                    if (rowIndex >= nextRow) parsedRow = rowIndex;
+                }
+            };
+
+            if (nrows < 1 || columns.length < 1) {
+                endOfSheet = true;
+                return;
+            }
+            try {
+                input = sheet.getPackagePart().getInputStream();
+                reader = XMLHelper.newXMLInputFactory().createXMLStreamReader(input);
+            } catch (IOException | XMLStreamException e) {
+                close();
+                throw new IllegalStateException("Could not stream worksheet '" + sheet.getSheetName() + "'", e);
+            }
+            if (headerBuilder != null) {
+                addRow(headerBuilder, null, nextRow);
+                nextRow++;
+            }
+        }
+
+        /**
+         * Adds the next (at most maxRows) rows of the region to the column builders
+         *
+         * @param builders Column builders, one for each column
+         * @param maxRows  Maximum number of rows to add
+         * @return The number of rows added; 0 if the end of the region has been reached
+         */
+        public int read(ColumnBuilder[] builders, int maxRows) {
+            int added = 0;
+            for (; added < maxRows && nextRow <= endRow; added++, nextRow++) {
+                addRow(null, builders, nextRow);
+            }
+            if (nextRow > endRow) close();
+            return added;
+        }
+
+        private void addRow(ColumnBuilder builder, ColumnBuilder[] builders, int rowIndex) {
+            while (parsedRow < rowIndex && !endOfSheet) {
+                parseRow();
+            }
+            boolean found = parsedRow == rowIndex;
+            for (int i = 0; i < columns.length; i++) {
+                StreamedCell cell = found ? rowCells[columns[i]] : null;
+                if (builders == null) builder.addCell(cell);
+                else builders[i].addCell(cell);
+            }
+        }
+
+        /**
+         * Parses the worksheet XML up to the end of the next row (or the end of the sheet data)
+         */
+        private void parseRow() {
+            parsedRow = -1;
+            try {
+                while (parsedRow < 0) {
+                    if (!reader.hasNext()) {
+                        close();
+                        return;
+                    }
+                    switch (reader.next()) {
+                        case XMLStreamConstants.START_ELEMENT:
+                            attributes.clear();
+                            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                                String prefix = reader.getAttributePrefix(i);
+                                String localName = reader.getAttributeLocalName(i);
+                                attributes.addAttribute(reader.getAttributeNamespace(i), localName,
+                                        prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName,
+                                        "CDATA", reader.getAttributeValue(i));
+                            }
+                            handler.startElement(reader.getNamespaceURI(), reader.getLocalName(), null, attributes);
+                            break;
+                        case XMLStreamConstants.END_ELEMENT:
+                            handler.endElement(reader.getNamespaceURI(), reader.getLocalName(), null);
+                            break;
+                        case XMLStreamConstants.CHARACTERS:
+                        case XMLStreamConstants.CDATA:
+                        case XMLStreamConstants.SPACE:
+                            handler.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                            break;
+                        default:
+                    }
+                }
+            } catch (StopParsingException e) {
+                // Region of interest has been read completely
+                close();
+            } catch (XMLStreamException | SAXException e) {
+                close();
+                throw new IllegalStateException("Could not stream worksheet '" + sheet.getSheetName() + "'", e);
+            }
+        }
+
+        /**
+         * Releases the worksheet XML stream; subsequent reads add missing values only
+         */
+        @Override
+        public void close() {
+            endOfSheet = true;
+            try {
+                if (reader != null) reader.close();
+                if (input != null) input.close();
+            } catch (IOException | XMLStreamException e) {
+                // Nothing to do - the stream is only read from
+            } finally {
+                reader = null;
+                input = null;
+            }
+        }
+    }
+
+    private void parse(SheetHandler handler) {
+        try (InputStream is = sheet.getPackagePart().getInputStream()) {
+            XMLReader reader = XMLHelper.newXMLReader();
+            reader.setContentHandler(handler);
+            try {
+                reader.parse(new InputSource(is));
+            } catch (StopParsingException e) {
+                // Region of interest has been read completely
+            }
+            handler.endSheet();
+        } catch (IOException | SAXException | javax.xml.parsers.ParserConfigurationException e) {
+            throw new IllegalStateException("Could not stream worksheet '" + sheet.getSheetName() + "'", e);
+        }
+    }
+
+    private CellStyle getCellStyle(int styleIndex) {
+        if (stylesTable == null || stylesTable.getNumCellStyles() < 1) return null;
+        return cellStyles.computeIfAbsent(styleIndex, stylesTable::getStyleAt);
+    }
+
+    /**
+     * Converts a cell reference such as "AB12" into a 0-based column index
+     */
+    private static int columnIndex(String ref) {
+        int col = 0;
+        for (int i = 0; i < ref.length(); i++) {
+            char ch = ref.charAt(i);
+            if (ch < 'A' || ch > 'Z') break;
+            col = col * 26 + (ch - 'A' + 1);
+        }
+        return col - 1;
+    }
+
+    private static final class StopParsingException extends SAXException {
+        private static final long serialVersionUID = 1L;
+
+        StopParsingException() {
+            super("Stop parsing");
+        }
+    }
+
+    /**
+     * SAX handler for the sheet data of a worksheet part (modelled after POI's XSSFSheetXMLHandler, but
+     * retaining raw cell values and types rather than formatted strings)
+     */
+    private abstract class SheetHandler extends DefaultHandler {
+        private final StringBuilder value = new StringBuilder();
+        private boolean collect = false;
+        private boolean inInlineString = false;
+        private boolean inPhonetic = false;
+
+        private int rowIndex = -1;
+        private int colIndex = -1;
+        // Current cell properties
+        private String cellType;
+        private int styleIndex;
+        private boolean hasValue;
+        private boolean hasFormula;
+
+        protected abstract void startRow(int rowIndex) throws SAXException;
+
+        protected abstract void cell(int rowIndex, int colIndex) throws SAXException;
+
+        protected void endRow(int rowIndex) throws SAXException {
+        }
+
+        protected void endSheet() {
+        }
+
+        protected boolean isNonBlank() {
+            return hasValue || hasFormula;
+        }
+
+        protected StreamedCell newCell(int rowIndex, int colIndex) {
+            CellType type;
+            double number = 0;
+            String text = null;
+            String v = value.toString();
+            if (!hasValue) {
+                type = hasFormula ? ("str".equals(cellType) ? CellType.STRING : CellType.NUMERIC) : CellType.BLANK;
+                text = "";
+            } else if (cellType == null || "n".equals(cellType)) {
+                type = CellType.NUMERIC;
+                number = v.isEmpty() ? 0.0 : Double.parseDouble(v);
+            } else {
+                switch (cellType) {
+                    case "s":
+                        type = CellType.STRING;
+                        text = sharedStrings.getItemAt(Integer.parseInt(v.trim())).getString();
+                        break;
+                    case "b":
+                        type = CellType.BOOLEAN;
+                        number = "1".equals(v) ? 1 : 0;
+                        break;
+                    case "e":
+                        type = CellType.ERROR;
+                        text = v;
+                        break;
+                    default:
+                        // inlineStr, str (formula string) and d (ISO 8601 date)
+                        type = CellType.STRING;
+                        text = v;
+                }
+            }
+            return new StreamedCell(sheet, rowIndex, colIndex, hasFormula, type, number, text,
+                    getCellStyle(styleIndex), date1904);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    rowIndex = r == null ? rowIndex + 1 : Integer.parseInt(r) - 1;
+                    colIndex = -1;
+                    startRow(rowIndex);
+                    break;
+                case "c":
+                    String ref = attributes.getValue("r");
+                    colIndex = ref == null ? colIndex + 1 : columnIndex(ref);
+                    cellType = attributes.getValue("t");
+                    String s = attributes.getValue("s");
+                    styleIndex = s == null ? 0 : Integer.parseInt(s);
+                    hasValue = false;
+                    hasFormula = false;
+                    value.setLength(0);
+                    break;
+                case "v":
+                    hasValue = true;
+                    collect = true;
+                    break;
+                case "f":
+                    hasFormula = true;
+                    break;
+                case "is":
+                    inInlineString = true;
+                    hasValue = true;
+                    break;
+                case "rPh":
+                    inPhonetic = true;
+                    break;
+                case "t":
+                    collect = inInlineString && !inPhonetic;
+                    break;
+                default:
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v":
+                case "t":
+                    collect = false;
+                    break;
+                case "is":
+                    inInlineString = false;
+                    break;
+                case "rPh":
+                    inPhonetic = false;
+                    break;
+                case "c":
+                    cell(rowIndex, colIndex);
+                    break;
+                case "row":
+                    endRow(rowIndex);
+                    break;
+                case "sheetData":
+                    throw new StopParsingException();
+                default:
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collect) value.append(ch, start, length);
+        }
+    }
+
+    /**
+     * Sheet extent collected while streaming a worksheet (for a fixed column range)
+     */
+    private static final class StreamedExtent extends SheetExtent {
+        private final BitSet rows = new BitSet();
+        private int firstRow = -1, lastRow = -1;
+        // Rows with non-blank cells (ascending) and corresponding first/last non-blank column
+        private int[] nonBlankRows = new int[64], firstCols = new int[64], lastCols = new int[64];
+        private int size = 0;
+
+        void addRow(int rowIndex) {
+            rows.set(rowIndex);
+            if (firstRow < 0 || rowIndex < firstRow) firstRow = rowIndex;
+            if (rowIndex > lastRow) lastRow = rowIndex;
+        }
+
+        void addNonBlank(int rowIndex, int colIndex) {
+            if (size > 0 && nonBlankRows[size - 1] == rowIndex) {
+                firstCols[size - 1] = Math.min(firstCols[size - 1], colIndex);
+                lastCols[size - 1] = Math.max(lastCols[size - 1], colIndex);
+            } else {
+                if (size == nonBlankRows.length) {
+                    nonBlankRows = Arrays.copyOf(nonBlankRows, 2 * size);
+                    firstCols = Arrays.copyOf(firstCols, 2 * size);
+                    lastCols = Arrays.copyOf(lastCols, 2 * size);
+                }
+                nonBlankRows[size] = rowIndex;
+                firstCols[size] = colIndex;
+                lastCols[size] = colIndex;
+                size++;
+            }
+        }
+
+        @Override
+        public int getFirstRowNum() {
+            return firstRow;
+        }
+
+        @Override
+        public int getLastRowNum() {
+            return lastRow;
+        }
+
+        @Override
+        public boolean hasRow(int rowIndex) {
+            return rowIndex >= 0 && rows.get(rowIndex);
+        }
+
+        @Override
+        public int[] getNonBlankColumns(int rowIndex, int minCol, int maxCol) {
+            // NOTE: the column range has already been applied when collecting the extent
+            int k = Arrays.binarySearch(nonBlankRows, 0, size, rowIndex);
+            return k < 0 ? null : new int[]{firstCols[k], lastCols[k]};
+        }
+    }
+}
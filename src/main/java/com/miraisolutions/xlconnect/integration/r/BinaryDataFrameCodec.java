@@ -0,0 +1,260 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.integration.r;
+
+import com.miraisolutions.xlconnect.data.Column;
+import com.miraisolutions.xlconnect.data.DataFrame;
+import com.miraisolutions.xlconnect.data.DataType;
+import com.zaxxer.sparsebits.SparseBitSet;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Binary encoding of a whole data frame, such that it can be transferred between Java and R in a single call
+ * and decoded with R's readBin. All numbers are little endian:
+ * <pre>
+ * "XLCD"              magic
+ * int32               format version (1)
+ * int32               number of columns
+ * int32               number of rows
+ * per column:
+ *   uint8             data type (0 = Boolean, 1 = DateTime, 2 = Numeric, 3 = String)
+ *   uint8             1 if the column has a name, 0 otherwise
+ *   string            column name (only if the column has a name)
+ *   ceil(rows/8) x uint8  missing value mask; bit (i mod 8) of byte (i div 8), least significant bit first
+ *   rows x value      values; uint8 (0/1) for Boolean, float64 for Numeric, float64 milliseconds since
+ *                     the epoch for DateTime and string for String (missing values have arbitrary values)
+ * </pre>
+ * Strings are UTF-8 encoded and NUL-terminated; NUL characters within strings are dropped as they can
+ * neither be encoded nor be represented in R.
+ */
+final class BinaryDataFrameCodec {
+
+    private static final byte[] MAGIC = {'X', 'L', 'C', 'D'};
+    private static final int VERSION = 1;
+    // Data type codes; these are part of the format and must not change
+    private static final byte BOOLEAN = 0;
+    private static final byte DATETIME = 1;
+    private static final byte NUMERIC = 2;
+    private static final byte STRING = 3;
+
+    private BinaryDataFrameCodec() {
+    }
+
+    static byte[] encode(DataFrame data) {
+        int columns = data.columns();
+        int rows = data.rows();
+
+        // Encode strings first in order to determine the total size
+        byte[][] names = new byte[columns][];
+        byte[][][] strings = new byte[columns][][];
+        long size = MAGIC.length + 3 * 4;
+        for (int i = 0; i < columns; i++) {
+            size += 2 + maskLength(rows);
+            String name = data.getColumnName(i);
+            if (name != null) {
+                names[i] = encodeString(name);
+                size += names[i].length + 1;
+            }
+            Column col = data.getColumn(i);
+            switch (col.getDataType()) {
+                case Boolean:
+                    size += rows;
+                    break;
+                case DateTime:
+                case Numeric:
+                    size += 8L * rows;
+                    break;
+                case String:
+                    strings[i] = new byte[rows][];
+                    String[] values = col.getStringData();
+                    for (int j = 0; j < rows; j++) {
+                        strings[i][j] = col.isMissing(j) || values[j] == null ? new byte[0] : encodeString(values[j]);
+                        size += strings[i][j].length + 1;
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown column type detected!");
+            }
+        }
+        if (size > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Data frame is too large to be encoded in a single array!");
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(VERSION).putInt(columns).putInt(rows);
+        for (int i = 0; i < columns; i++) {
+            Column col = data.getColumn(i);
+            buffer.put(typeCode(col.getDataType()));
+            buffer.put((byte) (names[i] == null ? 0 : 1));
+            if (names[i] != null) buffer.put(names[i]).put((byte) 0);
+            putMask(buffer, col.getMissing(), rows);
+            switch (col.getDataType()) {
+                case Boolean:
+                    boolean[] booleans = col.getBooleanData();
+                    for (int j = 0; j < rows; j++) {
+                        buffer.put((byte) (booleans[j] ? 1 : 0));
+                    }
+                    break;
+                case DateTime:
+                    long[] dates = col.getDateTimeData();
+                    for (int j = 0; j < rows; j++) {
+                        buffer.putDouble(dates[j]);
+                    }
+                    break;
+                case Numeric:
+                    buffer.asDoubleBuffer().put(col.getNumericData(), 0, rows);
+                    buffer.position(buffer.position() + 8 * rows);
+                    break;
+                case String:
+                    for (byte[] value : strings[i]) {
+                        buffer.put(value).put((byte) 0);
+                    }
+                    break;
+            }
+        }
+
+        return buffer.array();
+    }
+
+    static DataFrame decode(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            int version = buffer.getInt();
+            if (!Arrays.equals(magic, MAGIC) || version != VERSION)
+                throw new IllegalArgumentException("Unsupported binary data frame format!");
+
+            int columns = buffer.getInt();
+            int rows = buffer.getInt();
+            DataFrame data = new DataFrame();
+            for (int i = 0; i < columns; i++) {
+                DataType type = dataType(buffer.get());
+                String name = buffer.get() != 0 ? getString(buffer) : null;
+                SparseBitSet missing = getMask(buffer, rows);
+                Object values;
+                switch (type) {
+                    case Boolean:
+                        boolean[] booleans = new boolean[rows];
+                        for (int j = 0; j < rows; j++) {
+                            booleans[j] = buffer.get() != 0;
+                        }
+                        values = booleans;
+                        break;
+                    case DateTime:
+                        long[] dates = new long[rows];
+                        for (int j = 0; j < rows; j++) {
+                            dates[j] = Math.round(buffer.getDouble());
+                        }
+                        values = dates;
+                        break;
+                    case Numeric:
+                        double[] numbers = new double[rows];
+                        buffer.asDoubleBuffer().get(numbers);
+                        buffer.position(buffer.position() + 8 * rows);
+                        values = numbers;
+                        break;
+                    default:
+                        String[] strings = new String[rows];
+                        for (int j = 0; j < rows; j++) {
+                            String value = getString(buffer);
+                            strings[j] = missing.get(j) ? null : value;
+                        }
+                        values = strings;
+                }
+                data.addColumn(name, new Column(values, rows, missing, type));
+            }
+            return data;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Binary data frame is truncated!");
+        }
+    }
+
+    private static byte typeCode(DataType type) {
+        switch (type) {
+            case Boolean:
+                return BOOLEAN;
+            case DateTime:
+                return DATETIME;
+            case Numeric:
+                return NUMERIC;
+            case String:
+                return STRING;
+            default:
+                throw new IllegalArgumentException("Unknown column type detected!");
+        }
+    }
+
+    private static DataType dataType(byte code) {
+        switch (code) {
+            case BOOLEAN:
+                return DataType.Boolean;
+            case DATETIME:
+                return DataType.DateTime;
+            case NUMERIC:
+                return DataType.Numeric;
+            case STRING:
+                return DataType.String;
+            default:
+                throw new IllegalArgumentException("Unknown column type detected!");
+        }
+    }
+
+    private static int maskLength(int rows) {
+        return (rows + 7) / 8;
+    }
+
+    private static void putMask(ByteBuffer buffer, SparseBitSet missing, int rows) {
+        byte[] mask = new byte[maskLength(rows)];
+        for (int i = missing.nextSetBit(0); i >= 0 && i < rows; i = missing.nextSetBit(i + 1)) {
+            mask[i >> 3] |= (byte) (1 << (i & 7));
+        }
+        buffer.put(mask);
+    }
+
+    private static SparseBitSet getMask(ByteBuffer buffer, int rows) {
+        SparseBitSet missing = new SparseBitSet(rows);
+        for (int k = 0; k < maskLength(rows); k++) {
+            int bits = buffer.get() & 0xFF;
+            for (int b = 0; bits != 0; b++, bits >>>= 1) {
+                if ((bits & 1) != 0 && 8 * k + b < rows) missing.set(8 * k + b);
+            }
+        }
+        return missing;
+    }
+
+    private static byte[] encodeString(String s) {
+        if (s.indexOf('\0') >= 0) s = s.replace("\0", "");
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = start;
+        while (buffer.get(end) != 0) end++;
+        buffer.position(end + 1);
+        return new String(buffer.array(), start, end - start, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.integration.r;
+
+import com.miraisolutions.xlconnect.Workbook;
+
+public final class RChunkReaderWrapper {
+
+    final Workbook.ChunkReader reader;
+
+    public RChunkReaderWrapper(Workbook.ChunkReader reader) {
+        this.reader = reader;
+    }
+
+    public boolean hasNext() {
+        return reader.hasNext();
+    }
+
+    public RDataFrameWrapper nextChunk() {
+        return new RDataFrameWrapper(reader.nextChunk());
+    }
+
+    public void close() {
+        reader.close();
+    }
+}
@@ -20,14 +20,15 @@
 
 package com.miraisolutions.xlconnect.integration.r;
 
+import com.miraisolutions.xlconnect.data.ArrowIpc;
 import com.miraisolutions.xlconnect.data.Column;
 import com.miraisolutions.xlconnect.data.DataFrame;
 import com.miraisolutions.xlconnect.data.DataType;
 
-import java.util.Arrays;
 import com.zaxxer.sparsebits.SparseBitSet;
-import java.util.Date;
-import java.util.stream.IntStream;
+
+import java.io.File;
+import java.io.IOException;
 
 public final class RDataFrameWrapper {
 
@@ -41,6 +42,13 @@ public final class RDataFrameWrapper {
         this.dataFrame = dataFrame;
     }
 
+    /**
+     * Creates a data frame from its binary encoding (see toBytes)
+     */
+    public RDataFrameWrapper(byte[] bytes) {
+        this.dataFrame = BinaryDataFrameCodec.decode(bytes);
+    }
+
     public void addNumericColumn(String name, double[] column, boolean[] na) {
         dataFrame.addColumn(name, new Column(column, column.length, toBitSet(na), DataType.Numeric));
     }
@@ -54,10 +62,7 @@ public final class RDataFrameWrapper {
     }
 
     public void addDateTimeColumn(String name, long[] column, boolean[] na) {
-        Date[] elements = IntStream.range(0, column.length)
-                .mapToObj(i -> na[i] ? null : new Date(column[i]))
-                .toArray(Date[]::new);
-        dataFrame.addColumn(name, new Column(elements, column.length, toBitSet(na), DataType.DateTime));
+        dataFrame.addColumn(name, new Column(column, column.length, toBitSet(na), DataType.DateTime));
     }
 
     public String[] getColumnTypes() {
@@ -83,9 +88,30 @@ public final class RDataFrameWrapper {
     }
 
     public long[] getDateTimeColumn(int col) {
-        return Arrays.stream(dataFrame.getColumn(col).getDateTimeData())
-                .mapToLong(date -> date == null ? 0 : date.getTime())
-                .toArray();
+        return dataFrame.getColumn(col).getDateTimeData();
+    }
+
+    /**
+     * Encodes the whole data frame (column types, names, values and missing values) in a single
+     * byte array such that it can be transferred to R in one call; see BinaryDataFrameCodec for the layout.
+     */
+    public byte[] toBytes() {
+        return BinaryDataFrameCodec.encode(dataFrame);
+    }
+
+    /**
+     * Writes the data frame to the specified file in the Arrow IPC streaming format
+     */
+    public void writeArrow(String file) throws IOException {
+        ArrowIpc.write(dataFrame, new File(file));
+    }
+
+    public byte[] toArrow() {
+        return ArrowIpc.toByteArray(dataFrame);
+    }
+
+    public static RDataFrameWrapper readArrow(String file) throws IOException {
+        return new RDataFrameWrapper(ArrowIpc.read(new File(file)));
     }
 
     public boolean[] isMissing(int col) {
@@ -32,7 +32,7 @@ import org.apache.poi.common.usermodel.HyperlinkType;
 import java.io.IOException;
 import java.util.Arrays;
 
-public final class RWorkbookWrapper {
+public final class RWorkbookWrapper implements AutoCloseable {
 
     private final Workbook workbook;
 
@@ -44,6 +44,14 @@ public final class RWorkbookWrapper {
         this.workbook = Workbook.getWorkbook(filename, create);
     }
 
+    public RWorkbookWrapper(String filename, String password, boolean create, boolean readOnly) throws IOException {
+        this.workbook = Workbook.getWorkbook(filename, password, create, readOnly);
+    }
+
+    public RWorkbookWrapper(byte[] content, String password) throws IOException {
+        this.workbook = Workbook.getWorkbook(content, password);
+    }
+
     public String[] getSheets() {
         return workbook.getSheets();
     }
@@ -122,6 +130,18 @@ public final class RWorkbookWrapper {
         return new ResultWithAttributes<RDataFrameWrapper>(new RDataFrameWrapper(dataFrame.getValue()), dataFrame.getAttributes());
     }
 
+    public ResultWithAttributes<RDataFrameWrapper[]> readNamedRegions(String[] names, boolean header, String[] colTypes,
+                                             boolean forceConversion, String dateTimeFormat, boolean takeCached, int[] subset,
+                                             String readStrategy, String worksheetScope) {
+        ResultWithAttributes<DataFrame[]> dataFrames = workbook.readNamedRegions(names, header, dataTypeFromString(colTypes),
+                forceConversion, dateTimeFormat, takeCached, subset, ReadStrategy.valueOf(readStrategy.toUpperCase()), worksheetScope);
+        return new ResultWithAttributes<RDataFrameWrapper[]>(wrap(dataFrames.getValue()), dataFrames.getAttributes());
+    }
+
+    private static RDataFrameWrapper[] wrap(DataFrame[] dataFrames) {
+        return Arrays.stream(dataFrames).map(RDataFrameWrapper::new).toArray(RDataFrameWrapper[]::new);
+    }
+
     public RDataFrameWrapper readTable(int worksheetIndex, String tableName, boolean header, String[] colTypes,
                                        boolean forceConversion, String dateTimeFormat, boolean takeCached, int[] subset, String readStrategy) {
         DataFrame dataFrame = workbook.readTable(worksheetIndex, tableName, header, ReadStrategy.valueOf(readStrategy.toUpperCase()),
@@ -162,6 +182,31 @@ public final class RWorkbookWrapper {
         return new RDataFrameWrapper(dataFrame);
     }
 
+    public RDataFrameWrapper[] readWorksheets(String[] worksheets, int startRow, int startCol, int endRow, int endCol,
+                                              boolean header, String[] colTypes, boolean forceConversion, String dateTimeFormat, boolean takeCached,
+                                              int[] subset, String readStrategy) {
+        DataFrame[] dataFrames = workbook.readWorksheets(worksheets, startRow, startCol, endRow, endCol, header,
+                ReadStrategy.valueOf(readStrategy.toUpperCase()), dataTypeFromString(colTypes), forceConversion, dateTimeFormat,
+                takeCached, subset, false, false);
+        return wrap(dataFrames);
+    }
+
+    public RChunkReaderWrapper openReader(int worksheetIndex, int startRow, int startCol, int endRow, int endCol,
+                                          boolean header, int chunkRows, String[] colTypes, boolean forceConversion,
+                                          String dateTimeFormat, boolean takeCached, int[] subset, String readStrategy) {
+        return new RChunkReaderWrapper(workbook.openReader(worksheetIndex, startRow, startCol, endRow, endCol, header,
+                chunkRows, ReadStrategy.valueOf(readStrategy.toUpperCase()), dataTypeFromString(colTypes),
+                forceConversion, dateTimeFormat, takeCached, subset, false, false));
+    }
+
+    public RChunkReaderWrapper openReader(String worksheet, int startRow, int startCol, int endRow, int endCol,
+                                          boolean header, int chunkRows, String[] colTypes, boolean forceConversion,
+                                          String dateTimeFormat, boolean takeCached, int[] subset, String readStrategy) {
+        return new RChunkReaderWrapper(workbook.openReader(worksheet, startRow, startCol, endRow, endCol, header,
+                chunkRows, ReadStrategy.valueOf(readStrategy.toUpperCase()), dataTypeFromString(colTypes),
+                forceConversion, dateTimeFormat, takeCached, subset, false, false));
+    }
+
     public void writeWorksheet(RDataFrameWrapper dataFrame, int worksheetIndex, int startRow, int startCol, boolean header, boolean overwriteFormulaCells) {
         workbook.writeWorksheet(dataFrame.dataFrame, worksheetIndex, startRow, startCol, header, overwriteFormulaCells);
     }
@@ -178,6 +223,10 @@ public final class RWorkbookWrapper {
         workbook.writeWorksheet(dataFrame.dataFrame, worksheetName, header, overwriteFormulaCells);
     }
 
+    public void writeWorksheetStreaming(RDataFrameWrapper dataFrame, String worksheetName, int startRow, int startCol, boolean header, int rowAccessWindowSize) {
+        workbook.writeWorksheetStreaming(dataFrame.dataFrame, worksheetName, startRow, startCol, header, rowAccessWindowSize);
+    }
+
     public int getActiveSheetIndex() {
         return workbook.getActiveSheetIndex();
     }
@@ -382,6 +431,27 @@ public final class RWorkbookWrapper {
             workbook.onErrorCell(ErrorBehavior.WARN);
     }
 
+    public void setParallelism(int parallelism) {
+        workbook.setParallelism(parallelism);
+    }
+
+    public void setTypeInferenceRows(int rows) {
+        workbook.setTypeInferenceRows(rows);
+    }
+
+    public void setDecimalSeparator(String separator) {
+        workbook.setDecimalSeparator(separator);
+    }
+
+    public void setIncrementalSave(boolean incrementalSave) {
+        workbook.setIncrementalSave(incrementalSave);
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.close();
+    }
+
     public void save(String file) throws IOException {
         workbook.save(file);
     }
@@ -390,6 +460,10 @@ public final class RWorkbookWrapper {
         workbook.save();
     }
 
+    public byte[] toByteArray() throws IOException {
+        return workbook.toByteArray();
+    }
+
     public void setCellFormula(String sheetName, int row, int col, String formula) {
         workbook.setCellFormula(sheetName, row, col, formula);
     }
@@ -20,8 +20,12 @@
 
 package com.miraisolutions.xlconnect.utils;
 
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Date1904Support;
 import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.util.CellReference;
 
 public abstract class CellUtils {
@@ -30,6 +34,22 @@ public abstract class CellUtils {
         return (new CellReference(cell).formatAsString());
     }
 
+    public static String formatAsString(Sheet sheet, int rowIndex, int colIndex) {
+        return (new CellReference(sheet.getSheetName(), rowIndex, colIndex, false, false).formatAsString());
+    }
+
+    /**
+     * @return true if the workbook uses the 1904 date system, false otherwise
+     */
+    public static boolean isDate1904(Workbook workbook) {
+        if (workbook instanceof Date1904Support) {
+            return ((Date1904Support) workbook).isDate1904();
+        } else if (workbook instanceof HSSFWorkbook) {
+            return ((HSSFWorkbook) workbook).getInternalWorkbook().isUsing1904DateWindowing();
+        }
+        return false;
+    }
+
     public static String getErrorMessage(FormulaError error) {
         switch (error) {
             case DIV0:
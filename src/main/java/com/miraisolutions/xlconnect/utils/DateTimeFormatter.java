@@ -20,10 +20,49 @@
 
 package com.miraisolutions.xlconnect.utils;
 
+import java.time.DateTimeException;
 import java.util.Date;
 
 public interface DateTimeFormatter {
+    // Returned by parseMillis for strings which cannot be parsed
+    long INVALID = Long.MIN_VALUE;
+
     Date parse(String s, String format);
 
     String format(Date d, String format);
+
+    /**
+     * Parses a string to milliseconds since the epoch, returning INVALID rather than throwing
+     * an exception if the string cannot be parsed
+     */
+    default long parseMillis(String s, String format) {
+        try {
+            return parse(s, format).getTime();
+        } catch (DateTimeException | IllegalArgumentException e) {
+            return INVALID;
+        }
+    }
+
+    /**
+     * Parses whole columns to milliseconds since the epoch; strings which cannot be parsed
+     * (including null) are returned as INVALID
+     */
+    default long[] parse(String[] s, String format) {
+        long[] result = new long[s.length];
+        for (int i = 0; i < s.length; i++) {
+            result[i] = s[i] == null ? INVALID : parseMillis(s[i], format);
+        }
+        return result;
+    }
+
+    /**
+     * Formats whole columns of milliseconds since the epoch
+     */
+    default String[] format(long[] epochMillis, String format) {
+        String[] result = new String[epochMillis.length];
+        for (int i = 0; i < epochMillis.length; i++) {
+            result[i] = format(new Date(epochMillis[i]), format);
+        }
+        return result;
+    }
 }
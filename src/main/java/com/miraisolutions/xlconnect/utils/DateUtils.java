@@ -0,0 +1,160 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.utils;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.LocaleUtil;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+
+/**
+ * Conversion between Excel dates (serial day numbers) and epoch milliseconds for whole arrays.
+ * Excel dates are interpreted in POI's user time zone (by default the JVM's time zone), giving the
+ * same results as POI's DateUtil.getJavaDate / DateUtil.getExcelDate without creating a Calendar per value.
+ */
+public abstract class DateUtils {
+
+    private static final long DAY_MILLISECONDS = 86400000L;
+    // Epoch day of 1900-01-01 (1900 date system) and 1904-01-01 (1904 date system)
+    private static final long EPOCH_DAY_1900 = LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final long EPOCH_DAY_1904 = LocalDate.of(1904, 1, 1).toEpochDay();
+    // Before 1900-01-02, java.util.TimeZone and java.time may disagree on historical (local mean time)
+    // offsets; such dates are converted by POI directly
+    private static final long MIN_EPOCH_DAY = EPOCH_DAY_1900 + 1;
+    private static final long MIN_EPOCH_MILLIS = (MIN_EPOCH_DAY + 1) * DAY_MILLISECONDS;
+
+    /**
+     * Converts the first length Excel dates to epoch milliseconds. Invalid Excel dates
+     * (see DateUtil.isValidExcelDate) are converted to 0.
+     */
+    public static long[] toEpochMillis(double[] excelDates, int length, boolean date1904) {
+        long[] millis = new long[length];
+        EpochMillisConverter converter = new EpochMillisConverter(date1904);
+        for (int i = 0; i < length; i++) {
+            millis[i] = converter.convert(excelDates[i]);
+        }
+        return millis;
+    }
+
+    /**
+     * Converts single Excel dates to epoch milliseconds in the user time zone as of its creation
+     * (see toEpochMillis)
+     */
+    public static final class EpochMillisConverter {
+        private final boolean date1904;
+        // Time zone if it does not have a fixed offset; null otherwise
+        private final ZoneId zone;
+        private final long fixedOffset;
+
+        public EpochMillisConverter(boolean date1904) {
+            ZoneRules rules = getZoneRules();
+            this.date1904 = date1904;
+            this.zone = rules.isFixedOffset() ? null : getZoneId();
+            this.fixedOffset = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L : 0;
+        }
+
+        /**
+         * @return Milliseconds since the epoch; 0 for invalid Excel dates
+         */
+        public long convert(double excelDate) {
+            if (!DateUtil.isValidExcelDate(excelDate)) {
+                return 0;
+            }
+            int wholeDays = (int) Math.floor(excelDate);
+            int millisecondsInDay = (int) ((excelDate - wholeDays) * DAY_MILLISECONDS + 0.5);
+            long epochDay;
+            if (date1904) {
+                epochDay = EPOCH_DAY_1904 + wholeDays;
+            } else {
+                // Excel treats 1900 as a leap year: day 60 is the non-existent 1900-02-29
+                epochDay = EPOCH_DAY_1900 + wholeDays - (wholeDays < 61 ? 1 : 2);
+            }
+            if (epochDay < MIN_EPOCH_DAY) {
+                return DateUtil.getJavaDate(excelDate, date1904).getTime();
+            } else if (zone == null) {
+                return epochDay * DAY_MILLISECONDS + millisecondsInDay - fixedOffset;
+            } else {
+                LocalDateTime local = LocalDate.ofEpochDay(epochDay).atStartOfDay()
+                        .plusNanos(millisecondsInDay * 1000000L);
+                // Ambiguous local times are taken as standard time, as with a Calendar
+                return ZonedDateTime.ofLocal(local, zone, null).withLaterOffsetAtOverlap()
+                        .toInstant().toEpochMilli();
+            }
+        }
+    }
+
+    /**
+     * Converts epoch milliseconds to Excel dates. Dates before the start of the date system
+     * are converted to -1 (as done by POI).
+     */
+    public static double[] toExcelDates(long[] millis, boolean date1904) {
+        double[] excelDates = new double[millis.length];
+        ZoneRules rules = getZoneRules();
+        boolean fixed = rules.isFixedOffset();
+        long fixedOffset = fixed ? rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000L : 0;
+
+        for (int i = 0; i < millis.length; i++) {
+            if (millis[i] < MIN_EPOCH_MILLIS) {
+                excelDates[i] = DateUtil.getExcelDate(new Date(millis[i]), date1904);
+                continue;
+            }
+            long offset = fixed ? fixedOffset :
+                    rules.getOffset(Instant.ofEpochMilli(millis[i])).getTotalSeconds() * 1000L;
+            long localMillis = millis[i] + offset;
+            long epochDay = Math.floorDiv(localMillis, DAY_MILLISECONDS);
+            double fraction = Math.floorMod(localMillis, DAY_MILLISECONDS) / (double) DAY_MILLISECONDS;
+
+            double value;
+            if (date1904) {
+                if (epochDay < EPOCH_DAY_1904) {
+                    value = -1;
+                } else {
+                    value = fraction + (epochDay - EPOCH_DAY_1904);
+                }
+            } else {
+                // 1899-12-31 corresponds to day 0
+                if (epochDay < EPOCH_DAY_1900 - 1) {
+                    value = -1;
+                } else {
+                    value = fraction + (epochDay - EPOCH_DAY_1900 + 1);
+                    if (value >= 60) value++;
+                }
+            }
+            excelDates[i] = value;
+        }
+
+        return excelDates;
+    }
+
+    private static ZoneId getZoneId() {
+        return LocaleUtil.getUserTimeZone().toZoneId();
+    }
+
+    private static ZoneRules getZoneRules() {
+        return getZoneId().getRules();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.utils;
+
+/**
+ * Parsing of decimal numbers without exceptions on invalid input. Accepts the same (decimal) notation as
+ * Double.parseDouble, optionally with a different decimal separator, and gives the same results.
+ */
+public abstract class NumberParser {
+
+    // Powers of ten which are exactly representable as doubles
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Maximum number of significant digits for which the mantissa is exactly representable
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    /**
+     * @return The number represented by s; NaN if s does not represent a number (or represents NaN)
+     */
+    public static double parseDouble(String s) {
+        return parseDouble(s, '.');
+    }
+
+    /**
+     * Parses s using the specified decimal separator; no grouping separators are allowed. Type suffixes
+     * (e.g. "1.5d") and hexadecimal notation are only accepted with '.' as decimal separator.
+     *
+     * @return The number represented by s; NaN if s does not represent a number (or represents NaN)
+     */
+    public static double parseDouble(String s, char decimalSeparator) {
+        // Leading and trailing whitespace is ignored (as done by String.trim)
+        int start = 0;
+        int end = s.length();
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+            negative = s.charAt(i) == '-';
+            i++;
+        }
+        if (i == end) return Double.NaN;
+        if (s.startsWith("Infinity", i) && i + 8 == end)
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        if (decimalSeparator == '.' && isHexPrefix(s, i, end)) return parseHex(s);
+
+        long mantissa = 0;
+        int significant = 0;
+        int scale = 0;
+        boolean digits = false;
+        char c;
+        for (; i < end && (c = s.charAt(i)) >= '0' && c <= '9'; i++) {
+            digits = true;
+            if (c != '0' || significant > 0) {
+                if (++significant <= MAX_EXACT_DIGITS) mantissa = 10 * mantissa + (c - '0');
+                else scale++;
+            }
+        }
+        if (i < end && s.charAt(i) == decimalSeparator) {
+            for (i++; i < end && (c = s.charAt(i)) >= '0' && c <= '9'; i++) {
+                digits = true;
+                if (c != '0' || significant > 0) {
+                    if (++significant <= MAX_EXACT_DIGITS) {
+                        mantissa = 10 * mantissa + (c - '0');
+                        scale--;
+                    }
+                } else {
+                    scale--;
+                }
+            }
+        }
+        if (!digits) return Double.NaN;
+
+        int exponent = 0;
+        if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            boolean negativeExponent = false;
+            if (++i < end && (s.charAt(i) == '+' || s.charAt(i) == '-')) {
+                negativeExponent = s.charAt(i) == '-';
+                i++;
+            }
+            int exponentStart = i;
+            for (; i < end && (c = s.charAt(i)) >= '0' && c <= '9'; i++) {
+                // Larger exponents over- or underflow anyway
+                if (exponent < 100000) exponent = 10 * exponent + (c - '0');
+            }
+            if (i == exponentStart) return Double.NaN;
+            if (negativeExponent) exponent = -exponent;
+        }
+        if (decimalSeparator == '.' && i < end && "fFdD".indexOf(s.charAt(i)) >= 0) i++;
+        if (i != end) return Double.NaN;
+
+        double value;
+        int power = scale + exponent;
+        if (mantissa == 0) {
+            value = 0.0;
+        } else if (significant <= MAX_EXACT_DIGITS && Math.abs(power) < POWERS_OF_TEN.length) {
+            // Both operands are exact, hence the result is correctly rounded
+            value = power >= 0 ? mantissa * POWERS_OF_TEN[power] : mantissa / POWERS_OF_TEN[-power];
+        } else {
+            // Valid input which cannot be converted exactly by the above
+            return Double.parseDouble(decimalSeparator == '.' ? s : s.replace(decimalSeparator, '.'));
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @return Whether s represents NaN (as accepted by Double.parseDouble)
+     */
+    public static boolean isNaN(String s) {
+        String t = s.trim();
+        return t.equals("NaN") || t.equals("+NaN") || t.equals("-NaN");
+    }
+
+    private static boolean isHexPrefix(String s, int i, int end) {
+        return i + 1 < end && s.charAt(i) == '0' && (s.charAt(i + 1) == 'x' || s.charAt(i + 1) == 'X');
+    }
+
+    private static double parseHex(String s) {
+        try {
+            return Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -20,30 +20,56 @@
 
 package com.miraisolutions.xlconnect.utils;
 
+import java.text.Format;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatterBuilder;
-import java.time.format.DateTimeParseException;
 import java.time.format.TextStyle;
 import java.time.temporal.ChronoField;
 import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Inspired by <a href="http://code.google.com/p/renjin/source/browse/trunk/core/src/main/java/r/base/Time.java?spec=svn379&r=379">Time.java</a>
  */
 public final class RPOSIXDateTimeFormatter implements DateTimeFormatter {
 
-    private final Map<String, java.time.format.DateTimeFormatter> cache = new HashMap<>();
+    // Maximum number of compiled formats kept; the cache is reset once exceeded
+    private static final int MAX_CACHED_FORMATS = 64;
 
-    private java.time.format.DateTimeFormatter getFormatter(String format) {
-        if (cache.containsKey(format))
-            return cache.get(format);
+    private final Map<String, CompiledFormat> cache = new ConcurrentHashMap<>();
 
+    /**
+     * Compiled format together with its java.text.Format view used for exception-free parsing
+     */
+    private static final class CompiledFormat {
+        private final java.time.format.DateTimeFormatter formatter;
+        private final Format format;
+
+        private CompiledFormat(java.time.format.DateTimeFormatter formatter) {
+            this.formatter = formatter;
+            this.format = formatter.toFormat();
+        }
+    }
+
+    private CompiledFormat getFormat(String format) {
+        CompiledFormat compiled = cache.get(format);
+        if (compiled == null) {
+            compiled = new CompiledFormat(compile(format));
+            if (cache.size() >= MAX_CACHED_FORMATS) cache.clear();
+            cache.put(format, compiled);
+        }
+        return compiled;
+    }
+
+    private static java.time.format.DateTimeFormatter compile(String format) {
         DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
 
         for (int i = 0; i < format.length(); ++i) {
@@ -180,27 +206,81 @@ public final class RPOSIXDateTimeFormatter implements DateTimeFormatter {
                 builder.appendLiteral(format.substring(i, i + 1));
             }
         }
-        java.time.format.DateTimeFormatter formatter = builder.toFormatter();
-        cache.put(format, formatter);
-        return formatter;
+        return builder.toFormatter();
     }
 
     public String format(Date d, String format) {
-        StringBuffer sb = new StringBuffer();
-        getFormatter(format).formatTo(LocalDateTime.ofInstant(d.toInstant(), ZoneId.systemDefault()), sb);
-        return sb.toString();
+        return getFormat(format).formatter.format(LocalDateTime.ofInstant(d.toInstant(), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Formats whole columns; the time zone is resolved once per call and a single builder is reused
+     */
+    @Override
+    public String[] format(long[] epochMillis, String format) {
+        java.time.format.DateTimeFormatter formatter = getFormat(format).formatter;
+        ZoneId zone = ZoneId.systemDefault();
+        String[] result = new String[epochMillis.length];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < epochMillis.length; i++) {
+            sb.setLength(0);
+            formatter.formatTo(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis[i]), zone), sb);
+            result[i] = sb.toString();
+        }
+        return result;
     }
 
     public Date parse(String s, String format) {
-        java.time.format.DateTimeFormatter formatter = getFormatter(format);
-        ZonedDateTime zoned;
+        return new Date(toEpochMillis(getFormat(format).formatter.parse(s), ZoneId.systemDefault()));
+    }
+
+    @Override
+    public long parseMillis(String s, String format) {
+        return parseMillis(s, getFormat(format), ZoneId.systemDefault());
+    }
+
+    /**
+     * Parses whole columns; the time zone is resolved once per call
+     */
+    @Override
+    public long[] parse(String[] s, String format) {
+        CompiledFormat compiled = getFormat(format);
+        ZoneId zone = ZoneId.systemDefault();
+        long[] result = new long[s.length];
+        for (int i = 0; i < s.length; i++) {
+            result[i] = s[i] == null ? INVALID : parseMillis(s[i], compiled, zone);
+        }
+        return result;
+    }
+
+    /**
+     * Parses without throwing exceptions for strings that do not match the format
+     */
+    private static long parseMillis(String s, CompiledFormat compiled, ZoneId zone) {
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor parsed = (TemporalAccessor) compiled.format.parseObject(s, position);
+        if (parsed == null || position.getIndex() < s.length()) return INVALID;
         try {
-            zoned = ZonedDateTime.parse(s, formatter);
-        } catch (DateTimeParseException e) {
-            TemporalAccessor parsed = formatter.parse(s);
-            zoned = ZonedDateTime.of(LocalDateTime.from(parsed), ZoneId.systemDefault());
+            return toEpochMillis(parsed, zone);
+        } catch (DateTimeException e) {
+            // Incomplete date/time
+            return INVALID;
+        }
+    }
+
+    private static long toEpochMillis(TemporalAccessor parsed, ZoneId defaultZone) {
+        ZonedDateTime zoned = null;
+        if (parsed.query(TemporalQueries.zone()) != null) {
+            try {
+                zoned = ZonedDateTime.from(parsed);
+            } catch (DateTimeException e) {
+                // Incomplete date/time with zone information; resolved as local date/time below
+            }
+        }
+        if (zoned == null) {
+            zoned = ZonedDateTime.of(LocalDateTime.from(parsed), defaultZone);
         }
-        return new Date(Instant.from(zoned).toEpochMilli());
+        return zoned.toInstant().toEpochMilli();
     }
 
 }
@@ -0,0 +1,137 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import com.miraisolutions.xlconnect.data.Column;
+import com.miraisolutions.xlconnect.data.DataFrame;
+import com.miraisolutions.xlconnect.data.DataType;
+import com.zaxxer.sparsebits.SparseBitSet;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static com.miraisolutions.xlconnect.WorkbookFolder.dataFrame;
+import static com.miraisolutions.xlconnect.WorkbookFolder.numericColumn;
+import static com.miraisolutions.xlconnect.WorkbookFolder.stringColumn;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CellStyleTest {
+
+    private static final String[] FILES = {"styles.xls", "styles.xlsx"};
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    private static DataFrame newData() {
+        return dataFrame(new String[]{"x", "y", "d"}, numericColumn(1, 2), stringColumn("a", "b"),
+                new Column(new long[]{1349049600000L, 1349136000000L}, 2, new SparseBitSet(), DataType.DateTime));
+    }
+
+    private static org.apache.poi.ss.usermodel.Workbook reopen(Workbook workbook) throws IOException {
+        return WorkbookFactory.create(new ByteArrayInputStream(workbook.toByteArray()));
+    }
+
+    private static int getNumCellStyles(Workbook workbook) throws IOException {
+        try (org.apache.poi.ss.usermodel.Workbook wb = reopen(workbook)) {
+            return wb.getNumCellStyles();
+        }
+    }
+
+    @Test
+    public void repeatedWritesDoNotAddCellStyles() throws IOException {
+        for (String file : FILES) {
+            for (StyleAction styleAction : new StyleAction[]{StyleAction.STYLE_NAME_PREFIX, StyleAction.DATA_FORMAT_ONLY}) {
+                try (Workbook workbook = Workbook.getWorkbook(new File(folder.getRoot(), file), true)) {
+                    workbook.createSheet("data");
+                    workbook.setStyleAction(styleAction);
+                    workbook.setStyleNamePrefix("custom");
+                    workbook.createCellStyle("custom.Header").setWrapText(true);
+                    workbook.createCellStyle("custom.Column.x").setDataFormat("0.00");
+                    workbook.setDataFormat(DataType.Numeric, "0.000");
+
+                    workbook.writeWorksheet(newData(), "data", 0, 0, true, false);
+                    int numCellStyles = getNumCellStyles(workbook);
+                    workbook.writeWorksheet(newData(), "data", 0, 0, true, false);
+                    assertEquals(file + " " + styleAction, numCellStyles, getNumCellStyles(workbook));
+                    workbook.writeWorksheet(newData(), "data", 5, 1, true, false);
+                    assertEquals(file + " " + styleAction, numCellStyles, getNumCellStyles(workbook));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void createdCellStylesAreIndexed() throws IOException {
+        for (String file : FILES) {
+            File f = new File(folder.getRoot(), file);
+            try (Workbook workbook = Workbook.getWorkbook(f, true)) {
+                // The first lookup indexes the existing named styles
+                assertNull(workbook.getCellStyle("custom"));
+                workbook.createCellStyle("custom").setDataFormat("0.0");
+                assertNotNull(file, workbook.getCellStyle("custom"));
+                assertTrue(file, workbook.existsCellStyle("custom"));
+                try {
+                    workbook.createCellStyle("custom");
+                    fail("Cell style names must be unique");
+                } catch (IllegalArgumentException e) {
+                    // expected
+                }
+                workbook.save();
+            }
+            try (Workbook workbook = Workbook.getWorkbook(f, false)) {
+                assertTrue(file, workbook.existsCellStyle("custom"));
+            }
+        }
+    }
+
+    @Test
+    public void dataFormatOnlyKeepsSharedStyles() throws IOException {
+        for (String file : FILES) {
+            try (Workbook workbook = Workbook.getWorkbook(new File(folder.getRoot(), file), true)) {
+                workbook.createSheet("data");
+                workbook.setStyleAction(StyleAction.DATA_FORMAT_ONLY);
+                workbook.writeWorksheet(newData(), "data", 0, 0, true, false);
+                try (org.apache.poi.ss.usermodel.Workbook wb = reopen(workbook)) {
+                    // Cells initially share the default style; applying the DateTime data format must not modify it
+                    assertEquals(file, "General", wb.getCellStyleAt(0).getDataFormatString());
+                    Sheet sheet = wb.getSheet("data");
+                    for (int i = 0; i < 3; i++) {
+                        Row row = sheet.getRow(i);
+                        assertEquals(file, "General", row.getCell(0).getCellStyle().getDataFormatString());
+                        assertEquals(file, "General", row.getCell(1).getCellStyle().getDataFormatString());
+                        assertEquals(file, i == 0 ? "General" : "mm/dd/yyyy hh:mm:ss",
+                                row.getCell(2).getCellStyle().getDataFormatString());
+                    }
+                }
+            }
+        }
+    }
+}
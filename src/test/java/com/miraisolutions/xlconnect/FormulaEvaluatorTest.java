@@ -0,0 +1,89 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import com.miraisolutions.xlconnect.data.ReadStrategy;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.miraisolutions.xlconnect.WorkbookFolder.dataFrame;
+import static com.miraisolutions.xlconnect.WorkbookFolder.numericColumn;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Formula results read without taking cached values must reflect all changes made through the workbook,
+ * although the formula evaluator is kept across reads
+ */
+public class FormulaEvaluatorTest {
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    private static double evaluate(Workbook workbook, int row, int col) {
+        return workbook.readWorksheet("data", row, col, row, col, false, ReadStrategy.DEFAULT, null, false, "",
+                false, null, false, false).getColumn(0).getNumericData()[0];
+    }
+
+    private static void write(Workbook workbook, int row, int col, double... values) {
+        workbook.writeWorksheet(dataFrame(new String[]{"x"}, numericColumn(values)), "data", row, col, false, true);
+    }
+
+    @Test
+    public void evaluatesAfterChanges() throws IOException {
+        for (String name : new String[]{"evaluator.xls", "evaluator.xlsx"}) {
+            try (Workbook workbook = Workbook.getWorkbook(new File(folder.getRoot(), name), true)) {
+                workbook.createSheet("data");
+                write(workbook, 1, 0, 1, 2, 3);
+                workbook.setCellFormula("data", 0, 2, "SUM(A2:A10)");
+                workbook.setCellFormula("data", 0, 3, "SUM(B1:B200)");
+                assertEquals(name, 6, evaluate(workbook, 0, 2), 0);
+
+                // Updated cells
+                write(workbook, 1, 0, 10, 20, 30);
+                assertEquals(name, 60, evaluate(workbook, 0, 2), 0);
+
+                // New rows beyond the last row
+                write(workbook, 4, 0, 5);
+                assertEquals(name, 65, evaluate(workbook, 0, 2), 0);
+
+                // New formula depending on another cell
+                workbook.setCellFormula("data", 5, 0, "2*A2");
+                assertEquals(name, 85, evaluate(workbook, 0, 2), 0);
+
+                // Deleted cells
+                workbook.clearRange("data", new int[]{1, 0, 1, 0});
+                assertEquals(name, 55, evaluate(workbook, 0, 2), 0);
+
+                // More changed cells than the evaluator is notified about (10000) discard the evaluator
+                for (int k = 1; k <= 101; k++) {
+                    write(workbook, 1, 1, new double[100]);
+                    workbook.setCellFormula("data", 1, 1, Integer.toString(k));
+                }
+                assertEquals(name, 101, evaluate(workbook, 0, 3), 0);
+                write(workbook, 3, 0, 1);
+                assertEquals(name, 26, evaluate(workbook, 0, 2), 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import com.miraisolutions.xlconnect.data.Column;
+import com.miraisolutions.xlconnect.data.DataFrame;
+import com.miraisolutions.xlconnect.data.DataType;
+import com.zaxxer.sparsebits.SparseBitSet;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class InMemoryWorkbookTest {
+
+    private static byte[] createContent(String filename) throws IOException {
+        // The file is only used to determine the format; it is never written
+        try (Workbook workbook = Workbook.getWorkbook(new File(filename), true)) {
+            DataFrame data = new DataFrame();
+            data.addColumn("x", new Column(new double[]{1, 2, 3}, 3, new SparseBitSet(), DataType.Numeric));
+            workbook.createSheet("data");
+            workbook.writeWorksheet(data, "data", true, false);
+            return workbook.toByteArray();
+        }
+    }
+
+    private static void assertData(Workbook workbook) {
+        assertArrayEquals(new double[]{1, 2, 3}, workbook.readWorksheet("data", true).getColumn(0).getNumericData(), 0);
+    }
+
+    @Test
+    public void roundTripsBytes() throws IOException {
+        for (String filename : new String[]{"memory.xlsx", "memory.xls"}) {
+            byte[] content = createContent(filename);
+            try (Workbook workbook = Workbook.getWorkbook(content, null)) {
+                assertData(workbook);
+                try (Workbook copy = Workbook.getWorkbook(workbook.toByteArray(), null)) {
+                    assertData(copy);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void roundTripsChannels() throws IOException {
+        byte[] content = createContent("channel.xlsx");
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (Workbook workbook = Workbook.getWorkbook(Channels.newChannel(new ByteArrayInputStream(content)), null)) {
+            assertData(workbook);
+            workbook.save(Channels.newChannel(os));
+        }
+        try (Workbook workbook = Workbook.getWorkbook(new ByteArrayInputStream(os.toByteArray()), null)) {
+            assertData(workbook);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresFileForSaving() throws IOException {
+        try (Workbook workbook = Workbook.getWorkbook(createContent("nofile.xlsx"), null)) {
+            workbook.save();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.miraisolutions.xlconnect;
+
+import com.miraisolutions.xlconnect.data.DataFrame;
+import com.miraisolutions.xlconnect.data.ReadStrategy;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.miraisolutions.xlconnect.WorkbookFolder.dataFrame;
+import static com.miraisolutions.xlconnect.WorkbookFolder.numericColumn;
+import static com.miraisolutions.xlconnect.WorkbookFolder.stringColumn;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class IncrementalSaveTest {
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    private File file;
+    private File original;
+
+    @Before
+    public void createWorkbook() throws IOException {
+        file = folder.newWorkbookFile("incremental.xlsx", wb -> {
+            for (String name : new String[]{"a", "b", "c"}) {
+                Sheet sheet = wb.createSheet(name);
+                for (int i = 0; i < 100; i++) {
+                    sheet.createRow(i).createCell(0).setCellValue(name + i);
+                    sheet.getRow(i).createCell(1).setCellValue(i);
+                }
+            }
+            wb.getSheet("c").getRow(0).createCell(2).setCellFormula("B1+1");
+        });
+        original = folder.newFile("original.xlsx");
+        Files.copy(file.toPath(), original.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static DataFrame newData() {
+        return dataFrame(new String[]{"x", "y"}, numericColumn(1.5, 2.5), stringColumn("new", "b1"));
+    }
+
+    private static byte[] rawEntry(File file, String name) throws IOException {
+        try (ZipFile zip = ZipFile.builder().setFile(file).get(); InputStream is = zip.getRawInputStream(zip.getEntry(name))) {
+            return IOUtils.toByteArray(is);
+        }
+    }
+
+    private void assertCopied(String name) throws IOException {
+        assertArrayEquals(rawEntry(original, name), rawEntry(file, name));
+    }
+
+    @Test
+    public void copiesUnmodifiedSheets() throws IOException {
+        try (Workbook workbook = Workbook.getWorkbook(file, false)) {
+            workbook.setIncrementalSave(true);
+            workbook.writeWorksheet(newData(), "b", 0, 3, true, false);
+            workbook.save();
+
+            assertCopied("xl/worksheets/sheet1.xml");
+            assertCopied("xl/worksheets/sheet3.xml");
+            assertFalse(Arrays.equals(rawEntry(original, "xl/worksheets/sheet2.xml"),
+                    rawEntry(file, "xl/worksheets/sheet2.xml")));
+
+            try (XSSFWorkbook wb = new XSSFWorkbook(new FileInputStream(file))) {
+                assertEquals("a99", wb.getSheet("a").getRow(99).getCell(0).getStringCellValue());
+                assertEquals("c42", wb.getSheet("c").getRow(42).getCell(0).getStringCellValue());
+                assertEquals("b5", wb.getSheet("b").getRow(5).getCell(0).getStringCellValue());
+                assertEquals("new", wb.getSheet("b").getRow(1).getCell(4).getStringCellValue());
+                assertEquals(2.5, wb.getSheet("b").getRow(2).getCell(3).getNumericCellValue(), 0);
+            }
+
+            // Saving again after further modifications is based on the saved file
+            workbook.createSheet("d");
+            workbook.writeWorksheet(newData(), "d", true, false);
+            workbook.save();
+        }
+        try (Workbook workbook = Workbook.getWorkbook(file, false)) {
+            DataFrame d = workbook.readWorksheet("d", true);
+            assertArrayEquals(new double[]{1.5, 2.5}, d.getColumn(0).getNumericData(), 0);
+        }
+    }
+
+    @Test
+    public void copiesSharedStringsWithoutNewStrings() throws IOException {
+        try (Workbook workbook = Workbook.getWorkbook(file, false)) {
+            workbook.setIncrementalSave(true);
+            workbook.writeWorksheet(dataFrame(new String[]{"x"}, numericColumn(1, 2)), "b", 0, 3, false, false);
+            workbook.save();
+            assertCopied("xl/sharedStrings.xml");
+
+            // Existing strings are counted again, so the shared strings table changes
+            workbook.writeWorksheet(dataFrame(new String[]{"y"}, stringColumn("a1")), "b", 0, 3, false, false);
+            workbook.save();
+            assertFalse(Arrays.equals(rawEntry(original, "xl/sharedStrings.xml"),
+                    rawEntry(file, "xl/sharedStrings.xml")));
+        }
+        try (XSSFWorkbook wb = new XSSFWorkbook(new FileInputStream(file))) {
+            assertEquals("a1", wb.getSheet("b").getRow(0).getCell(3).getStringCellValue());
+            assertEquals("b1", wb.getSheet("b").getRow(1).getCell(0).getStringCellValue());
+        }
+    }
+
+    @Test
+    public void readingFormulasDoesNotModifySheets() throws IOException {
+        try (Workbook workbook = Workbook.getWorkbook(file, false)) {
+            workbook.setIncrementalSave(true);
+            assertEquals("B1+1", workbook.getCellFormula("c", 0, 2));
+            try {
+                workbook.getCellFormula("c", 200, 5);
+                fail("Missing cells do not contain a formula");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+            workbook.save();
+            assertCopied("xl/worksheets/sheet3.xml");
+        }
+    }
+
+    @Test
+    public void streamingReadsModifiedSheetsFromDom() throws IOException {
+        try (Workbook workbook = Workbook.getWorkbook(file, false)) {
+            workbook.writeWorksheet(newData(), "a", 0, 0, true, false);
+            workbook.createSheet("new");
+            workbook.writeWorksheet(newData(), "new", true, false);
+
+            for (String sheet : new String[]{"a", "new"}) {
+                DataFrame data = workbook.readWorksheet(sheet, 0, 0, 2, 1, true, ReadStrategy.STREAMING, null, false, "",
+                        true, null, false, false);
+                assertArrayEquals(new double[]{1.5, 2.5}, data.getColumn(0).getNumericData(), 0);
+                assertArrayEquals(new String[]{"new", "b1"}, data.getColumn(1).getStringData());
+            }
+        }
+    }
+
+    // Rewrites the file with all entries stored uncompressed; writing a workbook as a whole compresses them again
+    private static void storeUncompressed(File file) throws IOException {
+        File stored = new File(file.getPath() + ".stored");
+        try (ZipFile zip = ZipFile.builder().setFile(file).get(); ZipArchiveOutputStream zos = new ZipArchiveOutputStream(stored)) {
+            for (ZipArchiveEntry entry : Collections.list(zip.getEntries())) {
+                ZipArchiveEntry copy = new ZipArchiveEntry(entry.getName());
+                copy.setMethod(ZipArchiveEntry.STORED);
+                zos.putArchiveEntry(copy);
+                try (InputStream is = zip.getInputStream(entry)) {
+                    IOUtils.copy(is, zos);
+                }
+                zos.closeArchiveEntry();
+            }
+        }
+        Files.move(stored.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int entryMethod(File file, String name) throws IOException {
+        try (ZipFile zip = ZipFile.builder().setFile(file).get()) {
+            return zip.getEntry(name).getMethod();
+        }
+    }
+
+    @Test
+    public void savesWholeWorkbookWithoutIncrementalSupport() throws IOException {
+        storeUncompressed(file);
+        boolean supported = IncrementalXlsxWriter.enabled;
+        for (boolean enabled : new boolean[]{true, false}) {
+            IncrementalXlsxWriter.enabled = enabled;
+            try (Workbook workbook = Workbook.getWorkbook(file, false)) {
+                workbook.setIncrementalSave(true);
+                workbook.writeWorksheet(newData(), "b", 0, 3, true, false);
+                workbook.save();
+            } finally {
+                IncrementalXlsxWriter.enabled = supported;
+            }
+            assertEquals(enabled ? ZipArchiveEntry.STORED : ZipArchiveEntry.DEFLATED,
+                    entryMethod(file, "xl/worksheets/sheet1.xml"));
+            assertEquals(ZipArchiveEntry.DEFLATED, entryMethod(file, "xl/worksheets/sheet2.xml"));
+            try (XSSFWorkbook wb = new XSSFWorkbook(new FileInputStream(file))) {
+                assertEquals("a99", wb.getSheet("a").getRow(99).getCell(0).getStringCellValue());
+                assertEquals("new", wb.getSheet("b").getRow(1).getCell(4).getStringCellValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import com.miraisolutions.xlconnect.data.DataFrame;
+import com.miraisolutions.xlconnect.data.ReadStrategy;
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static com.miraisolutions.xlconnect.WorkbookFolder.assertDataFrameEquals;
+import static com.miraisolutions.xlconnect.WorkbookFolder.dataFrame;
+import static com.miraisolutions.xlconnect.WorkbookFolder.numericColumn;
+import static com.miraisolutions.xlconnect.WorkbookFolder.stringColumn;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MultiRegionReadTest {
+
+    private static final String[] SHEETS = {"a", "b", "c"};
+    private static final String[] NAMES = {"regionA", "regionB", "regionC"};
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    /**
+     * Creates sheets a, b and c with a data region each; regionB is scoped to sheet b, the other names are global
+     */
+    public static File createRegions(WorkbookFolder folder) throws IOException {
+        return folder.newWorkbookFile("regions.xlsx", wb -> {
+            for (int k = 0; k < SHEETS.length; k++) {
+                Sheet sheet = wb.createSheet(SHEETS[k]);
+                Row header = sheet.createRow(1);
+                header.createCell(1).setCellValue("num");
+                header.createCell(2).setCellValue("str");
+                for (int i = 0; i < 3 + k; i++) {
+                    Row row = sheet.createRow(i + 2);
+                    row.createCell(1).setCellValue(10 * k + i);
+                    if (i != 1) row.createCell(2).setCellValue(SHEETS[k] + i);
+                }
+                Name name = wb.createName();
+                name.setNameName(NAMES[k]);
+                if (k == 1) name.setSheetIndex(k);
+                name.setRefersToFormula(SHEETS[k] + "!$B$2:$C$" + (5 + k));
+            }
+        });
+    }
+
+    @Test
+    public void readNamedRegionsMatchesSingleReads() throws IOException {
+        try (Workbook workbook = Workbook.getWorkbook(createRegions(folder), false)) {
+            // Modified sheets are not streamed, so reading with the STREAMING strategy mixes both
+            workbook.writeWorksheet(dataFrame(new String[]{"str"}, stringColumn("x", "y")), "a", 2, 2, false, false);
+            workbook.setParallelism(2);
+            for (ReadStrategy readStrategy : new ReadStrategy[]{ReadStrategy.DEFAULT, ReadStrategy.STREAMING}) {
+                ResultWithAttributes<DataFrame[]> result = workbook.readNamedRegions(NAMES, true, null, false, "",
+                        true, null, readStrategy, null);
+                assertEquals(NAMES.length, result.getValue().length);
+                for (int i = 0; i < NAMES.length; i++) {
+                    ResultWithAttributes<DataFrame> single = workbook.readNamedRegion(NAMES[i], true, null, false, "",
+                            true, null, readStrategy, null);
+                    assertDataFrameEquals(single.getValue(), result.getValue()[i]);
+                    assertEquals(single.getAttributeValue("worksheetScope")[0],
+                            result.getAttributeValue("worksheetScope")[i]);
+                }
+                assertArrayEquals(new String[]{"", "b", ""}, result.getAttributeValue("worksheetScope"));
+                assertArrayEquals(new String[]{"x", "y", "a2"}, result.getValue()[0].getColumn(1).getStringData());
+
+                // Names are looked up in the specified scope
+                result = workbook.readNamedRegions(new String[]{"regionB"}, true, null, false, "", true, null,
+                        readStrategy, "b");
+                assertArrayEquals(new String[]{"b"}, result.getAttributeValue("worksheetScope"));
+            }
+        }
+    }
+
+    @Test
+    public void readWorksheetsMatchesSingleReads() throws IOException {
+        try (Workbook workbook = Workbook.getWorkbook(createRegions(folder), false)) {
+            workbook.writeWorksheet(dataFrame(new String[]{"num"}, numericColumn(7)), "c", 7, 1, false, false);
+            workbook.setParallelism(2);
+            for (ReadStrategy readStrategy : new ReadStrategy[]{ReadStrategy.DEFAULT, ReadStrategy.STREAMING}) {
+                DataFrame[] result = workbook.readWorksheets(SHEETS, -1, -1, -1, -1, true, readStrategy, null,
+                        false, "", true, null, true, true);
+                assertEquals(SHEETS.length, result.length);
+                for (int i = 0; i < SHEETS.length; i++) {
+                    DataFrame single = workbook.readWorksheet(SHEETS[i], -1, -1, -1, -1, true, readStrategy, null,
+                            false, "", true, null, true, true);
+                    assertDataFrameEquals(single, result[i]);
+                    assertEquals(3 + i + (i == 2 ? 1 : 0), result[i].rows());
+                }
+            }
+        }
+    }
+}
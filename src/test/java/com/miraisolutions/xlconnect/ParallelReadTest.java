@@ -0,0 +1,103 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import com.miraisolutions.xlconnect.data.DataFrame;
+import com.miraisolutions.xlconnect.data.DataType;
+import com.miraisolutions.xlconnect.data.ReadStrategy;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.miraisolutions.xlconnect.WorkbookFolder.assertDataFrameEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ParallelReadTest {
+
+    private static final int ROWS = 200;
+    private static final int COLUMNS = 8;
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    // Columns with a mix of numbers, strings, booleans, numeric strings, error cells and blanks
+    private File createMixedWorkbook() throws IOException {
+        return folder.newWorkbookFile("mixed.xlsx", wb -> {
+            Sheet sheet = wb.createSheet("data");
+            Row header = sheet.createRow(0);
+            for (int j = 0; j < COLUMNS; j++) {
+                header.createCell(j).setCellValue("c" + j);
+            }
+            for (int i = 1; i <= ROWS; i++) {
+                Row row = sheet.createRow(i);
+                for (int j = 0; j < COLUMNS; j++) {
+                    int kind = (i * (j + 1) + j) % 11;
+                    if (kind == 10) continue;
+                    Cell cell = row.createCell(j);
+                    if (kind < 5) cell.setCellValue(i + j / 10.0);
+                    else if (kind < 7) cell.setCellValue("s" + i);
+                    else if (kind == 7) cell.setCellValue(i % 2 == 0);
+                    else if (kind == 8) cell.setCellValue(Integer.toString(i));
+                    else cell.setCellErrorValue(FormulaError.DIV0.getCode());
+                }
+            }
+        });
+    }
+
+    private static DataFrame read(Workbook workbook, ReadStrategy readStrategy, DataType type) {
+        DataType[] colTypes = null;
+        if (type != null) {
+            colTypes = new DataType[COLUMNS];
+            Arrays.fill(colTypes, type);
+        }
+        return workbook.readWorksheet("data", true, readStrategy, colTypes, true, "%Y-%m-%d");
+    }
+
+    @Test
+    public void parallelReadMatchesSequentialRead() throws IOException {
+        File file = createMixedWorkbook();
+        try (Workbook workbook = Workbook.getWorkbook(file, false)) {
+            for (ReadStrategy readStrategy : ReadStrategy.values()) {
+                for (DataType type : new DataType[]{null, DataType.Boolean, DataType.DateTime, DataType.Numeric}) {
+                    workbook.setParallelism(1);
+                    DataFrame expected = read(workbook, readStrategy, type);
+                    List<String> expectedWarnings = workbook.getAndClearWarnings();
+                    workbook.setParallelism(4);
+                    DataFrame actual = read(workbook, readStrategy, type);
+                    List<String> actualWarnings = workbook.getAndClearWarnings();
+
+                    assertDataFrameEquals(expected, actual);
+                    assertFalse(expectedWarnings.isEmpty());
+                    assertEquals(readStrategy + " " + type, expectedWarnings, actualWarnings);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import com.miraisolutions.xlconnect.data.DataFrame;
+import com.miraisolutions.xlconnect.data.ReadStrategy;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class ReadOnlyWorkbookTest {
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    private File createFile(String name) throws IOException {
+        return folder.newWorkbookFile(name, wb -> {
+            for (String sheetName : new String[]{"a", "b", "c"}) {
+                Sheet sheet = wb.createSheet(sheetName);
+                sheet.createRow(0).createCell(0).setCellValue("x");
+                for (int i = 1; i <= 10; i++) {
+                    sheet.createRow(i).createCell(0).setCellValue(sheetName.equals("b") ? 10 * i : i);
+                }
+            }
+        });
+    }
+
+    @Test
+    public void readsXlsxWithoutModifyingIt() throws IOException {
+        File file = createFile("readonly.xlsx");
+        byte[] original = Files.readAllBytes(file.toPath());
+
+        try (Workbook workbook = Workbook.getWorkbook(file, null, false, true)) {
+            assertArrayEquals(new String[]{"a", "b", "c"}, workbook.getSheets());
+            for (ReadStrategy strategy : new ReadStrategy[]{ReadStrategy.STREAMING, ReadStrategy.DEFAULT}) {
+                DataFrame data = workbook.readWorksheet("b", true, strategy, null, false, "");
+                assertEquals(10, data.rows());
+                assertEquals(100.0, data.getColumn(0).getNumericData()[9], 0);
+            }
+            DataFrame c = workbook.readWorksheet("c", true);
+            assertEquals(10.0, c.getColumn(0).getNumericData()[9], 0);
+
+            try {
+                workbook.save();
+                fail("Read-only workbooks must not be saved");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        assertArrayEquals(original, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    public void readsXls() throws IOException {
+        File file = createFile("readonly.xls");
+        try (Workbook workbook = Workbook.getWorkbook(file, null, false, true)) {
+            DataFrame data = workbook.readWorksheet("b", true);
+            assertEquals(100.0, data.getColumn(0).getNumericData()[9], 0);
+        }
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void doesNotCreateReadOnlyWorkbooks() throws IOException {
+        File file = new File(folder.getRoot(), "missing.xlsx");
+        try {
+            Workbook.getWorkbook(file, null, true, true);
+        } finally {
+            assertFalse(file.exists());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import com.miraisolutions.xlconnect.data.DataFrame;
+import com.miraisolutions.xlconnect.data.SheetExtent;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+
+import static com.miraisolutions.xlconnect.WorkbookFolder.dataFrame;
+import static com.miraisolutions.xlconnect.WorkbookFolder.numericColumn;
+import static com.miraisolutions.xlconnect.WorkbookFolder.stringColumn;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the extent queries answered by the sheet extent index against full scans of the saved worksheet.
+ */
+public class SheetExtentIndexTest {
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    private static DataFrame newData() {
+        return dataFrame(new String[]{"x", "y", "z"},
+                numericColumn(1, 2, 3, 4),
+                stringColumn("a", "b", "c", "d"),
+                numericColumn(5, 6, 7, 8));
+    }
+
+    private static int scanLastColumn(Sheet sheet) {
+        int lastColumn = 1;
+        for (int i = 0; i < sheet.getLastRowNum(); ++i) {
+            Row row = sheet.getRow(i);
+            if (row != null && row.getLastCellNum() > lastColumn) lastColumn = row.getLastCellNum();
+        }
+        return lastColumn - 1;
+    }
+
+    private static int scanFirstColumn(Sheet sheet) {
+        int firstCol = Integer.MAX_VALUE;
+        for (int i = 0; i < sheet.getLastRowNum(); i++) {
+            Row row = sheet.getRow(i);
+            if (row != null && row.getFirstCellNum() >= 0 && row.getFirstCellNum() < firstCol)
+                firstCol = row.getFirstCellNum();
+        }
+        return firstCol == Integer.MAX_VALUE ? 0 : firstCol;
+    }
+
+    private static void assertSameExtent(Workbook workbook, String sheetName) throws IOException {
+        try (org.apache.poi.ss.usermodel.Workbook saved =
+                     WorkbookFactory.create(new ByteArrayInputStream(workbook.toByteArray()))) {
+            Sheet sheet = saved.getSheet(sheetName);
+            assertEquals(scanLastColumn(sheet), workbook.getLastColumn(sheetName));
+            SheetExtent scan = SheetExtent.of(sheet);
+            int[][] limits = {{-1, -1, -1, -1}, {1, -1, -1, -1}, {-1, 1, -1, -1}, {-1, -1, 3, 1}, {0, 0, -2, -2}, {0, -1, 20, -1}, {0, 0, 30, 20}};
+            for (int[] l : limits) {
+                for (int fit = 0; fit < 4; fit++) {
+                    boolean autofitRow = (fit & 1) != 0, autofitCol = (fit & 2) != 0;
+                    assertArrayEquals(scan.getBoundingBox(l[0], l[1], l[2], l[3], autofitRow, autofitCol),
+                            workbook.getBoundingBox(sheetName, l[0], l[1], l[2], l[3], autofitRow, autofitCol));
+                }
+            }
+        }
+    }
+
+    private static void assertAppendsAtFirstColumn(Workbook workbook, String sheetName) throws IOException {
+        int expected;
+        try (org.apache.poi.ss.usermodel.Workbook saved =
+                     WorkbookFactory.create(new ByteArrayInputStream(workbook.toByteArray()))) {
+            expected = scanFirstColumn(saved.getSheet(sheetName));
+        }
+        int lastRow = workbook.getLastRow(sheetName);
+        workbook.appendWorksheet(newData(), sheetName, true);
+        int[] box = workbook.getBoundingBox(sheetName, lastRow + 1, -1, -1, -1, true, true);
+        assertEquals(expected, box[1]);
+        assertSameExtent(workbook, sheetName);
+    }
+
+    @Test
+    public void indexMatchesFullScanAfterUpdates() throws IOException {
+        try (Workbook workbook = Workbook.getWorkbook(new File(folder.getRoot(), "extent.xlsx"), true)) {
+            workbook.createSheet("data");
+            workbook.writeWorksheet(newData(), "data", 2, 3, true, false);
+            // Query once so that subsequent updates are applied to an existing index
+            assertSameExtent(workbook, "data");
+
+            workbook.writeWorksheet(newData(), "data", 10, 1, false, false);
+            assertSameExtent(workbook, "data");
+
+            workbook.clearRange("data", new int[]{2, 3, 4, 5});
+            assertSameExtent(workbook, "data");
+
+            workbook.setCellFormula("data", 15, 8, "A1+1");
+            assertSameExtent(workbook, "data");
+
+            workbook.clearRange("data", new int[]{15, 8, 15, 8});
+            assertSameExtent(workbook, "data");
+            assertAppendsAtFirstColumn(workbook, "data");
+
+            workbook.clearSheet("data");
+            assertSameExtent(workbook, "data");
+            assertAppendsAtFirstColumn(workbook, "data");
+        }
+    }
+
+    @Test
+    public void removedSheetsDoNotKeepTheirIndex() throws IOException {
+        try (Workbook workbook = Workbook.getWorkbook(new File(folder.getRoot(), "remove.xlsx"), true)) {
+            workbook.createSheet("other");
+            workbook.createSheet("data");
+            workbook.writeWorksheet(newData(), "data", 5, 5, true, false);
+            assertSameExtent(workbook, "data");
+
+            workbook.removeSheet("data");
+            workbook.createSheet("data");
+            workbook.writeWorksheet(newData(), "data", 0, 0, true, false);
+            assertSameExtent(workbook, "data");
+            assertAppendsAtFirstColumn(workbook, "data");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import com.miraisolutions.xlconnect.data.Column;
+import com.miraisolutions.xlconnect.data.DataFrame;
+import com.miraisolutions.xlconnect.data.DataType;
+import com.zaxxer.sparsebits.SparseBitSet;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static com.miraisolutions.xlconnect.WorkbookFolder.assertDataFrameEquals;
+import static com.miraisolutions.xlconnect.WorkbookFolder.dataFrame;
+import static com.miraisolutions.xlconnect.WorkbookFolder.numericColumn;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class StreamingWriteTest {
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    private static DataFrame newData() {
+        SparseBitSet missing = new SparseBitSet();
+        missing.set(1);
+        return dataFrame(new String[]{"num", "str", "date"},
+                new Column(new double[]{1.5, 0, 3}, 3, missing, DataType.Numeric),
+                new Column(new String[]{"a", null, "c"}, 3, missing, DataType.String),
+                new Column(new long[]{1349049600000L, 0, 1349136000000L}, 3, missing, DataType.DateTime));
+    }
+
+    @Test
+    public void streamedSheetRoundTrips() throws IOException {
+        File file = new File(folder.getRoot(), "streaming.xlsx");
+        DataFrame data = newData();
+        try (Workbook workbook = Workbook.getWorkbook(file, true)) {
+            workbook.setStyleAction(StyleAction.DATA_FORMAT_ONLY);
+            workbook.setDataFormat(DataType.Numeric, "0.00");
+            workbook.setMissingValue(new Object[]{"missing"});
+            // A small row access window such that rows are flushed while writing
+            workbook.writeWorksheetStreaming(data, "streamed", true, 1);
+            workbook.save();
+
+            // Saving again after a regular write to another sheet
+            workbook.createSheet("regular");
+            workbook.writeWorksheet(dataFrame(new String[]{"x"}, numericColumn(1, 2)), "regular", true, false);
+            workbook.save();
+        }
+
+        try (InputStream is = new FileInputStream(file); XSSFWorkbook wb = new XSSFWorkbook(is)) {
+            Sheet sheet = wb.getSheet("streamed");
+            assertEquals("0.00", sheet.getRow(1).getCell(0).getCellStyle().getDataFormatString());
+            assertEquals("mm/dd/yyyy hh:mm:ss", sheet.getRow(1).getCell(2).getCellStyle().getDataFormatString());
+            for (int j = 0; j < 3; j++) {
+                assertEquals(CellType.STRING, sheet.getRow(2).getCell(j).getCellType());
+                assertEquals("missing", sheet.getRow(2).getCell(j).getStringCellValue());
+            }
+        }
+
+        try (Workbook workbook = Workbook.getWorkbook(file, false)) {
+            assertArrayEquals(new String[]{"streamed", "regular"}, workbook.getSheets());
+            workbook.setMissingValue(new Object[]{"missing"});
+            assertDataFrameEquals(data, workbook.readWorksheet("streamed", true));
+            assertArrayEquals(new double[]{1, 2}, workbook.readWorksheet("regular", true).getColumn(0).getNumericData(), 0);
+        }
+    }
+}
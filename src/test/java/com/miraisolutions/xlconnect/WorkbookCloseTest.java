@@ -0,0 +1,112 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import com.miraisolutions.xlconnect.data.DataFrame;
+import com.miraisolutions.xlconnect.data.ReadStrategy;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static com.miraisolutions.xlconnect.WorkbookFolder.dataFrame;
+import static com.miraisolutions.xlconnect.WorkbookFolder.numericColumn;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class WorkbookCloseTest {
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    private static DataFrame newData() {
+        return dataFrame(new String[]{"x"}, numericColumn(1, 2, 3));
+    }
+
+    private static void assertClosed(Runnable action) {
+        try {
+            action.run();
+            fail("Closed workbooks must not be used");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void closedWorkbooksFailFast() throws IOException {
+        File file = new File(folder.getRoot(), "close.xlsx");
+        Workbook workbook = Workbook.getWorkbook(file, true);
+        workbook.createSheet("data");
+        workbook.writeWorksheet(newData(), "data", true, false);
+        workbook.writeWorksheetStreaming(newData(), "streamed", true, 100);
+        workbook.save();
+        byte[] saved = Files.readAllBytes(file.toPath());
+
+        Workbook.ChunkReader reader = workbook.openReader("data", 0, 0, -1, -1, true, 1, ReadStrategy.STREAMING,
+                null, false, "", true, null, true, true);
+        workbook.close();
+        assertFalse(reader.hasNext());
+
+        assertClosed(workbook::getSheets);
+        assertClosed(() -> workbook.getTables("data"));
+        assertClosed(() -> workbook.setSheetColor("data", 10));
+        assertClosed(() -> workbook.readWorksheet("data", true));
+        assertClosed(() -> workbook.writeWorksheet(newData(), "data", true, false));
+        assertClosed(() -> {
+            try {
+                workbook.save();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertClosed(() -> {
+            try {
+                workbook.save(file);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        // Failing to save does not touch the existing file
+        assertArrayEquals(saved, Files.readAllBytes(file.toPath()));
+        // Closing again has no effect
+        workbook.close();
+    }
+
+    @Test
+    public void closingDiscardsChanges() throws IOException {
+        File file = new File(folder.getRoot(), "discard.xlsx");
+        try (Workbook workbook = Workbook.getWorkbook(file, true)) {
+            workbook.createSheet("data");
+            workbook.save();
+        }
+        byte[] saved = Files.readAllBytes(file.toPath());
+
+        for (boolean readOnly : new boolean[]{false, true}) {
+            try (Workbook workbook = Workbook.getWorkbook(file, null, false, readOnly)) {
+                workbook.writeWorksheet(newData(), "data", true, false);
+            }
+            assertArrayEquals(saved, Files.readAllBytes(file.toPath()));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import com.miraisolutions.xlconnect.data.Column;
+import com.miraisolutions.xlconnect.data.DataFrame;
+import com.miraisolutions.xlconnect.data.DataType;
+import com.zaxxer.sparsebits.SparseBitSet;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Temporary folder for tests working with workbook files, together with helpers for creating and comparing test data
+ */
+public class WorkbookFolder extends TemporaryFolder {
+
+    /**
+     * Creates a workbook file with POI; the format (*.xls or *.xlsx) is determined by the file name
+     *
+     * @param content Creates the workbook content
+     */
+    public File newWorkbookFile(String name, Consumer<org.apache.poi.ss.usermodel.Workbook> content)
+            throws IOException {
+        File file = newFile(name);
+        try (org.apache.poi.ss.usermodel.Workbook wb = name.endsWith(".xls") ? new HSSFWorkbook() : new XSSFWorkbook();
+             OutputStream os = new FileOutputStream(file)) {
+            content.accept(wb);
+            wb.write(os);
+        }
+        return file;
+    }
+
+    public static Column numericColumn(double... values) {
+        return new Column(values, values.length, new SparseBitSet(), DataType.Numeric);
+    }
+
+    public static Column stringColumn(String... values) {
+        return new Column(values, values.length, new SparseBitSet(), DataType.String);
+    }
+
+    public static DataFrame dataFrame(String[] names, Column... columns) {
+        DataFrame data = new DataFrame();
+        for (int i = 0; i < columns.length; i++) {
+            data.addColumn(names[i], columns[i]);
+        }
+        return data;
+    }
+
+    public static void assertDataFrameEquals(DataFrame expected, DataFrame actual) {
+        assertEquals(expected.getColumnNames(), actual.getColumnNames());
+        assertEquals(expected.getColumnTypes(), actual.getColumnTypes());
+        for (int j = 0; j < expected.columns(); j++) {
+            Column e = expected.getColumn(j);
+            Column a = actual.getColumn(j);
+            assertEquals(e.getMissing(), a.getMissing());
+            switch (e.getDataType()) {
+                case Boolean:
+                    assertArrayEquals(e.getBooleanData(), a.getBooleanData());
+                    break;
+                case DateTime:
+                    assertArrayEquals(e.getDateTimeData(), a.getDateTimeData());
+                    break;
+                case Numeric:
+                    assertArrayEquals(e.getNumericData(), a.getNumericData(), 0.0);
+                    break;
+                default:
+                    assertArrayEquals(e.getStringData(), a.getStringData());
+            }
+        }
+    }
+}
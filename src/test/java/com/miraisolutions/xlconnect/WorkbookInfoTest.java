@@ -0,0 +1,105 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.AreaReference;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class WorkbookInfoTest {
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    private File createFile(String name) throws IOException {
+        return folder.newWorkbookFile(name, w -> {
+            String[] sheetNames = {"first", "second", "third"};
+            for (int s = 0; s < sheetNames.length; s++) {
+                Sheet sheet = w.createSheet(sheetNames[s]);
+                for (int i = 0; i < 10 * (s + 1); i++) {
+                    for (int j = 0; j <= s; j++) sheet.createRow(i).createCell(j).setCellValue(i);
+                }
+            }
+            Name global = w.createName();
+            global.setNameName("globalName");
+            global.setRefersToFormula("first!$A$1:$A$5");
+            Name local = w.createName();
+            local.setNameName("localName");
+            local.setSheetIndex(1);
+            local.setRefersToFormula("second!$A$1:$B$5");
+            if (w instanceof XSSFWorkbook) {
+                XSSFSheet sheet = ((XSSFWorkbook) w).getSheet("third");
+                sheet.createTable(new AreaReference("A1:C5", SpreadsheetVersion.EXCEL2007)).setName("ThirdTable");
+            }
+        });
+    }
+
+    private static void assertSameInfo(File file) throws IOException {
+        WorkbookInfo info = Workbook.probe(file);
+        try (Workbook workbook = Workbook.getWorkbook(file, false)) {
+            assertSameInfo(info, workbook);
+        }
+    }
+
+    private static void assertSameInfo(WorkbookInfo info, Workbook workbook) {
+        assertArrayEquals(workbook.getSheets(), info.getSheets());
+        for (String scope : new String[]{null, "", "second", "third"}) {
+            ResultWithAttributes<String[]> expected = workbook.getDefinedNames(false, scope);
+            ResultWithAttributes<String[]> actual = info.getDefinedNames(scope);
+            assertArrayEquals(expected.getValue(), actual.getValue());
+            assertArrayEquals(expected.getAttributes().get(Attribute.WORKSHEET_SCOPE.toString()),
+                    actual.getAttributes().get(Attribute.WORKSHEET_SCOPE.toString()));
+        }
+        for (String sheet : workbook.getSheets()) {
+            assertArrayEquals(workbook.getTables(sheet), info.getTables(sheet));
+            assertEquals(workbook.getLastRow(sheet), info.getLastRow(sheet));
+            assertEquals(workbook.getLastColumn(sheet), info.getLastColumn(sheet));
+        }
+    }
+
+    @Test
+    public void probesXlsx() throws IOException {
+        File file = createFile("probe.xlsx");
+        assertSameInfo(file);
+        assertArrayEquals(new String[]{"ThirdTable"}, Workbook.probe(file).getTables("third"));
+    }
+
+    @Test
+    public void probesXls() throws IOException {
+        assertSameInfo(createFile("probe.xls"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownSheets() throws IOException {
+        Workbook.probe(createFile("unknown.xlsx")).getLastRow("fourth");
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.data;
+
+import com.zaxxer.sparsebits.SparseBitSet;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ArrowIpcTest {
+
+    private static DataFrame createDataFrame(int rows) {
+        double[] numbers = new double[rows];
+        String[] strings = new String[rows];
+        boolean[] booleans = new boolean[rows];
+        long[] dates = new long[rows];
+        SparseBitSet missing = new SparseBitSet(rows);
+        for (int i = 0; i < rows; i++) {
+            numbers[i] = i * 1.5;
+            strings[i] = i % 3 == 1 ? null : "s\u00e4" + i;
+            booleans[i] = i % 2 == 0;
+            dates[i] = 1600000000000L + i;
+            if (i % 3 == 1) missing.set(i);
+        }
+        DataFrame data = new DataFrame();
+        data.addColumn("num", new Column(numbers, rows, new SparseBitSet(rows), DataType.Numeric));
+        data.addColumn("str", new Column(strings, rows, missing, DataType.String));
+        data.addColumn(null, new Column(booleans, rows, missing.clone(), DataType.Boolean));
+        data.addColumn("date", new Column(dates, rows, new SparseBitSet(rows), DataType.DateTime));
+        return data;
+    }
+
+    private static void assertDataFrameEquals(DataFrame expected, DataFrame actual) {
+        assertEquals(expected.getColumnNames(), actual.getColumnNames());
+        assertEquals(expected.getColumnTypes(), actual.getColumnTypes());
+        assertEquals(expected.rows(), actual.rows());
+        for (int i = 0; i < expected.columns(); i++) {
+            assertEquals(expected.getColumn(i).getMissing(), actual.getColumn(i).getMissing());
+        }
+        assertArrayEquals(expected.getColumn(0).getNumericData(), actual.getColumn(0).getNumericData(), 0.0);
+        assertArrayEquals(expected.getColumn(1).getStringData(), actual.getColumn(1).getStringData());
+        assertArrayEquals(expected.getColumn(2).getBooleanData(), actual.getColumn(2).getBooleanData());
+        assertArrayEquals(expected.getColumn(3).getDateTimeData(), actual.getColumn(3).getDateTimeData());
+    }
+
+    @Test
+    public void roundTrip() {
+        DataFrame data = createDataFrame(10);
+        DataFrame copy = ArrowIpc.read(ArrowIpc.toByteArray(data));
+        assertDataFrameEquals(data, copy);
+        assertNull(copy.getColumnName(2));
+    }
+
+    @Test
+    public void roundTripMultipleBatches() {
+        DataFrame data = createDataFrame(150000);
+        assertDataFrameEquals(data, ArrowIpc.read(ArrowIpc.toByteArray(data)));
+    }
+
+    @Test
+    public void streamFraming() {
+        ByteBuffer buffer = ByteBuffer.wrap(ArrowIpc.toByteArray(createDataFrame(3))).order(ByteOrder.LITTLE_ENDIAN);
+        // Schema message: continuation marker and 8 byte aligned metadata
+        assertEquals(-1, buffer.getInt(0));
+        assertEquals(0, (8 + buffer.getInt(4)) % 8);
+        // End of stream marker
+        assertEquals(-1, buffer.getInt(buffer.limit() - 8));
+        assertEquals(0, buffer.getInt(buffer.limit() - 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedStream() {
+        byte[] bytes = ArrowIpc.toByteArray(createDataFrame(3));
+        ArrowIpc.read(java.util.Arrays.copyOf(bytes, 40));
+    }
+
+    private static byte[] readReference() throws IOException {
+        try (InputStream in = ArrowIpcTest.class.getResourceAsStream("reference.arrows")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int n; (n = in.read(buffer)) > 0; ) out.write(buffer, 0, n);
+            return out.toByteArray();
+        }
+    }
+
+    // Data of reference.arrows (see reference.py)
+    private static DataFrame createReferenceDataFrame() {
+        SparseBitSet missing = new SparseBitSet();
+        missing.set(1);
+        DataFrame data = new DataFrame();
+        data.addColumn("num", new Column(new double[]{1.5, 0, -3.25, 1e300}, 4, missing, DataType.Numeric));
+        data.addColumn("str", new Column(new String[]{"a", null, "\u00e4\u20ac", ""}, 4, missing.clone(), DataType.String));
+        data.addColumn("flag", new Column(new boolean[]{true, false, false, true}, 4, missing.clone(), DataType.Boolean));
+        data.addColumn("time", new Column(new long[]{1600000000123L, 0, -86400000L, 0}, 4, missing.clone(),
+                DataType.DateTime));
+        return data;
+    }
+
+    // Skips the schema and record batch metadata; the remainder is the record batch body and the end of stream marker
+    private static byte[] bodyAndEnd(byte[] stream) {
+        ByteBuffer buffer = ByteBuffer.wrap(stream).order(ByteOrder.LITTLE_ENDIAN);
+        int position = 0;
+        for (int message = 0; message < 2; message++) {
+            assertEquals(-1, buffer.getInt(position));
+            position += 8 + buffer.getInt(position + 4);
+        }
+        return java.util.Arrays.copyOfRange(stream, position, stream.length);
+    }
+
+    @Test
+    public void readsReferenceStream() throws IOException {
+        assertDataFrameEquals(createReferenceDataFrame(), ArrowIpc.read(readReference()));
+    }
+
+    @Test
+    public void writesReferenceBody() throws IOException {
+        // Flatbuffer layouts may legitimately differ, but the buffers must be identical
+        assertArrayEquals(bodyAndEnd(readReference()), bodyAndEnd(ArrowIpc.toByteArray(createReferenceDataFrame())));
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.data;
+
+import com.miraisolutions.xlconnect.ErrorBehavior;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnBuilderTest {
+
+    private XSSFWorkbook workbook;
+    private Sheet sheet;
+
+    @Before
+    public void createSheet() {
+        workbook = new XSSFWorkbook();
+        sheet = workbook.createSheet("data");
+        // Column A: blank, blank, 1, 2, "x", 3, "4"
+        Object[] values = {null, null, 1.0, 2.0, "x", 3.0, "4"};
+        for (int i = 0; i < values.length; i++) {
+            Row row = sheet.createRow(i);
+            if (values[i] instanceof Double) row.createCell(0).setCellValue((Double) values[i]);
+            else if (values[i] instanceof String) row.createCell(0).setCellValue((String) values[i]);
+        }
+    }
+
+    @After
+    public void closeWorkbook() throws IOException {
+        workbook.close();
+    }
+
+    private ColumnBuilder newBuilder(boolean forceConversion) {
+        return new DefaultColumnBuilder(4, forceConversion, true, null, ErrorBehavior.WARN, new MissingValues(new Object[]{null}), "");
+    }
+
+    private void addCells(ColumnBuilder cb) {
+        for (int i = 0; i <= sheet.getLastRowNum(); i++) {
+            cb.addCell(sheet.getRow(i).getCell(0));
+        }
+    }
+
+    @Test
+    public void specifiedTypeMatchesBufferedBuild() {
+        for (DataType type : DataType.values()) {
+            ColumnBuilder buffered = newBuilder(true);
+            addCells(buffered);
+            ColumnBuilder direct = newBuilder(true);
+            direct.setColumnType(type);
+            addCells(direct);
+
+            Column expected = buildColumn(buffered, type);
+            Column actual = buildColumn(direct, type);
+            assertEquals(expected.getMissing(), actual.getMissing());
+            assertEquals(buffered.getWarnings(), direct.getWarnings());
+            switch (type) {
+                case Boolean:
+                    assertArrayEquals(expected.getBooleanData(), actual.getBooleanData());
+                    break;
+                case DateTime:
+                    assertArrayEquals(expected.getDateTimeData(), actual.getDateTimeData());
+                    break;
+                case Numeric:
+                    assertArrayEquals(expected.getNumericData(), actual.getNumericData(), 0.0);
+                    break;
+                case String:
+                    assertArrayEquals(expected.getStringData(), actual.getStringData());
+                    break;
+            }
+        }
+    }
+
+    @Test
+    public void sampleDeterminesColumnType() {
+        ColumnBuilder cb = newBuilder(false);
+        cb.setSampleSize(2);
+        addCells(cb);
+        // The sample is extended beyond the leading missing values
+        assertEquals(DataType.Numeric, cb.determineColumnType());
+        Column column = cb.buildNumericColumn();
+        assertArrayEquals(new double[]{0, 0, 1, 2, 0, 3, 0}, column.getNumericData(), 0.0);
+        for (int i : new int[]{0, 1, 4, 6}) {
+            assertTrue(column.isMissing(i));
+        }
+        // Values dropped after the sample are reported
+        assertEquals(2, cb.getWarnings().size());
+        assertTrue(cb.getWarnings().get(0).startsWith("Cell data!A5 cannot be converted from String to Numeric"));
+
+        // Clearing keeps the sample size but not the column type
+        cb.clear();
+        cb.addCell(sheet.getRow(4).getCell(0));
+        assertEquals(DataType.String, cb.determineColumnType());
+    }
+
+    @Test
+    public void specifiedTypeIsKeptWhenClearing() {
+        ColumnBuilder cb = newBuilder(true);
+        cb.setColumnType(DataType.Numeric);
+        addCells(cb);
+        assertArrayEquals(new double[]{0, 0, 1, 2, 0, 3, 4}, cb.buildNumericColumn().getNumericData(), 0.0);
+        assertEquals(1, cb.getWarnings().size());
+
+        cb.clear();
+        cb.addCell(sheet.getRow(4).getCell(0));
+        assertEquals(DataType.Numeric, cb.determineColumnType());
+        assertTrue(cb.buildNumericColumn().isMissing(0));
+    }
+
+    @Test
+    public void decimalSeparatorIsUsedForConversion() {
+        Row row = sheet.createRow(sheet.getLastRowNum() + 1);
+        row.createCell(0).setCellValue("2,5");
+        ColumnBuilder cb = newBuilder(true);
+        cb.setDecimalSeparator(',');
+        cb.setColumnType(DataType.Numeric);
+        addCells(cb);
+        Column column = cb.buildNumericColumn();
+        assertEquals(2.5, column.getNumericData()[7], 0.0);
+        assertEquals(4.0, column.getNumericData()[6], 0.0);
+        assertTrue(column.isMissing(4));
+    }
+
+    @Test
+    public void dateTimeStringsAreConvertedPerColumn() {
+        String format = "%Y-%m-%d %H:%M:%S";
+        Sheet dates = workbook.createSheet("dates");
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+        LocalDateTime dateTime = LocalDateTime.of(2012, 2, 6, 16, 15, 23);
+        // true, "2012-02-06 16:15:23", "x", false, 2012-02-06 16:15:23 (date formatted), "2012-02-06"
+        dates.createRow(0).createCell(0).setCellValue(true);
+        dates.createRow(1).createCell(0).setCellValue("2012-02-06 16:15:23");
+        dates.createRow(2).createCell(0).setCellValue("x");
+        dates.createRow(3).createCell(0).setCellValue(false);
+        Cell cell = dates.createRow(4).createCell(0);
+        cell.setCellValue(dateTime);
+        cell.setCellStyle(dateStyle);
+        dates.createRow(5).createCell(0).setCellValue("2012-02-06");
+
+        long millis = dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        for (boolean direct : new boolean[]{false, true}) {
+            ColumnBuilder cb = new DefaultColumnBuilder(6, true, true, null, ErrorBehavior.WARN,
+                    new MissingValues(new Object[]{null}), format);
+            if (direct) cb.setColumnType(DataType.DateTime);
+            for (int i = 0; i < 6; i++) {
+                cb.addCell(dates.getRow(i).getCell(0));
+            }
+            Column column = cb.buildDateTimeColumn();
+            assertEquals(millis, column.getDateTimeData()[1]);
+            assertEquals(millis, column.getDateTimeData()[4]);
+            for (int i : new int[]{0, 2, 3, 5}) {
+                assertTrue(column.isMissing(i));
+            }
+            // Warnings are reported in cell order
+            List<String> warnings = cb.getWarnings();
+            assertEquals(4, warnings.size());
+            String[] expected = {"dates!A1 cannot be converted from Boolean", "dates!A3 cannot be converted from String",
+                    "dates!A4 cannot be converted from Boolean", "dates!A6 cannot be converted from String"};
+            for (int i = 0; i < expected.length; i++) {
+                assertTrue(warnings.get(i), warnings.get(i).startsWith("Cell " + expected[i] + " to DateTime"));
+            }
+        }
+
+        ColumnBuilder cb = new DefaultColumnBuilder(1, true, true, null, ErrorBehavior.WARN,
+                new MissingValues(new Object[]{null}), format);
+        cb.addCell(cell);
+        assertArrayEquals(new String[]{"2012-02-06 16:15:23"}, cb.buildStringColumn().getStringData());
+    }
+
+    private static Column buildColumn(ColumnBuilder cb, DataType type) {
+        switch (type) {
+            case Boolean:
+                return cb.buildBooleanColumn();
+            case DateTime:
+                return cb.buildDateTimeColumn();
+            case Numeric:
+                return cb.buildNumericColumn();
+            default:
+                return cb.buildStringColumn();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.data;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MissingValuesTest {
+
+    @Test
+    public void matchesLikeDoubleEquals() {
+        MissingValues missing = new MissingValues(new Object[]{null, -999.0, Double.NaN, 0.0, "NA", "", 42});
+        assertTrue(missing.isMissing(-999.0));
+        assertTrue(missing.isMissing(Double.NaN));
+        assertTrue(missing.isMissing(0.0));
+        assertFalse(missing.isMissing(-0.0));
+        assertFalse(missing.isMissing(42.0));
+        assertFalse(missing.isMissing(1.0));
+        assertTrue(missing.isMissing("NA"));
+        assertTrue(missing.isMissing(""));
+        assertFalse(missing.isMissing("na"));
+    }
+
+    @Test
+    public void manySentinels() {
+        Object[] values = new Object[100];
+        for (int i = 0; i < values.length; i++) values[i] = (double) (i * 7);
+        MissingValues missing = new MissingValues(values);
+        for (int i = 0; i < 700; i++) {
+            if (i % 7 == 0) assertTrue(missing.isMissing(i));
+            else assertFalse(missing.isMissing(i));
+        }
+        assertFalse(new MissingValues(new Object[0]).isMissing(Double.NaN));
+    }
+}
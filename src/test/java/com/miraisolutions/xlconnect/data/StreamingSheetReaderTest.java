@@ -0,0 +1,187 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.data;
+
+import com.miraisolutions.xlconnect.Workbook;
+import com.miraisolutions.xlconnect.WorkbookFolder;
+import com.zaxxer.sparsebits.SparseBitSet;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class StreamingSheetReaderTest {
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    private File file;
+    private Workbook workbook;
+
+    @Before
+    public void createWorkbook() throws IOException {
+        file = folder.newWorkbookFile("streaming.xlsx", wb -> {
+            Sheet sheet = wb.createSheet("data");
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.createDataFormat().getFormat("yyyy-mm-dd"));
+
+            Row header = sheet.createRow(2);
+            header.createCell(1).setCellValue("num");
+            header.createCell(2).setCellValue("str");
+            header.createCell(3).setCellValue("bool");
+            header.createCell(4).setCellValue("date");
+            header.createCell(6).setCellValue("formula");
+
+            for (int i = 0; i < 20; i++) {
+                if (i == 7) continue; // missing row
+                Row row = sheet.createRow(3 + i);
+                row.createCell(1).setCellValue(i * 1.5);
+                if (i % 3 != 0) row.createCell(2).setCellValue("s" + i);
+                else row.createCell(2).setCellValue(i);
+                row.createCell(3).setCellValue(i % 2 == 0);
+                row.createCell(4).setCellValue(new GregorianCalendar(2020, Calendar.JANUARY, 1 + i).getTime());
+                row.getCell(4).setCellStyle(dateStyle);
+                row.createCell(5).setBlank();
+                row.createCell(6).setCellFormula("B" + (4 + i) + "*2");
+            }
+            sheet.createRow(30).createCell(8).setBlank();
+            wb.getCreationHelper().createFormulaEvaluator().evaluateAll();
+        });
+        workbook = Workbook.getWorkbook(file, false);
+    }
+
+    @After
+    public void closeWorkbook() throws IOException {
+        workbook.close();
+    }
+
+    @Test
+    public void boundingBoxMatchesDefault() throws Exception {
+        int[][] specs = {
+                {-1, -1, -1, -1}, {0, 0, -1, -1}, {3, 2, 10, 4}, {-1, 2, -1, 3}, {-1, -1, -2, -2}, {25, -1, -1, -1}
+        };
+        try (XSSFWorkbook wb = new XSSFWorkbook(file)) {
+            StreamingSheetReader reader = new StreamingSheetReader(wb.getSheetAt(0));
+            for (int[] spec : specs) {
+                for (boolean autofit : new boolean[]{true, false}) {
+                    int[] expected = workbook.getBoundingBox(0, spec[0], spec[1], spec[2], spec[3], autofit, autofit);
+                    int[] actual = reader.getBoundingBox(spec[0], spec[1], spec[2], spec[3], autofit, autofit);
+                    assertArrayEquals(expected, actual);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void readWorksheetMatchesDefault() {
+        assertSameData(read(ReadStrategy.DEFAULT, null, null), read(ReadStrategy.STREAMING, null, null));
+        int[] subset = {3, 0, 5};
+        assertSameData(read(ReadStrategy.DEFAULT, null, subset), read(ReadStrategy.STREAMING, null, subset));
+        DataType[] colTypes = {DataType.String};
+        assertSameData(read(ReadStrategy.DEFAULT, colTypes, null), read(ReadStrategy.STREAMING, colTypes, null));
+    }
+
+    @Test
+    public void chunkedReadMatchesDefault() {
+        DataFrame expected = read(ReadStrategy.DEFAULT, null, null);
+        for (ReadStrategy readStrategy : new ReadStrategy[]{ReadStrategy.DEFAULT, ReadStrategy.STREAMING}) {
+            Workbook.ChunkReader reader = workbook.openReader(0, -1, -1, -1, -1, true, 6, readStrategy, null, false,
+                    "%Y-%m-%d", true, null, true, true);
+            int from = 0;
+            while (reader.hasNext()) {
+                DataFrame chunk = reader.nextChunk();
+                assertSameData(slice(expected, from, chunk.rows()), chunk);
+                from += chunk.rows();
+            }
+            assertEquals(expected.rows(), from);
+        }
+    }
+
+    private static DataFrame slice(DataFrame data, int from, int rows) {
+        DataFrame slice = new DataFrame();
+        for (int i = 0; i < data.columns(); i++) {
+            Column col = data.getColumn(i);
+            Object values;
+            switch (col.getDataType()) {
+                case Boolean:
+                    values = Arrays.copyOfRange(col.getBooleanData(), from, from + rows);
+                    break;
+                case DateTime:
+                    values = Arrays.copyOfRange(col.getDateTimeData(), from, from + rows);
+                    break;
+                case Numeric:
+                    values = Arrays.copyOfRange(col.getNumericData(), from, from + rows);
+                    break;
+                default:
+                    values = Arrays.copyOfRange(col.getStringData(), from, from + rows);
+            }
+            SparseBitSet missing = new SparseBitSet(rows);
+            for (int j = 0; j < rows; j++) {
+                if (col.isMissing(from + j)) missing.set(j);
+            }
+            slice.addColumn(data.getColumnName(i), new Column(values, rows, missing, col.getDataType()));
+        }
+        return slice;
+    }
+
+    private DataFrame read(ReadStrategy readStrategy, DataType[] colTypes, int[] subset) {
+        return workbook.readWorksheet(0, -1, -1, -1, -1, true, readStrategy, colTypes, false,
+                "%Y-%m-%d", true, subset, true, true);
+    }
+
+    private static void assertSameData(DataFrame expected, DataFrame actual) {
+        assertEquals(expected.getColumnNames(), actual.getColumnNames());
+        assertEquals(expected.getColumnTypes(), actual.getColumnTypes());
+        assertEquals(expected.rows(), actual.rows());
+        for (int i = 0; i < expected.columns(); i++) {
+            Column e = expected.getColumn(i);
+            Column a = actual.getColumn(i);
+            assertEquals(e.getMissing(), a.getMissing());
+            switch (e.getDataType()) {
+                case Boolean:
+                    assertArrayEquals(e.getBooleanData(), a.getBooleanData());
+                    break;
+                case DateTime:
+                    assertArrayEquals(e.getDateTimeData(), a.getDateTimeData());
+                    break;
+                case Numeric:
+                    assertArrayEquals(e.getNumericData(), a.getNumericData(), 0.0);
+                    break;
+                case String:
+                    assertArrayEquals(e.getStringData(), a.getStringData());
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.integration.r;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public final class RDataFrameWrapperTest {
+
+    @Test
+    public void binaryRoundTrip() {
+        RDataFrameWrapper data = new RDataFrameWrapper();
+        boolean[] na = {false, true, false, false, false, false, false, false, true};
+        data.addNumericColumn("num", new double[]{1.5, 0, -3, Double.NaN, 1e300, 0, 7, 8, 9}, na);
+        data.addStringColumn("str", new String[]{"a", null, "", "\u00e4\u20ac", "x\u0000y", "f", "g", "h", null}, na);
+        data.addBooleanColumn("bool", new boolean[]{true, false, false, true, true, false, true, false, false}, na);
+        data.addDateTimeColumn("date", new long[]{0, 0, -86400000L, 1600000000123L, 1, 2, 3, 4, 0}, na);
+
+        RDataFrameWrapper copy = new RDataFrameWrapper(data.toBytes());
+
+        assertArrayEquals(data.getColumnNames(), copy.getColumnNames());
+        assertArrayEquals(data.getColumnTypes(), copy.getColumnTypes());
+        for (int i = 0; i < 4; i++) {
+            assertArrayEquals(na, copy.isMissing(i));
+        }
+        assertArrayEquals(data.getNumericColumn(0), copy.getNumericColumn(0), 0.0);
+        assertArrayEquals(new String[]{"a", null, "", "\u00e4\u20ac", "xy", "f", "g", "h", null}, copy.getStringColumn(1));
+        assertArrayEquals(data.getBooleanColumn(2), copy.getBooleanColumn(2));
+        assertArrayEquals(data.getDateTimeColumn(3), copy.getDateTimeColumn(3));
+    }
+
+    @Test
+    public void binaryLayout() {
+        RDataFrameWrapper data = new RDataFrameWrapper();
+        data.addNumericColumn(null, new double[]{1, 2}, new boolean[]{false, true});
+
+        ByteBuffer buffer = ByteBuffer.wrap(data.toBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(4 + 3 * 4 + 2 + 1 + 2 * 8, buffer.remaining());
+        assertEquals('X', buffer.get());
+        buffer.position(4);
+        assertEquals(1, buffer.getInt());
+        assertEquals(1, buffer.getInt());
+        assertEquals(2, buffer.getInt());
+        assertEquals(2, buffer.get());
+        assertEquals(0, buffer.get());
+        assertEquals(2, buffer.get());
+        assertEquals(1.0, buffer.getDouble(), 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownBinaryType() {
+        RDataFrameWrapper data = new RDataFrameWrapper();
+        data.addNumericColumn("num", new double[]{1}, new boolean[]{false});
+        byte[] bytes = data.toBytes();
+        bytes[4 + 3 * 4] = 4;
+        new RDataFrameWrapper(bytes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedBinary() {
+        RDataFrameWrapper data = new RDataFrameWrapper();
+        data.addStringColumn("str", new String[]{"abc"}, new boolean[]{false});
+        byte[] bytes = data.toBytes();
+        new RDataFrameWrapper(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.integration.r;
+
+import com.miraisolutions.xlconnect.ResultWithAttributes;
+import com.miraisolutions.xlconnect.WorkbookFolder;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static com.miraisolutions.xlconnect.MultiRegionReadTest.createRegions;
+import static org.junit.Assert.assertArrayEquals;
+
+public final class RWorkbookWrapperTest {
+
+    private static final String[] SHEETS = {"a", "b", "c"};
+    private static final String[] NAMES = {"regionA", "regionB", "regionC"};
+
+    @Rule
+    public WorkbookFolder folder = new WorkbookFolder();
+
+    private static void assertWrapperEquals(RDataFrameWrapper expected, RDataFrameWrapper actual) {
+        assertArrayEquals(expected.getColumnNames(), actual.getColumnNames());
+        assertArrayEquals(expected.toBytes(), actual.toBytes());
+    }
+
+    @Test
+    public void readNamedRegionsMatchesSingleReads() throws IOException {
+        try (RWorkbookWrapper workbook = new RWorkbookWrapper(createRegions(folder).getPath(), false)) {
+            workbook.setParallelism(2);
+            for (String readStrategy : new String[]{"default", "streaming"}) {
+                ResultWithAttributes<RDataFrameWrapper[]> result = workbook.readNamedRegions(NAMES, true, null,
+                        false, "", true, null, readStrategy, null);
+                String[] scopes = new String[NAMES.length];
+                for (int i = 0; i < NAMES.length; i++) {
+                    ResultWithAttributes<RDataFrameWrapper> single = workbook.readNamedRegion(NAMES[i], true, null,
+                            false, "", true, null, readStrategy, null);
+                    assertWrapperEquals(single.getValue(), result.getValue()[i]);
+                    scopes[i] = single.getAttributeValue("worksheetScope")[0];
+                }
+                assertArrayEquals(scopes, result.getAttributeValue("worksheetScope"));
+            }
+        }
+    }
+
+    @Test
+    public void readWorksheetsMatchesSingleReads() throws IOException {
+        try (RWorkbookWrapper workbook = new RWorkbookWrapper(createRegions(folder).getPath(), false)) {
+            workbook.setParallelism(2);
+            for (String readStrategy : new String[]{"default", "streaming"}) {
+                RDataFrameWrapper[] result = workbook.readWorksheets(SHEETS, 1, 1, 6, 2, true, null, false, "",
+                        true, null, readStrategy);
+                for (int i = 0; i < SHEETS.length; i++) {
+                    assertWrapperEquals(workbook.readWorksheet(SHEETS[i], 1, 1, 6, 2, true, null, false, "", true,
+                            null, readStrategy), result[i]);
+                }
+            }
+        }
+    }
+}
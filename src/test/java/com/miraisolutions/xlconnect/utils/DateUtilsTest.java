@@ -0,0 +1,98 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.utils;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.LocaleUtil;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+public final class DateUtilsTest {
+
+    private static final String[] ZONES = {"UTC", "Europe/Zurich", "America/New_York", "Australia/Lord_Howe"};
+
+    @After
+    public void afterEach() {
+        LocaleUtil.resetUserTimeZone();
+    }
+
+    @Test
+    public void toEpochMillisMatchesPOI() {
+        Random random = new Random(42);
+        double[] excelDates = new double[10000];
+        for (int i = 0; i < excelDates.length; i++) {
+            // Whole days, quarter hours (including daylight saving time transitions) and arbitrary times
+            switch (i % 3) {
+                case 0:
+                    excelDates[i] = random.nextInt(60000);
+                    break;
+                case 1:
+                    excelDates[i] = random.nextInt(60000) + random.nextInt(96) / 96.0;
+                    break;
+                default:
+                    excelDates[i] = random.nextDouble() * 60000;
+            }
+        }
+        excelDates[0] = 0;
+        excelDates[1] = 0.75;
+        excelDates[2] = 60;
+        excelDates[3] = -1;
+
+        for (String zone : ZONES) {
+            LocaleUtil.setUserTimeZone(TimeZone.getTimeZone(zone));
+            for (boolean date1904 : new boolean[]{false, true}) {
+                long[] millis = DateUtils.toEpochMillis(excelDates, excelDates.length, date1904);
+                for (int i = 0; i < excelDates.length; i++) {
+                    Date expected = DateUtil.getJavaDate(excelDates[i], date1904);
+                    assertEquals(zone + ": " + excelDates[i], expected == null ? 0 : expected.getTime(), millis[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void toExcelDatesMatchesPOI() {
+        Random random = new Random(42);
+        long[] millis = new long[10000];
+        for (int i = 0; i < millis.length; i++) {
+            // Roughly 1850 - 2100
+            millis[i] = (long) ((random.nextDouble() * 250 - 120) * 365.25 * 86400000L) + random.nextInt(1000);
+        }
+
+        for (String zone : ZONES) {
+            LocaleUtil.setUserTimeZone(TimeZone.getTimeZone(zone));
+            for (boolean date1904 : new boolean[]{false, true}) {
+                double[] excelDates = DateUtils.toExcelDates(millis, date1904);
+                for (int i = 0; i < millis.length; i++) {
+                    double expected = DateUtil.getExcelDate(new Date(millis[i]), date1904);
+                    // POI adds and subtracts a day for the 1904 date system, which may round the last bit differently
+                    assertEquals(zone + ": " + millis[i], expected, excelDates[i], date1904 ? Math.ulp(expected) : 0.0);
+                }
+            }
+        }
+    }
+}
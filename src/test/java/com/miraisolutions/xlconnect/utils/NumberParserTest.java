@@ -0,0 +1,66 @@
+/*
+ *
+    XLConnect
+    Copyright (C) 2010-2025 Mirai Solutions GmbH
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.miraisolutions.xlconnect.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class NumberParserTest {
+
+    private static void assertParsedAsJava(String s) {
+        double expected;
+        try {
+            expected = Double.parseDouble(s);
+        } catch (NumberFormatException e) {
+            expected = Double.NaN;
+        }
+        assertEquals(s, Double.doubleToLongBits(expected), Double.doubleToLongBits(NumberParser.parseDouble(s)));
+    }
+
+    @Test
+    public void parsesAsJava() {
+        String[] values = {"0", "-0", "+1", "1.", ".5", "0.001", " 42 ", "1e5", "1E-5", "-2.5e+3", "1.5d", "3f",
+                "123456789012345678901234567890", "0.1234567890123456789", "1e400", "1e-400", "4.9e-324",
+                "1.7976931348623157e308", "Infinity", "-Infinity", "NaN", "0x1p3", "", " ", "-", ".", "e5", "1e",
+                "1e+", "1.2.3", "1,5", "abc", "12a", "1 2", "Infinityx", "0x", "++1", "1d5"};
+        for (String s : values) {
+            assertParsedAsJava(s);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            assertParsedAsJava(Double.toString(Double.longBitsToDouble(random.nextLong())));
+            assertParsedAsJava(String.format("%." + random.nextInt(12) + "f", random.nextDouble() * 1e6));
+        }
+    }
+
+    @Test
+    public void parsesCommaDecimals() {
+        assertEquals(-1234.5, NumberParser.parseDouble("-1234,5", ','), 0);
+        assertEquals(0.25e-3, NumberParser.parseDouble(",25e-3", ','), 0);
+        assertEquals(0.1, NumberParser.parseDouble("0,10000000000000000000001", ','), 0);
+        assertTrue(Double.isNaN(NumberParser.parseDouble("1.5", ',')));
+        assertTrue(Double.isNaN(NumberParser.parseDouble("1,5d", ',')));
+    }
+}
@@ -30,6 +30,7 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public final class RPOSIXDateTimeFormatterTest {
@@ -80,4 +81,34 @@ public final class RPOSIXDateTimeFormatterTest {
         String result = underTest.format(input, "%d.%m.%Y %H:%M:%S");
         assertEquals("06.07.2012 16:15:23", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void parseDateWithOffset() {
+        Date result = underTest.parse("06.07.2012 16:15:23 +02:00", "%d.%m.%Y %H:%M:%S %z");
+        assertEquals(Instant.parse("2012-07-06T14:15:23Z"), result.toInstant());
+    }
+
+    @Test
+    public void parseMillis() {
+        String format = "%d.%m.%Y %H:%M:%S";
+        assertEquals(underTest.parse("06.07.2012 16:15:23", format).getTime(),
+                underTest.parseMillis("06.07.2012 16:15:23", format));
+        assertEquals(DateTimeFormatter.INVALID, underTest.parseMillis("06.07.2012", format));
+        assertEquals(DateTimeFormatter.INVALID, underTest.parseMillis("06.07.2012 16:15:23 x", format));
+        assertEquals(DateTimeFormatter.INVALID, underTest.parseMillis("06.07.2012", "%d.%m.%Y"));
+    }
+
+    @Test
+    public void formatAndParseColumns() {
+        String format = "%d.%m.%Y %H:%M:%S";
+        long[] millis = {
+                ZonedDateTime.of(2012, 2, 6, 16, 15, 23, 0, ZoneId.systemDefault()).toInstant().toEpochMilli(),
+                ZonedDateTime.of(2012, 7, 6, 16, 15, 23, 0, ZoneId.systemDefault()).toInstant().toEpochMilli()
+        };
+        String[] formatted = underTest.format(millis, format);
+        assertArrayEquals(new String[]{"06.02.2012 16:15:23", "06.07.2012 16:15:23"}, formatted);
+        assertArrayEquals(millis, underTest.parse(formatted, format));
+        assertArrayEquals(new long[]{millis[1], DateTimeFormatter.INVALID, DateTimeFormatter.INVALID},
+                underTest.parse(new String[]{"06.07.2012 16:15:23", "06.07.2012", null}, format));
+    }
+}
@@ -0,0 +1,224 @@
+"""
+Generates reference.arrows, an Arrow IPC stream used as a reference by ArrowIpcTest.
+
+The stream is built from the Arrow columnar format specification (Schema.fbs, Message.fbs)
+independently of the ArrowIpc writer. Flatbuffers are laid out like the reference FlatBuffers
+builder does: back to front, with shared vtables and without fields that have default values.
+
+Columns (4 rows, row 2 missing in every column):
+  num:  Float64                   1.5, null, -3.25, 1e300
+  str:  Utf8                      "a", null, "ä€", ""
+  flag: Bool                      true, null, false, true
+  time: Timestamp(ms, "UTC")      1600000000123, null, -86400000, 0
+
+With pyarrow available, the stream can be cross-checked with
+  python3 -c "import pyarrow as pa; print(pa.ipc.open_stream(open('reference.arrows', 'rb')).read_all())"
+"""
+import struct
+
+
+class Builder:
+    """Port of the reference FlatBuffers builder (subset required for Arrow messages)"""
+
+    def __init__(self):
+        self.buf = bytearray()  # written back to front; buf[0] is the last byte written
+        self.minalign = 1
+        self.vtable = None
+        self.object_end = 0
+        self.vtables = []
+
+    def offset(self):
+        return len(self.buf)
+
+    def pad(self, n):
+        self.buf[0:0] = bytes(n)
+
+    def prep(self, size, additional):
+        self.minalign = max(self.minalign, size)
+        align = (-(len(self.buf) + additional)) % size
+        self.pad(align)
+
+    def place(self, fmt, value):
+        self.buf[0:0] = struct.pack('<' + fmt, value)
+
+    def prepend(self, fmt, value):
+        size = struct.calcsize(fmt)
+        self.prep(size, 0)
+        self.place(fmt, value)
+
+    def prepend_uoffset(self, off):
+        self.prep(4, 0)
+        self.place('I', self.offset() - off + 4)
+
+    def string(self, s):
+        data = s.encode('utf-8')
+        self.prep(4, len(data) + 1)
+        self.buf[0:0] = data + b'\0'
+        self.place('I', len(data))
+        return self.offset()
+
+    def offset_vector(self, offsets):
+        self.prep(4, 4 * len(offsets))
+        for off in reversed(offsets):
+            self.prepend_uoffset(off)
+        self.place('I', len(offsets))
+        return self.offset()
+
+    def long_struct_vector(self, structs):
+        # Structs of two longs (FieldNode, Buffer)
+        self.prep(4, 16 * len(structs))
+        self.prep(8, 16 * len(structs))
+        for a, b in reversed(structs):
+            self.prep(8, 16)
+            self.place('q', b)
+            self.place('q', a)
+        self.place('I', len(structs))
+        return self.offset()
+
+    def start(self, slots):
+        self.vtable = [0] * slots
+        self.object_end = self.offset()
+
+    def slot(self, slot, fmt, value, default=0):
+        if value != default:
+            self.prepend(fmt, value)
+            self.vtable[slot] = self.offset()
+
+    def slot_offset(self, slot, off):
+        if off:
+            self.prepend_uoffset(off)
+            self.vtable[slot] = self.offset()
+
+    def end(self):
+        self.prepend('i', 0)
+        object_offset = self.offset()
+        while self.vtable and self.vtable[-1] == 0:
+            self.vtable.pop()
+        fields = [object_offset - off if off else 0 for off in self.vtable]
+        vt = struct.pack('<HH', 4 + 2 * len(fields), object_offset - self.object_end) + \
+            b''.join(struct.pack('<H', f) for f in fields)
+        existing = next((off for off in self.vtables if self.vtable_at(off) == vt), None)
+        pos = len(self.buf) - object_offset
+        if existing is None:
+            self.buf[0:0] = vt
+            self.vtables.append(self.offset())
+            struct.pack_into('<i', self.buf, len(self.buf) - object_offset, self.offset() - object_offset)
+        else:
+            struct.pack_into('<i', self.buf, pos, existing - object_offset)
+        self.vtable = None
+        return object_offset
+
+    def vtable_at(self, off):
+        pos = len(self.buf) - off
+        size = struct.unpack_from('<H', self.buf, pos)[0]
+        return bytes(self.buf[pos:pos + size])
+
+    def finish(self, root):
+        self.prep(self.minalign, 4)
+        self.prepend_uoffset(root)
+        return bytes(self.buf)
+
+
+TYPE_FLOATING_POINT, TYPE_UTF8, TYPE_BOOL, TYPE_TIMESTAMP = 3, 5, 6, 10
+HEADER_SCHEMA, HEADER_RECORD_BATCH = 1, 3
+METADATA_V5 = 4
+
+
+def field(b, name, type_type, type_builder):
+    name_offset = b.string(name)
+    type_offset = type_builder(b)
+    children = b.offset_vector([])
+    b.start(7)
+    b.slot_offset(5, children)
+    b.slot_offset(3, type_offset)
+    b.slot_offset(0, name_offset)
+    b.slot(2, 'B', type_type)
+    b.slot(1, 'B', 1)
+    return b.end()
+
+
+def floating_point(b):
+    b.start(1)
+    b.slot(0, 'h', 2)
+    return b.end()
+
+
+def empty_table(b):
+    b.start(0)
+    return b.end()
+
+
+def timestamp(b):
+    timezone = b.string('UTC')
+    b.start(2)
+    b.slot_offset(1, timezone)
+    b.slot(0, 'h', 1)
+    return b.end()
+
+
+def message(header_type, build_header, body_length):
+    b = Builder()
+    header = build_header(b)
+    b.start(5)
+    b.slot(3, 'q', body_length)
+    b.slot_offset(2, header)
+    b.slot(0, 'h', METADATA_V5)
+    b.slot(1, 'B', header_type)
+    return b.finish(b.end())
+
+
+def schema(b):
+    fields = [field(b, 'num', TYPE_FLOATING_POINT, floating_point),
+              field(b, 'str', TYPE_UTF8, empty_table),
+              field(b, 'flag', TYPE_BOOL, empty_table),
+              field(b, 'time', TYPE_TIMESTAMP, timestamp)]
+    vector = b.offset_vector(fields)
+    b.start(4)
+    b.slot_offset(1, vector)
+    return b.end()
+
+
+def padded(data):
+    return data + bytes(-len(data) % 8)
+
+
+ROWS = 4
+validity = bytes([0b1101])
+strings = ['a', None, 'ä€', '']
+string_data = b''.join(s.encode('utf-8') for s in strings if s is not None)
+string_offsets = [0]
+for s in strings:
+    string_offsets.append(string_offsets[-1] + (len(s.encode('utf-8')) if s is not None else 0))
+buffers = [
+    validity, struct.pack('<4d', 1.5, 0, -3.25, 1e300),
+    validity, struct.pack('<5i', *string_offsets), string_data,
+    validity, bytes([0b1001]),
+    validity, struct.pack('<4q', 1600000000123, 0, -86400000, 0),
+]
+specs = []
+position = 0
+for buffer in buffers:
+    specs.append((position, len(buffer)))
+    position += len(padded(buffer))
+body = b''.join(padded(buffer) for buffer in buffers)
+
+
+def record_batch(b):
+    buffer_specs = b.long_struct_vector(specs)
+    nodes = b.long_struct_vector([(ROWS, 1)] * 4)
+    b.start(5)
+    b.slot(0, 'q', ROWS)
+    b.slot_offset(2, buffer_specs)
+    b.slot_offset(1, nodes)
+    return b.end()
+
+
+def encapsulate(metadata, body=b''):
+    metadata = padded(metadata)
+    return struct.pack('<Ii', 0xFFFFFFFF, len(metadata)) + metadata + body
+
+
+with open('reference.arrows', 'wb') as out:
+    out.write(encapsulate(message(HEADER_SCHEMA, schema, 0)))
+    out.write(encapsulate(message(HEADER_RECORD_BATCH, record_batch, len(body)), body))
+    out.write(struct.pack('<Ii', 0xFFFFFFFF, 0))